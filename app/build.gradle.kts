@@ -62,7 +62,16 @@ dependencies {
     implementation("com.google.firebase:firebase-firestore:24.10.0")
     testImplementation("junit:junit:4.13.2")
     testImplementation("org.mockito:mockito-core:5.11.0")
+    // org.json is stubbed in android.jar; journal tests need the real implementation
+    testImplementation("org.json:json:20240303")
     // Glide – Image loading library
     implementation("com.github.bumptech.glide:glide:4.16.0")
+    annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
+    implementation("com.github.bumptech.glide:recyclerview-integration:4.16.0") {
+        // Uses the RecyclerView version declared above
+        isTransitive = false
+    }
     implementation("androidx.recyclerview:recyclerview:1.3.2")
+    // WorkManager – replays queued waitlist changes once the device is online
+    implementation("androidx.work:work-runtime:2.10.0")
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.example.carbon;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares index lookups of {@link EventFilterIndex} with a full scan at 10k and 100k events and
+ * logs the latencies of both. The timings are informational.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EventFilterIndexBenchmarkTest {
+    private static final String TAG = "EventFilterBenchmark";
+    private static final int ROUNDS = 20;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final String[] CATEGORIES = {"Sports", "Music", "Art", "Food", "Tech", "Education"};
+
+    @Test
+    public void benchmarkFilterLatency() {
+        for (int size : new int[]{10_000, 100_000}) {
+            Random random = new Random(42);
+            EventFilterIndex index = new EventFilterIndex(UTC);
+            List<Object[]> events = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String key = String.format("event%06d", i);
+                String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                String city = "City" + random.nextInt(200);
+                long epochDay = 20000 + random.nextInt(365);
+                events.add(new Object[]{key, category, city, epochDay});
+                index.put(key, category, city, new Date(epochDay * DAY + 12 * 60 * 60 * 1000));
+            }
+
+            for (EventFilterIndex.Criteria criteria : Arrays.asList(
+                    new EventFilterIndex.Criteria("Music", null, null, null),
+                    new EventFilterIndex.Criteria(null, "City7", null, null),
+                    new EventFilterIndex.Criteria(null, null, 20100L, 20106L),
+                    new EventFilterIndex.Criteria("Art", "City42", 20000L, 20030L))) {
+                List<String> expected = scan(events, criteria);
+                assertEquals(expected, index.query(criteria));
+
+                long start = System.nanoTime();
+                for (int r = 0; r < ROUNDS; r++) index.query(criteria);
+                long indexed = (System.nanoTime() - start) / ROUNDS;
+                start = System.nanoTime();
+                for (int r = 0; r < ROUNDS; r++) scan(events, criteria);
+                long scanned = (System.nanoTime() - start) / ROUNDS;
+
+                Log.i(TAG, String.format("%d events, category=%s location=%s days=%s..%s: %d matches, index %.3f ms, scan %.3f ms",
+                        size, criteria.category, criteria.location, criteria.fromDay, criteria.toDay,
+                        expected.size(), indexed / 1e6, scanned / 1e6));
+            }
+        }
+    }
+
+    private static List<String> scan(List<Object[]> events, EventFilterIndex.Criteria criteria) {
+        List<String> result = new ArrayList<>();
+        for (Object[] e : events) {
+            long epochDay = (Long) e[3];
+            if (criteria.category != null && !criteria.category.equals(e[1])) continue;
+            if (criteria.location != null && !criteria.location.equals(e[2])) continue;
+            if (criteria.fromDay != null && epochDay < criteria.fromDay) continue;
+            if (criteria.toDay != null && epochDay > criteria.toDay) continue;
+            result.add((String) e[0]);
+        }
+        return result;
+    }
+}
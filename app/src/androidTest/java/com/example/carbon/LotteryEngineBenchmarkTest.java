@@ -0,0 +1,59 @@
+package com.example.carbon;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares drawing 100 winners uniformly and weighted with {@link LotteryEngine} against a full
+ * Collections.shuffle from 1k to 1M entrants and logs the latencies. The timings are informational.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LotteryEngineBenchmarkTest {
+    private static final String TAG = "LotteryBenchmark";
+    private static final int WINNERS = 100;
+
+    @Test
+    public void benchmarkDrawLatency() {
+        for (int size : new int[]{1_000, 10_000, 100_000, 1_000_000}) {
+            List<Integer> pool = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) pool.add(i);
+            int rounds = size >= 1_000_000 ? 5 : 20;
+
+            long start = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                assertEquals(WINNERS, new LotteryEngine(r).draw(pool, WINNERS).size());
+            }
+            long engine = (System.nanoTime() - start) / rounds;
+
+            start = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                List<Integer> copy = new ArrayList<>(pool);
+                Collections.shuffle(copy, new Random(r));
+                assertEquals(WINNERS, copy.subList(0, WINNERS).size());
+            }
+            long shuffle = (System.nanoTime() - start) / rounds;
+
+            List<String> keys = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) keys.add("user" + i);
+            start = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                assertEquals(WINNERS, new LotteryEngine(r).drawWeighted(keys, WINNERS, k -> k, k -> 1 + k.length() % 4).size());
+            }
+            long weighted = (System.nanoTime() - start) / rounds;
+
+            Log.i(TAG, String.format("%d entrants, %d winners: engine %.3f ms, weighted %.3f ms, shuffle %.3f ms",
+                    size, WINNERS, engine / 1e6, weighted / 1e6, shuffle / 1e6));
+        }
+    }
+}
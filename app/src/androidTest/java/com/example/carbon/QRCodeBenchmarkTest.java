@@ -0,0 +1,70 @@
+package com.example.carbon;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.zxing.common.BitMatrix;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the bulk setPixels rendering of QR codes with the former per-pixel rendering and logs
+ * the per-code generation time of both. The timings are informational.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QRCodeBenchmarkTest {
+    private static final String TAG = "QRCodeBenchmark";
+    private static final int ROUNDS = 20;
+
+    /** The rendering QRCodeGenerator used before: one setPixel call per pixel, column by column. */
+    private static Bitmap renderPerPixel(UUID uuid) {
+        BitMatrix bitMatrix = QRCodeGenerator.encode(uuid, QRCodeGenerator.QR_SIZE);
+        int width = bitMatrix.getWidth();
+        int height = bitMatrix.getHeight();
+        Bitmap bmp = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                bmp.setPixel(x, y, bitMatrix.get(x, y) ? Color.BLACK : Color.WHITE);
+            }
+        }
+        return bmp;
+    }
+
+    @Test
+    public void bulkRenderingMatchesPerPixelRendering() {
+        UUID uuid = UUID.randomUUID();
+        assertTrue(renderPerPixel(uuid).sameAs(QRCodeGenerator.generateQRCode(uuid)));
+    }
+
+    @Test
+    public void benchmarkGeneration() {
+        // Warm up both paths before timing
+        for (int i = 0; i < 3; i++) {
+            renderPerPixel(UUID.randomUUID());
+            QRCodeGenerator.generateQRCode(UUID.randomUUID());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            renderPerPixel(UUID.randomUUID());
+        }
+        long perPixel = (System.nanoTime() - start) / ROUNDS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            QRCodeGenerator.generateQRCode(UUID.randomUUID());
+        }
+        long bulk = (System.nanoTime() - start) / ROUNDS;
+
+        Log.i(TAG, String.format("Per code: setPixel %.2f ms, setPixels %.2f ms", perPixel / 1e6, bulk / 1e6));
+        assertTrue(bulk > 0);
+    }
+}
@@ -14,6 +14,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * RecyclerView adapter for displaying all users in the database.
@@ -39,11 +40,15 @@ public class AllUsersAdapter extends RecyclerView.Adapter<AllUsersAdapter.ViewHo
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         WaitlistEntrant entrant = entrants.get(position);
+        holder.boundUserId = entrant.getUserId();
 
         entrant.fetchUserFromDB(new WaitlistEntrant.UserCallback() {
             @Override
             public void onUserFetched(User user) {
-                bindUserData(holder, entrant, user);
+                // Skip results for a holder that has since been recycled for another user
+                if (Objects.equals(holder.boundUserId, entrant.getUserId())) {
+                    bindUserData(holder, entrant, user);
+                }
             }
 
             @Override
@@ -84,6 +89,7 @@ public class AllUsersAdapter extends RecyclerView.Adapter<AllUsersAdapter.ViewHo
         db.collection("users").document(entrant.getUserId())
                 .update("banned", true)
                 .addOnSuccessListener(aVoid -> {
+                    UserCache.getInstance().invalidate(entrant.getUserId());
                     Toast.makeText(v.getContext(), "User banned", Toast.LENGTH_SHORT).show();
                     updateBanStatusUI(holder, true);
                 })
@@ -97,6 +103,7 @@ public class AllUsersAdapter extends RecyclerView.Adapter<AllUsersAdapter.ViewHo
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView name, email, role, bannedLabel;
         Button banButton;
+        String boundUserId;
 
         ViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -5,20 +5,48 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
- * Simple adapter to display attendee names in the event details
+ * Simple adapter to display attendee names in the event details.
+ * Takes attendee user IDs and resolves their names through {@link UserLoader}.
  */
-public class AttendeesAdapter extends RecyclerView.Adapter<AttendeesAdapter.ViewHolder> {
-    private List<String> attendeeNames = new ArrayList<>();
+public class AttendeesAdapter extends ListAdapter<String, AttendeesAdapter.ViewHolder> {
+    private final StableIds stableIds = new StableIds();
 
+    private static final DiffUtil.ItemCallback<String> DIFF = new DiffUtil.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull String oldItem, @NonNull String newItem) {
+            return true; // the row only depends on the user ID
+        }
+    };
+
+    public AttendeesAdapter() {
+        super(DIFF);
+        setHasStableIds(true);
+    }
+
+    /**
+     * Replaces the attendees shown; rows of attendees that remain are not rebound.
+     * @param newList attendee user IDs, e.g. Event.getAttendeeList()
+     */
     public void updateList(List<String> newList) {
-        attendeeNames.clear();
-        attendeeNames.addAll(newList);
-        notifyDataSetChanged();
+        submitList(newList == null ? null : new ArrayList<>(newList));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idOf(getItem(position));
     }
 
     @NonNull
@@ -31,17 +59,33 @@ public class AttendeesAdapter extends RecyclerView.Adapter<AttendeesAdapter.View
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        String name = attendeeNames.get(position);
-        holder.tvName.setText(name);
-    }
+        String userId = getItem(position);
+        holder.boundUserId = userId;
+        holder.tvName.setText("Loading user...");
 
-    @Override
-    public int getItemCount() {
-        return attendeeNames.size();
+        UserLoader.getInstance().load(userId, new WaitlistEntrant.UserCallback() {
+            @Override
+            public void onUserFetched(User user) {
+                if (!Objects.equals(holder.boundUserId, userId)) return;
+                if (user != null && user.getFirstName() != null && user.getLastName() != null) {
+                    holder.tvName.setText(user.getFirstName() + " " + user.getLastName());
+                } else {
+                    holder.tvName.setText(userId);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (Objects.equals(holder.boundUserId, userId)) {
+                    holder.tvName.setText(userId);
+                }
+            }
+        });
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView tvName;
+        String boundUserId;
 
         ViewHolder(@NonNull View itemView) {
             super(itemView);
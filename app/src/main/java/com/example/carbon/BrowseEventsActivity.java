@@ -3,33 +3,40 @@ package com.example.carbon;
 import android.app.DatePickerDialog;
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.Spinner;
 import android.widget.AdapterView;
 
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
 import com.example.carbon.databinding.ActivityBrowseEventsBinding;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.storage.FirebaseStorage;
-import com.google.firebase.storage.StorageReference;
+import com.google.firebase.firestore.ListenerRegistration;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Main admin dashboard for browsing and managing events, users, notifications, and event posters.
@@ -46,6 +53,22 @@ public class BrowseEventsActivity extends AppCompatActivity {
     private PostersAdapter postersAdapter;
 
     private boolean isEditMode = false;
+    private static boolean legacyMigrationStarted = false;
+    private static boolean posterReconcileStarted = false;
+    private static final int POSTER_PAGE_SIZE = 20;
+    private static final int POSTER_COLUMNS = 2;
+    // Rows of posters fetched ahead of the last visible one
+    private static final int POSTER_PRELOAD_ROWS = 3;
+    private RecyclerViewPreloader<Poster> posterPreloader;
+    // Load the next poster page when this many cells are left below the last visible one
+    private static final int POSTER_PREFETCH_DISTANCE = 6;
+    private final FirebasePosterService posterService = new FirebasePosterService();
+    private final List<Poster> displayedPosters = new ArrayList<>();
+    private DocumentSnapshot posterCursor;
+    private boolean postersHasMore = true;
+    private boolean postersLoading;
+    // Incremented on every restart so late pages of an earlier listing are ignored
+    private int posterRequest;
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.US);
 
     private enum ViewType { EVENTS, PROFILES, NOTIFICATIONS, POSTERS }
@@ -55,8 +78,20 @@ public class BrowseEventsActivity extends AppCompatActivity {
     private Button btnFilterDate, btnClearFilters;
     private String selectedCategory = null;
     private String selectedLocation = null;
-    private Date selectedDate = null;
-    private List<Event> allEvents = new ArrayList<>();
+    // Selected date range as inclusive epoch days; null means unbounded
+    private Long selectedFromDay = null;
+    private Long selectedToDay = null;
+    private final EventFilterIndex filterIndex = new EventFilterIndex();
+
+    // Events keyed by document ID, kept in the same order as the Firestore snapshot
+    private final Map<String, Event> eventsById = new TreeMap<>();
+    // Document IDs of the events shown by eventsAdapter, in adapter order
+    private final List<String> filteredIds = new ArrayList<>();
+    // Number of events per location; a location is offered in the spinner while its count is non-zero
+    private final Map<String, Integer> locationCounts = new HashMap<>();
+    private final List<String> locationOptions = new ArrayList<>();
+    private ArrayAdapter<String> locationAdapter;
+    private ListenerRegistration eventsListener;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -71,20 +106,42 @@ public class BrowseEventsActivity extends AppCompatActivity {
         loadEvents();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (eventsListener != null) {
+            eventsListener.remove();
+            eventsListener = null;
+        }
+    }
+
     /** Initializes RecyclerView and creates all required adapters */
     private void setupRecyclerView() {
         binding.recyclerEvents.setLayoutManager(new LinearLayoutManager(this));
 
-        eventsAdapter = new EventsAdapter(new ArrayList<>());
+        eventsAdapter = new EventsAdapter();
         usersAdapter = new UsersAdapter();
         notificationsAdapter = new NotificationsAdapter();
-        postersAdapter = new PostersAdapter();
+        postersAdapter = new PostersAdapter(Glide.with(this));
+        posterPreloader = new RecyclerViewPreloader<>(Glide.with(this), postersAdapter,
+                postersAdapter.getPreloadSizeProvider(), POSTER_PRELOAD_ROWS * POSTER_COLUMNS);
 
         binding.recyclerEvents.setAdapter(eventsAdapter);
 
         eventsAdapter.setLongPressListener(this::toggleEditMode);
         eventsAdapter.setDeleteListener(this::deleteEvent);
         eventsAdapter.setOnItemClickListener(this::openEventDetails);
+
+        binding.recyclerEvents.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy <= 0 || currentView != ViewType.POSTERS) return;
+                GridLayoutManager layoutManager = (GridLayoutManager) rv.getLayoutManager();
+                if (layoutManager.findLastVisibleItemPosition() >= postersAdapter.getItemCount() - POSTER_PREFETCH_DISTANCE) {
+                    loadNextPosterPage();
+                }
+            }
+        });
     }
 
     /** Sets up click listeners for the four admin navigation tabs */
@@ -98,6 +155,8 @@ public class BrowseEventsActivity extends AppCompatActivity {
     /** Switches between admin views (Events, Profiles, Notifications, Posters) */
     private void switchTo(ViewType type) {
         currentView = type;
+        // The preloader reads positions from whatever adapter is shown, so it only listens on the poster grid
+        binding.recyclerEvents.removeOnScrollListener(posterPreloader);
 
         if (type == ViewType.EVENTS) {
             binding.recyclerEvents.setAdapter(eventsAdapter);
@@ -113,8 +172,9 @@ public class BrowseEventsActivity extends AppCompatActivity {
             loadNotifications();
         } else if (type == ViewType.POSTERS) {
             binding.recyclerEvents.setAdapter(postersAdapter);
-            binding.recyclerEvents.setLayoutManager(new GridLayoutManager(this, 2));
-            loadPostersFromStorage();
+            binding.recyclerEvents.setLayoutManager(new GridLayoutManager(this, POSTER_COLUMNS));
+            binding.recyclerEvents.addOnScrollListener(posterPreloader);
+            loadPosters();
         }
 
         highlightSelectedTab(type);
@@ -152,14 +212,23 @@ public class BrowseEventsActivity extends AppCompatActivity {
         }
 
         String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
-        FirebaseFirestore.getInstance().collection("users").document(uid).get()
-                .addOnSuccessListener(doc -> {
-                    if ("admin".equals(doc.getString("role"))) {
-                        enterAdminMode();
-                    } else {
-                        Snackbar.make(binding.getRoot(), "Only admins can enter Admin Mode", Snackbar.LENGTH_SHORT).show();
-                    }
-                });
+        // The role gates admin actions, so read it fresh instead of from a cached profile
+        UserCache.getInstance().invalidate(uid);
+        UserCache.getInstance().get(uid, new WaitlistEntrant.UserCallback() {
+            @Override
+            public void onUserFetched(User user) {
+                if ("admin".equals(user.getRole())) {
+                    enterAdminMode();
+                } else {
+                    Snackbar.make(binding.getRoot(), "Only admins can enter Admin Mode", Snackbar.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.w("BrowseEventsActivity", "Failed to check admin role", e);
+            }
+        });
     }
 
     /** Activates Admin Mode — shows tabs and enables delete buttons */
@@ -170,6 +239,48 @@ public class BrowseEventsActivity extends AppCompatActivity {
         binding.adminTabLayout.setVisibility(View.VISIBLE);
         Snackbar.make(binding.getRoot(), "Admin Mode Activated", Snackbar.LENGTH_SHORT).show();
         highlightSelectedTab(currentView);
+        migrateLegacyWaitlists();
+        reconcilePosters();
+    }
+
+    /**
+     * Adds manifest entries for posters uploaded before the manifest existed. The service skips
+     * the work once any admin's run has finished; this only avoids asking twice per process
+     */
+    private void reconcilePosters() {
+        if (posterReconcileStarted) return;
+        posterReconcileStarted = true;
+        posterService.reconcile(
+                added -> {
+                    Log.d("BrowseEventsActivity", "Poster manifest reconciled, " + added + " entries added");
+                    if (added > 0 && currentView == ViewType.POSTERS) {
+                        loadPosters();
+                    }
+                },
+                e -> {
+                    posterReconcileStarted = false;
+                    Log.w("BrowseEventsActivity", "Poster reconcile stopped", e);
+                });
+    }
+
+    /**
+     * Moves embedded waitlists of older events into entrant subcollections and indexes their
+     * participations, once per process
+     */
+    private void migrateLegacyWaitlists() {
+        if (legacyMigrationStarted) return;
+        legacyMigrationStarted = true;
+        new FirebaseWaitlistService().migrateLegacyEvents(
+                count -> {
+                    Log.d("BrowseEventsActivity", "Waitlist storage checked for " + count + " events");
+                    new FirebaseWaitlistService().backfillParticipations(
+                            indexed -> Log.d("BrowseEventsActivity", "Participations indexed for " + indexed + " events"),
+                            e -> Log.w("BrowseEventsActivity", "Participation backfill stopped", e));
+                },
+                e -> {
+                    legacyMigrationStarted = false;
+                    Log.w("BrowseEventsActivity", "Waitlist migration stopped", e);
+                });
     }
 
     /** Deactivates Admin Mode and hides admin features */
@@ -191,55 +302,59 @@ public class BrowseEventsActivity extends AppCompatActivity {
         startActivity(intent);
     }
 
-    /** Loads all images from Firebase Storage folder: event_posters/ */
-    private void loadPostersFromStorage() {
-        FirebaseStorage storage = FirebaseStorage.getInstance();
-        StorageReference folderRef = storage.getReference().child("event_posters");
-
-        folderRef.listAll().addOnSuccessListener(listResult -> {
-            List<Poster> posterList = new ArrayList<>();
+    /**
+     * Shows the first page of the posters manifest; further pages are appended as the grid
+     * scrolls, see {@link #loadNextPosterPage()}.
+     */
+    private void loadPosters() {
+        posterCursor = null;
+        postersHasMore = true;
+        posterRequest++;
+        postersLoading = false;
+        displayedPosters.clear();
+        postersAdapter.updateList(displayedPosters);
+        postersAdapter.setEditMode(isEditMode);
+        postersAdapter.setDeleteListener(this::deletePoster);
+        loadNextPosterPage();
+    }
 
-            if (listResult.getItems().isEmpty()) {
-                runOnUiThread(() -> postersAdapter.updateList(posterList));
-                return;
+    /** Appends the next page of the posters manifest to the grid */
+    private void loadNextPosterPage() {
+        if (postersLoading || !postersHasMore) return;
+        postersLoading = true;
+        int request = posterRequest;
+        posterService.fetchPage(posterCursor, POSTER_PAGE_SIZE, new FirebasePosterService.PosterPageCallback() {
+            @Override
+            public void onPageFetched(List<Poster> posters, DocumentSnapshot lastDocument, boolean hasMore) {
+                // Drop pages of a listing that was restarted meanwhile
+                if (request != posterRequest) return;
+                postersLoading = false;
+                posterCursor = lastDocument;
+                postersHasMore = hasMore;
+                displayedPosters.addAll(posters);
+                postersAdapter.updateList(displayedPosters);
             }
 
-            for (StorageReference item : listResult.getItems()) {
-                item.getDownloadUrl().addOnSuccessListener(uri -> {
-                    Poster poster = new Poster();
-                    poster.setImageUrl(uri.toString());
-                    poster.setEventId(item.getName());
-
-                    posterList.add(poster);
-
-                    if (posterList.size() == listResult.getItems().size()) {
-                        runOnUiThread(() -> {
-                            postersAdapter.updateList(posterList);
-                            postersAdapter.setEditMode(isEditMode);
-                            postersAdapter.setDeleteListener(this::deletePoster);
-                        });
-                    }
-                }).addOnFailureListener(e -> {
-                });
+            @Override
+            public void onError(Exception e) {
+                if (request != posterRequest) return;
+                postersLoading = false;
+                Snackbar.make(binding.getRoot(), "Failed to load posters", Snackbar.LENGTH_LONG).show();
             }
-        }).addOnFailureListener(e -> {
-            Snackbar.make(binding.getRoot(), "Failed to load posters", Snackbar.LENGTH_LONG).show();
         });
     }
 
-    /** Deletes a poster image from Firebase Storage */
+    /** Deletes a poster image, its thumbnail and its manifest entry */
     private void deletePoster(Poster poster, int position) {
         if (poster.getImageUrl() == null) return;
 
-        StorageReference ref = FirebaseStorage.getInstance().getReferenceFromUrl(poster.getImageUrl());
-        ref.delete()
-                .addOnSuccessListener(aVoid -> {
+        posterService.delete(poster,
+                () -> {
                     Snackbar.make(binding.getRoot(), "Poster deleted", Snackbar.LENGTH_SHORT).show();
-                    loadPostersFromStorage();
-                })
-                .addOnFailureListener(e -> {
-                    Snackbar.make(binding.getRoot(), "Delete failed", Snackbar.LENGTH_SHORT).show();
-                });
+                    displayedPosters.remove(poster);
+                    postersAdapter.updateList(displayedPosters);
+                },
+                e -> Snackbar.make(binding.getRoot(), "Delete failed", Snackbar.LENGTH_SHORT).show());
     }
 
     /** Initializes filter spinners and buttons */
@@ -254,8 +369,8 @@ public class BrowseEventsActivity extends AppCompatActivity {
         categoryAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         spinnerCategory.setAdapter(categoryAdapter);
 
-        ArrayAdapter<String> locationAdapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item,
-                new String[]{"All Locations"});
+        locationOptions.add("All Locations");
+        locationAdapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, locationOptions);
         locationAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
         spinnerLocation.setAdapter(locationAdapter);
 
@@ -289,77 +404,193 @@ public class BrowseEventsActivity extends AppCompatActivity {
             }
         });
 
-        btnFilterDate.setOnClickListener(v -> showDatePicker());
+        btnFilterDate.setOnClickListener(v -> showDateFilterOptions());
         btnClearFilters.setOnClickListener(v -> clearFilters());
     }
 
+    /** Offers a single day or a preset range for the date filter */
+    private void showDateFilterOptions() {
+        String[] options = {"Pick a date", "This week", "This month"};
+        new AlertDialog.Builder(this)
+                .setTitle("Filter by date")
+                .setItems(options, (dialog, which) -> {
+                    if (which == 0) {
+                        showDatePicker();
+                    } else if (which == 1) {
+                        Calendar start = Calendar.getInstance();
+                        start.set(Calendar.DAY_OF_WEEK, start.getFirstDayOfWeek());
+                        if (start.after(Calendar.getInstance())) start.add(Calendar.WEEK_OF_YEAR, -1);
+                        long from = filterIndex.epochDay(start.getTime());
+                        setDateRange(from, from + 6, "This week");
+                    } else {
+                        Calendar start = Calendar.getInstance();
+                        start.set(Calendar.DAY_OF_MONTH, 1);
+                        long from = filterIndex.epochDay(start.getTime());
+                        setDateRange(from, from + start.getActualMaximum(Calendar.DAY_OF_MONTH) - 1, "This month");
+                    }
+                })
+                .show();
+    }
+
     /** Displays date picker for filtering events by date */
     private void showDatePicker() {
         Calendar calendar = Calendar.getInstance();
         new DatePickerDialog(this, (view, year, month, dayOfMonth) -> {
             Calendar selected = Calendar.getInstance();
             selected.set(year, month, dayOfMonth);
-            selectedDate = selected.getTime();
-            btnFilterDate.setText(new SimpleDateFormat("MMM dd, yyyy", Locale.US).format(selectedDate));
-            applyFilters();
+            long day = filterIndex.epochDay(selected.getTime());
+            setDateRange(day, day, new SimpleDateFormat("MMM dd, yyyy", Locale.US).format(selected.getTime()));
         }, calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)).show();
     }
 
+    private void setDateRange(long fromDay, long toDay, String label) {
+        selectedFromDay = fromDay;
+        selectedToDay = toDay;
+        btnFilterDate.setText(label);
+        applyFilters();
+    }
+
     /** Clears all active filters */
     private void clearFilters() {
         selectedCategory = null;
         selectedLocation = null;
-        selectedDate = null;
+        selectedFromDay = null;
+        selectedToDay = null;
         spinnerCategory.setSelection(0);
         spinnerLocation.setSelection(0);
         btnFilterDate.setText("Date");
         applyFilters();
     }
 
-    /** Applies current category, location, and date filters */
+    /** @return the current category, location, and date filters */
+    private EventFilterIndex.Criteria currentCriteria() {
+        String category = selectedCategory == null || selectedCategory.equals("All Categories") ? null : selectedCategory;
+        String location = selectedLocation == null || selectedLocation.equals("All Locations") ? null : selectedLocation;
+        return new EventFilterIndex.Criteria(category, location, selectedFromDay, selectedToDay);
+    }
+
+    /** Applies current category, location, and date filters through the filter index */
     private void applyFilters() {
-        List<Event> filtered = new ArrayList<>();
-        for (Event e : allEvents) {
-            boolean match = true;
-
-            if (selectedCategory != null && !selectedCategory.equals("All Categories") && !selectedCategory.equals(e.getCategory())) match = false;
-            if (selectedLocation != null && !selectedLocation.equals("All Locations")) {
-                String loc = e.getEventCity() != null ? e.getEventCity() : e.getEventLocation() != null ? e.getEventLocation() : "";
-                if (!selectedLocation.equals(loc)) match = false;
-            }
-            if (selectedDate != null && e.getEventDate() != null) {
-                Calendar ec = Calendar.getInstance(); ec.setTime(e.getEventDate());
-                Calendar sc = Calendar.getInstance(); sc.setTime(selectedDate);
-                if (ec.get(Calendar.YEAR) != sc.get(Calendar.YEAR) || ec.get(Calendar.MONTH) != sc.get(Calendar.MONTH) || ec.get(Calendar.DAY_OF_MONTH) != sc.get(Calendar.DAY_OF_MONTH))
-                    match = false;
-            }
-            if (match) filtered.add(e);
+        filteredIds.clear();
+        filteredIds.addAll(filterIndex.query(currentCriteria()));
+        showFilteredEvents();
+    }
+
+    /**
+     * Hands the filtered events to the adapter, which diffs them by UUID in the background so rows
+     * that stay visible keep their view holders.
+     */
+    private void showFilteredEvents() {
+        List<Event> filtered = new ArrayList<>(filteredIds.size());
+        for (String docId : filteredIds) {
+            filtered.add(eventsById.get(docId));
         }
-        eventsAdapter.updateList(filtered);
+        eventsAdapter.submitList(filtered);
     }
 
-    /** Loads all events from Firestore with real-time updates */
+    /** Loads all events from Firestore with real-time updates, applying only the documents that changed */
     private void loadEvents() {
+        if (eventsListener != null) return;
         FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("events").addSnapshotListener((snapshots, error) -> {
-            if (error != null) return;
-            allEvents.clear();
-            Set<String> locations = new HashSet<>(); locations.add("All Locations");
-
-            for (DocumentSnapshot doc : snapshots.getDocuments()) {
-                Event event = doc.toObject(Event.class);
-                if (event != null) {
-                    allEvents.add(event);
-                    String loc = event.getEventCity() != null ? event.getEventCity() : event.getEventLocation();
-                    if (loc != null && !loc.isEmpty()) locations.add(loc);
-                }
+        eventsListener = db.collection("events").addSnapshotListener((snapshots, error) -> {
+            if (error != null || snapshots == null) return;
+            boolean locationsChanged = false;
+            for (DocumentChange change : snapshots.getDocumentChanges()) {
+                locationsChanged |= applyEventChange(change);
+            }
+            showFilteredEvents();
+            if (locationsChanged) {
+                locationAdapter.notifyDataSetChanged();
+                syncLocationSelection();
             }
-
-            spinnerLocation.setAdapter(new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, new ArrayList<>(locations)));
-            applyFilters();
         });
     }
 
+    /**
+     * Applies one added, modified or removed event to the keyed store, the location facets and the
+     * filtered IDs; the adapter is updated once the whole snapshot has been applied.
+     * @return true when the set of locations changed
+     */
+    private boolean applyEventChange(DocumentChange change) {
+        DocumentSnapshot doc = change.getDocument();
+        String docId = doc.getId();
+
+        Event previous = eventsById.remove(docId);
+        filterIndex.remove(docId);
+        boolean locationsChanged = previous != null && releaseLocation(previous);
+        if (previous != null && change.getType() == DocumentChange.Type.REMOVED) {
+            EventStore.getInstance().remove(previous.getUuid());
+        }
+
+        Event event = null;
+        if (change.getType() != DocumentChange.Type.REMOVED) {
+            try {
+                event = doc.toObject(Event.class);
+            } catch (RuntimeException e) {
+                Log.w("BrowseEventsActivity", "Skipping malformed event " + docId, e);
+            }
+        }
+        if (event != null) {
+            EventStore.getInstance().put(docId, event);
+            eventsById.put(docId, event);
+            filterIndex.put(docId, event.getCategory(), locationOf(event), event.getEventDate());
+            locationsChanged |= retainLocation(event);
+        }
+
+        // filteredIds follows the TreeMap order, so it stays sorted by document ID
+        int position = Collections.binarySearch(filteredIds, docId);
+        boolean shown = position >= 0;
+        boolean show = event != null && filterIndex.matches(docId, currentCriteria());
+        if (shown && !show) {
+            filteredIds.remove(position);
+        } else if (!shown && show) {
+            filteredIds.add(-position - 1, docId);
+        }
+        return locationsChanged;
+    }
+
+    private static String locationOf(Event event) {
+        return event.getEventCity() != null ? event.getEventCity() : event.getEventLocation();
+    }
+
+    /** Counts the event's location, adding it to the sorted spinner options the first time it is seen */
+    private boolean retainLocation(Event event) {
+        String loc = locationOf(event);
+        if (loc == null || loc.isEmpty()) return false;
+        Integer count = locationCounts.get(loc);
+        locationCounts.put(loc, count == null ? 1 : count + 1);
+        if (count != null) return false;
+        // Index 0 is always "All Locations"
+        int insertAt = -Collections.binarySearch(locationOptions.subList(1, locationOptions.size()), loc) - 1;
+        locationOptions.add(insertAt + 1, loc);
+        return true;
+    }
+
+    /** Un-counts the event's location, dropping it from the spinner options when no event uses it */
+    private boolean releaseLocation(Event event) {
+        String loc = locationOf(event);
+        if (loc == null || loc.isEmpty()) return false;
+        Integer count = locationCounts.get(loc);
+        if (count == null) return false;
+        if (count > 1) {
+            locationCounts.put(loc, count - 1);
+            return false;
+        }
+        locationCounts.remove(loc);
+        locationOptions.remove(loc);
+        return true;
+    }
+
+    /** Keeps the spinner on the selected location after options were inserted or removed */
+    private void syncLocationSelection() {
+        String wanted = selectedLocation != null ? selectedLocation : "All Locations";
+        int index = locationOptions.indexOf(wanted);
+        if (index < 0) index = 0; // the selected location no longer has events
+        if (spinnerLocation.getSelectedItemPosition() != index) {
+            spinnerLocation.setSelection(index);
+        }
+    }
+
     /** Loads all user profiles for admin view */
     private void loadUsers() {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
@@ -386,7 +617,10 @@ public class BrowseEventsActivity extends AppCompatActivity {
             List<Notification> list = new ArrayList<>();
             for (DocumentSnapshot d : s.getDocuments()) {
                 Notification n = d.toObject(Notification.class);
-                if (n != null) list.add(n);
+                if (n != null) {
+                    n.setId(d.getId());
+                    list.add(n);
+                }
             }
             notificationsAdapter.updateList(list);
         });
@@ -397,16 +631,19 @@ public class BrowseEventsActivity extends AppCompatActivity {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
         db.collection("users").whereEqualTo("email", user.getEmail()).get()
                 .addOnSuccessListener(q -> {
-                    if (!q.isEmpty()) q.getDocuments().get(0).getReference().delete();
+                    if (q.isEmpty()) return;
+                    DocumentSnapshot doc = q.getDocuments().get(0);
+                    doc.getReference().delete()
+                            .addOnSuccessListener(v -> UserCache.getInstance().invalidate(doc.getId()));
                 });
     }
 
     /** Deletes an event from Firestore */
     private void deleteEvent(Event event, int pos) {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("events").whereEqualTo("uuid", event.getUuid()).get()
-                .addOnSuccessListener(q -> {
-                    if (!q.isEmpty()) q.getDocuments().get(0).getReference().delete();
-                });
+        EventIdResolver resolver = EventIdResolver.getInstance();
+        resolver.resolve(event.getUuid(), docId -> db.collection("events").document(docId).delete()
+                        .addOnSuccessListener(aVoid -> resolver.invalidate(event.getUuid())),
+                e -> Log.w("BrowseEventsActivity", "Failed to delete event " + event.getUuid(), e));
     }
 }
@@ -2,9 +2,11 @@ package com.example.carbon;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.widget.Button;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
@@ -12,21 +14,36 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
 
 import java.util.ArrayList;
 
 /**
  * The BrowseOrganizerEventsActivity holds the logic for the activity_browse_organizer_events.xml page.
  * For a given user that is logged in an viewing this page, a list of the events that they own will be
- * fetched from the DB and displayed.
+ * fetched from the DB a page at a time as the list is scrolled.
  *
  * @author Cooper Goddard
  */
 public class BrowseOrganizerEventsActivity extends AppCompatActivity {
+    private static final int PAGE_SIZE = 20;
+    private static final int UNASSIGNED_LIMIT = 20;
+    // Start loading the next page when this many rows are left below the last visible one
+    private static final int PREFETCH_DISTANCE = 5;
+
     private EventList eventList;
     private EventsAdapter adapter;
     private ArrayList<Event> displayedEvents = new ArrayList<>();
     private Button createEventButton;
+    private Button printQrButton;
+    private String ownerId;
+    private DocumentSnapshot lastDocument;
+    private boolean hasMore = true;
+    private boolean loading;
+    // Set once a page after the first was requested; the server copy of page 1 is then ignored
+    private boolean nextPageRequested;
+    // Incremented on every reload so callbacks of an earlier listing are ignored
+    private int listRequest;
 
 
     @Override
@@ -37,9 +54,19 @@ public class BrowseOrganizerEventsActivity extends AppCompatActivity {
         UIHelper.setupHeaderAndMenu(this);
         // Setup RecyclerView and adapter
         RecyclerView recyclerView = findViewById(R.id.recycler_events);
-        adapter = new EventsAdapter(displayedEvents); // Initialize adapter with an empty list
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        adapter = new EventsAdapter(); // Initialize adapter with an empty list
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
         recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy <= 0) return;
+                if (layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
 
         // Initialize EventList
         eventList = new EventList();
@@ -53,6 +80,13 @@ public class BrowseOrganizerEventsActivity extends AppCompatActivity {
             startActivity(new Intent(BrowseOrganizerEventsActivity.this, CreateEventActivity.class));
         });
 
+        // Print the QR codes of all of the organizer's events on one PDF sheet
+        printQrButton = findViewById(R.id.print_qr_btn);
+        printQrButton.setOnClickListener(v -> {
+            if (ownerId == null) return;
+            QRSheetExporter.exportOrganizerSheet(this, printQrButton, ownerId);
+        });
+
         adapter.setOnItemClickListener(event -> {
             Intent intent = new Intent(BrowseOrganizerEventsActivity.this, OrganizerEventDetailsActivity.class);
 
@@ -65,7 +99,7 @@ public class BrowseOrganizerEventsActivity extends AppCompatActivity {
     }
 
     /**
-     * Gathers current user data and loads the events that belong to them, adds them to the array adapter for visualization
+     * Gathers current user data and loads the first page of events that belong to them, adds them to the array adapter for visualization
      *
      * @author Cooper Goddard
      */
@@ -78,21 +112,93 @@ public class BrowseOrganizerEventsActivity extends AppCompatActivity {
             startActivity(new Intent(BrowseOrganizerEventsActivity.this, LogInActivity.class));
             return;
         }
-        String ownerId = currentUser.getUid(); // Get the user's unique ID
+        ownerId = currentUser.getUid(); // Get the user's unique ID
+        displayedEvents.clear();
+        adapter.updateList(displayedEvents);
+        lastDocument = null;
+        hasMore = true;
+        nextPageRequested = false;
+        listRequest++;
+        loadFirstPage();
+    }
 
-        // Show all events so organizers can see only their own
-        eventList.fetchOrganizerEvents(ownerId, new EventList.EventListCallback() {
+    /**
+     * Shows the first page from the local cache right away and replaces it with the server copy,
+     * unless the organizer has already scrolled past it: the cursor of the next page request was
+     * taken from the cached copy, which the server copy must not reset.
+     */
+    private void loadFirstPage() {
+        int request = listRequest;
+        loading = true;
+        eventList.fetchOrganizerEventsFirstPage(ownerId, PAGE_SIZE, ReadPolicy.EVENT_LISTS, new EventList.CachedPageCallback() {
             @Override
-            public void onEventsFetched(ArrayList<Event> events) {
+            public void onPageFetched(ArrayList<Event> events, DocumentSnapshot last, boolean more, boolean stale) {
+                if (request != listRequest || nextPageRequested) return;
+                UIHelper.showStaleIndicator(BrowseOrganizerEventsActivity.this, stale);
+                loading = false;
+                lastDocument = last;
+                hasMore = more;
                 displayedEvents.clear();
                 displayedEvents.addAll(events);
-                adapter.notifyDataSetChanged();
+                adapter.updateList(displayedEvents);
+                if (!hasMore && !stale) {
+                    loadUnassignedEvents();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (request != listRequest || nextPageRequested) return;
+                loading = false;
+                Toast.makeText(BrowseOrganizerEventsActivity.this, "Failed to load events.", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    /**
+     * Appends the next page of the organizer's events; once all are shown, appends the legacy
+     * events that have no owner.
+     */
+    private void loadNextPage() {
+        if (loading || !hasMore || ownerId == null) return;
+        int request = listRequest;
+        loading = true;
+        nextPageRequested = true;
+        eventList.fetchOrganizerEventsPage(ownerId, lastDocument, PAGE_SIZE, new EventList.EventPageCallback() {
+            @Override
+            public void onPageFetched(ArrayList<Event> events, DocumentSnapshot last, boolean more) {
+                if (request != listRequest) return;
+                loading = false;
+                lastDocument = last;
+                hasMore = more;
+                displayedEvents.addAll(events);
+                adapter.updateList(displayedEvents);
+                if (!hasMore) {
+                    loadUnassignedEvents();
+                }
             }
 
             @Override
             public void onError(Exception e) {
+                if (request != listRequest) return;
+                loading = false;
                 Toast.makeText(BrowseOrganizerEventsActivity.this, "Failed to load events.", Toast.LENGTH_SHORT).show();
             }
         });
     }
+
+    private void loadUnassignedEvents() {
+        eventList.fetchUnassignedEvents(UNASSIGNED_LIMIT, new EventList.EventListCallback() {
+            @Override
+            public void onEventsFetched(ArrayList<Event> events) {
+                displayedEvents.addAll(events);
+                adapter.updateList(displayedEvents);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.w("BrowseOrganizerEvents", "Failed to load unassigned events", e);
+            }
+        });
+    }
 }
@@ -10,9 +10,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -58,56 +55,62 @@ public class CancelledListActivity extends AppCompatActivity {
         RecyclerView recyclerView = findViewById(R.id.recycler_cancelled);
         emptyMessage = findViewById(R.id.empty_message_cancelled);
 
-        adapter = new WaitlistAdapter(cancelledEntrants); // adapter should show reason field
+        adapter = new WaitlistAdapter(); // adapter should show reason field
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
 
         waitlist = new Waitlist();
         loadCancelledFromDatabase(eventId);
+
+        findViewById(R.id.export_csv_btn).setOnClickListener(v -> exportCancelledToCsv());
+    }
+
+    private void exportCancelledToCsv() {
+        if (cancelledEntrants.isEmpty()) {
+            Toast.makeText(this, "No cancelled users to export.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        CsvExporter.exportWithProgress(this, findViewById(R.id.export_csv_btn), cancelledEntrants,
+                "cancelled_list_" + eventId + ".csv", "Export cancelled list");
     }
 
     private void loadCancelledFromDatabase(String eventId) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        Query query = db.collection("events")
-                .whereEqualTo("uuid", eventId)
-                .limit(1);
-
-        query.get().addOnCompleteListener(task -> {
-            if (task.isSuccessful()) {
-                if (!task.getResult().isEmpty()) {
-                    DocumentSnapshot document = task.getResult().getDocuments().get(0);
-                    Event event = document.toObject(Event.class);
-
-                    if (event != null && event.getWaitlist() != null) {
-                        this.currentEvent = event;
-                        this.waitlist = event.getWaitlist();
-                        List<WaitlistEntrant> entrants = this.waitlist.getWaitlistEntrants();
-
-                        if (entrants != null && !entrants.isEmpty()) {
-                            cancelledEntrants.clear();
-
-                            for (WaitlistEntrant entrant : entrants) {
-                                if (entrant != null && Objects.equals(entrant.getStatus(), "Cancelled")) {
-                                    cancelledEntrants.add(entrant);
-                                }
-                            }
-
-                            adapter.notifyDataSetChanged();
-                            emptyMessage.setVisibility(cancelledEntrants.isEmpty() ? View.VISIBLE : View.GONE);
-                            if (cancelledEntrants.isEmpty()) {
-                                emptyMessage.setText("No cancelled entrants found.");
-                            }
-
-                        } else {
-                            emptyMessage.setVisibility(View.VISIBLE);
-                            Toast.makeText(this, "No entrants found.", Toast.LENGTH_SHORT).show();
+        // Shows the cached list at once; the server copy replaces it when it arrives
+        new FirebaseWaitlistService().fetchEventWithEntrants(eventId, ReadPolicy.WAITLIST, (document, event, stale) -> {
+            UIHelper.showStaleIndicator(this, stale);
+
+            if (event != null && event.getWaitlist() != null) {
+                this.currentEvent = event;
+                this.waitlist = event.getWaitlist();
+                List<WaitlistEntrant> entrants = this.waitlist.getWaitlistEntrants();
+
+                if (entrants != null && !entrants.isEmpty()) {
+                    cancelledEntrants.clear();
+
+                    for (WaitlistEntrant entrant : entrants) {
+                        if (entrant != null && Objects.equals(entrant.getStatus(), "Cancelled")) {
+                            cancelledEntrants.add(entrant);
                         }
-                    } else {
-                        Toast.makeText(this, "Waitlist missing in this event.", Toast.LENGTH_SHORT).show();
                     }
+
+                    adapter.updateList(cancelledEntrants);
+                    emptyMessage.setVisibility(cancelledEntrants.isEmpty() ? View.VISIBLE : View.GONE);
+                    if (cancelledEntrants.isEmpty()) {
+                        emptyMessage.setText("No cancelled entrants found.");
+                    }
+
                 } else {
-                    Toast.makeText(this, "Event not found.", Toast.LENGTH_SHORT).show();
+                    emptyMessage.setVisibility(View.VISIBLE);
+                    if (!stale) {
+                        Toast.makeText(this, "No entrants found.", Toast.LENGTH_SHORT).show();
+                    }
                 }
+            } else {
+                Toast.makeText(this, "Waitlist missing in this event.", Toast.LENGTH_SHORT).show();
+            }
+        }, e -> {
+            if (e instanceof EventIdResolver.EventNotFoundException) {
+                Toast.makeText(this, "Event not found.", Toast.LENGTH_SHORT).show();
             } else {
                 Toast.makeText(this, "Failed to load data.", Toast.LENGTH_SHORT).show();
             }
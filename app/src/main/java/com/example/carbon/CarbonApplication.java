@@ -0,0 +1,19 @@
+package com.example.carbon;
+
+/**
+ * Application entry point that initializes process-wide caches before any screen runs.
+ * Outstanding issues: the event ID cache is not cleared on sign-out.
+ */
+
+import android.app.Application;
+
+public class CarbonApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        EventIdResolver.init(this);
+        UserCache.init(this);
+        OperationJournal.init(this);
+    }
+}
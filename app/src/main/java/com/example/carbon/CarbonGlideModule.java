@@ -0,0 +1,66 @@
+package com.example.carbon;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+
+/**
+ * App-wide Glide configuration and the poster requests built on it. Images are decoded as RGB_565
+ * unless they have transparency, which halves the memory of the opaque photos the app shows.
+ * The memory cache is sized for three screens so preloaded grid rows survive until they scroll
+ * in, and downloaded images share a bounded disk cache in the app's cache directory.
+ * Outstanding issues: cache budgets are fixed rather than tuned per device class.
+ */
+@GlideModule
+public class CarbonGlideModule extends AppGlideModule {
+    static final long DISK_CACHE_BYTES = 150L * 1024 * 1024;
+    static final String DISK_CACHE_NAME = "image_cache";
+    private static final float MEMORY_CACHE_SCREENS = 3;
+    private static final float BITMAP_POOL_SCREENS = 2;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(BITMAP_POOL_SCREENS)
+                .build();
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_NAME, DISK_CACHE_BYTES));
+        builder.setDefaultRequestOptions(new RequestOptions().format(DecodeFormat.PREFER_RGB_565));
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        // No library in the app registers a manifest module
+        return false;
+    }
+
+    /**
+     * Loads an event's full-size poster, showing its list thumbnail first when it has one, so
+     * detail screens paint the image already cached by the lists before the large one arrives.
+     * @param glide request manager of the screen
+     * @param event event whose poster is shown
+     * @return the request, to be completed with placeholders and a target
+     */
+    static RequestBuilder<Drawable> eventPoster(RequestManager glide, Event event) {
+        RequestBuilder<Drawable> request = glide.load(event.getImageURL());
+        if (event.getThumbnailURL() != null) {
+            request = request.thumbnail(glide.load(event.getThumbnailURL()));
+        }
+        return request;
+    }
+}
@@ -28,9 +28,12 @@ import java.util.Date;
 import java.util.Locale;
 import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
 
 /**
  * The CreateEventActivity holds the logic for the activity_create_event.xml page.
@@ -52,6 +55,7 @@ public class CreateEventActivity extends AppCompatActivity {
     private ImageView eventPosterImageView;
     private Uri imageUri; // this is the app uri
     private String imageUrl; // this is the DB url
+    private String thumbnailUrl; // downscaled copy shown in lists
     private ActivityResultLauncher<Intent> imagePickerLauncher;
 
     // Calendar instance for the date pickers
@@ -107,35 +111,27 @@ public class CreateEventActivity extends AppCompatActivity {
 
     /**
      * This function uploads the user provided image into the storage section of the DB for
-     * use in the event object later in creation.
+     * use in the event object later in creation. The image is downscaled and uploaded with a list
+     * thumbnail by {@link ImageIngestor}.
      */
     private void uploadImage() {
         // If no image is selected, proceed without uploading
         if (imageUri == null) {
             imageUrl = null;
+            thumbnailUrl = null;
             createEvent();
             return;
         }
 
         Snackbar.make(findViewById(R.id.create_event_root), "Uploading image...", Snackbar.LENGTH_INDEFINITE).show();
 
-        // Create a reference in Firebase Storage
-        // The path will be "event_posters/{event_uuid}.jpg"
-        String fileName = UUID.randomUUID().toString() + ".jpg";
-        com.google.firebase.storage.StorageReference storageRef = com.google.firebase.storage.FirebaseStorage.getInstance().getReference("event_posters/" + fileName);
-
-        // Upload to storage in FB
-        com.google.firebase.storage.UploadTask uploadTask = storageRef.putFile(imageUri);
-        uploadTask.addOnSuccessListener(taskSnapshot -> {
-            // Image uploaded successfully, now get the download URL
-            storageRef.getDownloadUrl().addOnSuccessListener(uri -> {
-                imageUrl = uri.toString();
-                createEvent();
-            }).addOnFailureListener(e -> {
-                // Failed to get download URL
-                Snackbar.make(findViewById(R.id.create_event_root), "Failed to get image URL.", Snackbar.LENGTH_LONG).show();
-            });
-        }).addOnFailureListener(e -> {
+        // The paths will be "event_posters/{random_uuid}.jpg" and "event_posters/{random_uuid}_thumb.jpg"
+        String basePath = "event_posters/" + UUID.randomUUID().toString();
+        new ImageIngestor(this).uploadPoster(imageUri, basePath, uploaded -> {
+            imageUrl = uploaded.imageUrl;
+            thumbnailUrl = uploaded.thumbnailUrl;
+            createEvent();
+        }, e -> {
             // Handle unsuccessful uploads
             Snackbar.make(findViewById(R.id.create_event_root), "Image upload failed.", Snackbar.LENGTH_LONG).show();
         });
@@ -380,11 +376,31 @@ public class CreateEventActivity extends AppCompatActivity {
         // CREATE THE EVENT OBJECT AND INCLUDE THE WAITLIST
         Event newEvent = new Event(title, des, seats, eventDate, address, city, province, country, ownerId, newWaitlist, imageUrl);
         newEvent.setCategory(category);
+        newEvent.setThumbnailURL(thumbnailUrl);
+
+        // Entrants are stored one document each under events/{eventId}/entrants, not in the event itself
+        List<WaitlistEntrant> initialEntrants = new ArrayList<>(newWaitlist.getWaitlistEntrants());
+        newWaitlist.setWaitlistEntrants(new ArrayList<>());
+        newWaitlist.setEntrantCount(initialEntrants.size());
+
+        DocumentReference eventRef = db.collection("events").document(eventId);
+        WriteBatch batch = db.batch();
+        batch.set(eventRef, newEvent);
+        if (imageUrl != null) {
+            new FirebasePosterService().record(batch,
+                    FirebasePosterService.newPoster(imageUrl, thumbnailUrl, newEvent.getUuid(), ownerId));
+        }
+        FirebaseWaitlistService waitlistService = new FirebaseWaitlistService();
+        for (WaitlistEntrant entrant : initialEntrants) {
+            batch.set(waitlistService.entrantsOf(eventId).document(entrant.getUserId()), entrant);
+            batch.set(waitlistService.participationsOf(entrant.getUserId()).document(eventId),
+                    new Participation(eventId, newEvent.getUuid(), entrant.getStatus(), eventDate));
+        }
 
         // PROVIDE FEEDBACK AND PROCEED
-        db.collection("events")
-                .add(newEvent)
-                .addOnSuccessListener(documentReference -> {
+        batch.commit()
+                .addOnSuccessListener(aVoid -> {
+                    EventIdResolver.getInstance().remember(newEvent.getUuid(), eventId);
                     Snackbar.make(findViewById(R.id.create_event_root), "Event created successfully!", Snackbar.LENGTH_LONG).show();
 
                     // Get the UUID from the event we just created
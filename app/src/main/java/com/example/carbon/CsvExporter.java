@@ -0,0 +1,253 @@
+package com.example.carbon;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.Button;
+import android.widget.Toast;
+
+import androidx.core.content.FileProvider;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Exports entrant lists to CSV files in getExternalFilesDir("exports") on a background thread.
+ * Entrants are handled one page at a time: the page's profiles are read with parallel
+ * whereIn(FieldPath.documentId(), ...) queries, its rows are streamed through a buffered UTF-8
+ * writer, and only then is the next page read, so the file is never held in memory.
+ * Rows are written to a temporary file that replaces the export once complete.
+ * Outstanding issues: profiles are read fresh from Firestore and bypass {@link UserCache}.
+ */
+public class CsvExporter {
+    private static final String TAG = "CSV_EXPORT";
+    // Firestore caps whereIn at 30 values
+    static final int IDS_PER_QUERY = 30;
+    static final int QUERIES_PER_PAGE = 10;
+    static final int PAGE_SIZE = IDS_PER_QUERY * QUERIES_PER_PAGE;
+    // The columns of the accepted-list export that users already open in spreadsheets
+    static final String HEADER = "Name,Email,Timestamp";
+
+    // One export at a time keeps the file writes and Firestore reads of an export ordered
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final Context context;
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Reports progress on the main thread.
+     */
+    public interface ProgressListener {
+        /**
+         * @param rowsWritten entrant rows written so far
+         * @param total entrant rows in the export
+         */
+        void onProgress(int rowsWritten, int total);
+    }
+
+    /**
+     * @param context any context; only the application context is kept
+     */
+    public CsvExporter(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Writes one row per entrant. Callbacks run on the main thread.
+     * @param entrants entrants to export; the list is copied
+     * @param fileName name of the file inside the exports directory, e.g. "accepted_list_{eventId}.csv"
+     * @param onProgress optional progress listener, may be null
+     * @param onDone receives the written file
+     * @param onError callback for errors; a partial file is deleted
+     */
+    public void export(List<WaitlistEntrant> entrants, String fileName, ProgressListener onProgress,
+                       Consumer<File> onDone, Consumer<Exception> onError) {
+        List<WaitlistEntrant> rows = new ArrayList<>(entrants);
+        EXECUTOR.execute(() -> {
+            File dir = context.getExternalFilesDir("exports");
+            if (dir == null) {
+                mainHandler.post(() -> onError.accept(new IOException("Cannot access external storage.")));
+                return;
+            }
+            File target = new File(dir, fileName);
+            File partial = new File(dir, fileName + ".part");
+            try {
+                writeRows(rows, partial, onProgress);
+                if (target.exists() && !target.delete()) {
+                    throw new IOException("Cannot replace " + target);
+                }
+                if (!partial.renameTo(target)) {
+                    throw new IOException("Cannot rename " + partial);
+                }
+                Log.d(TAG, "Exported " + rows.size() + " rows to " + target);
+                mainHandler.post(() -> onDone.accept(target));
+            } catch (Exception e) {
+                Log.e(TAG, "Error exporting CSV", e);
+                partial.delete();
+                mainHandler.post(() -> onError.accept(e));
+            }
+        });
+    }
+
+    private void writeRows(List<WaitlistEntrant> entrants, File file, ProgressListener onProgress) throws Exception {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.write(HEADER);
+            out.write('\n');
+            for (int start = 0; start < entrants.size(); start += PAGE_SIZE) {
+                List<WaitlistEntrant> page = entrants.subList(start, Math.min(start + PAGE_SIZE, entrants.size()));
+                Map<String, User> users = fetchUsers(page);
+                for (WaitlistEntrant entrant : page) {
+                    User user = users.get(entrant.getUserId());
+                    if (user == null) {
+                        Log.w(TAG, "No user data for entrant: " + entrant.getUserId());
+                    }
+                    out.write(row(entrant, user, dateFormat));
+                    out.write('\n');
+                }
+                if (onProgress != null) {
+                    int written = start + page.size();
+                    mainHandler.post(() -> onProgress.onProgress(written, entrants.size()));
+                }
+            }
+        }
+    }
+
+    /** Blocks the export thread until the page's profiles are read. */
+    private Map<String, User> fetchUsers(List<WaitlistEntrant> page) throws Exception {
+        List<Task<QuerySnapshot>> queries = new ArrayList<>();
+        List<String> ids = new ArrayList<>(IDS_PER_QUERY);
+        for (WaitlistEntrant entrant : page) {
+            if (entrant.getUserId() == null || entrant.getUserId().isEmpty()) continue;
+            ids.add(entrant.getUserId());
+            if (ids.size() == IDS_PER_QUERY) {
+                queries.add(queryUsers(ids));
+                ids = new ArrayList<>(IDS_PER_QUERY);
+            }
+        }
+        if (!ids.isEmpty()) {
+            queries.add(queryUsers(ids));
+        }
+
+        Map<String, User> users = new HashMap<>();
+        for (Task<QuerySnapshot> query : queries) {
+            for (DocumentSnapshot doc : Tasks.await(query).getDocuments()) {
+                User user = doc.toObject(User.class);
+                if (user != null) {
+                    users.put(doc.getId(), user);
+                }
+            }
+        }
+        return users;
+    }
+
+    private Task<QuerySnapshot> queryUsers(List<String> ids) {
+        return db.collection("users").whereIn(FieldPath.documentId(), ids).get();
+    }
+
+    /**
+     * @return the CSV line for an entrant, without line break; the user may be null
+     */
+    static String row(WaitlistEntrant entrant, User user, SimpleDateFormat dateFormat) {
+        String fullName = "";
+        String email = "";
+        if (user != null) {
+            String first = user.getFirstName() != null ? user.getFirstName() : "";
+            String last = user.getLastName() != null ? user.getLastName() : "";
+            fullName = (first + " " + last).trim();
+            if (user.getEmail() != null) {
+                email = user.getEmail();
+            }
+        }
+        String timestamp = entrant.getRegistrationDate() != null
+                ? dateFormat.format(entrant.getRegistrationDate()) : "";
+        return quote(fullName) + "," + quote(email) + "," + quote(timestamp);
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "\"\"";
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Exports a list screen's entrants: the button shows the progress and is disabled until the
+     * export finishes, then the share sheet opens.
+     * @param activity list screen
+     * @param button export button of the screen
+     * @param entrants entrants shown on the screen
+     * @param fileName name of the file inside the exports directory
+     * @param title share sheet title
+     */
+    public static void exportWithProgress(Activity activity, Button button, List<WaitlistEntrant> entrants,
+                                          String fileName, String title) {
+        CharSequence label = button.getText();
+        button.setEnabled(false);
+        new CsvExporter(activity).export(entrants, fileName,
+                (written, total) -> button.setText("Exporting " + written + "/" + total),
+                file -> {
+                    button.setEnabled(true);
+                    button.setText(label);
+                    if (!activity.isFinishing()) {
+                        share(activity, file, title);
+                    }
+                },
+                e -> {
+                    button.setEnabled(true);
+                    button.setText(label);
+                    Toast.makeText(activity, "Failed to export CSV.", Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    /**
+     * Opens the share sheet for an exported file.
+     * @param activity activity starting the chooser
+     * @param file exported CSV file
+     * @param title chooser title
+     */
+    public static void share(Activity activity, File file, String title) {
+        share(activity, file, "text/csv", title);
+    }
+
+    /**
+     * Opens the share sheet for any file in the exports directory.
+     * @param activity activity starting the chooser
+     * @param file exported file
+     * @param mimeType MIME type of the file, e.g. "application/pdf"
+     * @param title chooser title
+     */
+    public static void share(Activity activity, File file, String mimeType, String title) {
+        Uri uri = FileProvider.getUriForFile(activity,
+                activity.getApplicationContext().getPackageName() + ".fileprovider", file);
+        Intent shareIntent = new Intent(Intent.ACTION_SEND);
+        shareIntent.setType(mimeType);
+        shareIntent.putExtra(Intent.EXTRA_STREAM, uri);
+        shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        activity.startActivity(Intent.createChooser(shareIntent, title));
+    }
+}
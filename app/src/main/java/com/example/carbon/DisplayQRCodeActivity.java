@@ -1,7 +1,7 @@
 package com.example.carbon;
 
 import android.content.Intent;
-import android.graphics.Bitmap;import android.os.Bundle;
+import android.os.Bundle;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.Toast;
@@ -41,16 +41,17 @@ public class DisplayQRCodeActivity extends AppCompatActivity {
             // Convert the string back to a UUID object
             UUID eventUuid = UUID.fromString(eventUuidString);
 
-            // Generate the QR code Bitmap
-            Bitmap qrCodeBitmap = QRCodeGenerator.generateQRCode(eventUuid);
-
-            // If generation was successful, display it
-            if (qrCodeBitmap != null) {
-                qrCodeImageView.setImageBitmap(qrCodeBitmap);
-            } else {
-                // Handle the error case
-                Toast.makeText(this, "Failed to generate QR Code.", Toast.LENGTH_LONG).show();
-            }
+            // Load the QR code Bitmap, rendering it only if it is not cached yet
+            QRCodeCache.getInstance(this).load(eventUuid, QRCodeGenerator.QR_SIZE, qrCodeBitmap -> {
+                if (isFinishing()) return;
+                // If generation was successful, display it
+                if (qrCodeBitmap != null) {
+                    qrCodeImageView.setImageBitmap(qrCodeBitmap);
+                } else {
+                    // Handle the error case
+                    Toast.makeText(this, "Failed to generate QR Code.", Toast.LENGTH_LONG).show();
+                }
+            });
         } else {
             // Handle the case where the UUID was not passed
             Toast.makeText(this, "Error: Event ID not found.", Toast.LENGTH_LONG).show();
@@ -27,6 +27,7 @@ public class Event {
     private String uuid;
     private List<String> attendeeList = new ArrayList<>();  // to hold the attendees that are going to be attending the event
     private String imageURL;
+    private String thumbnailURL;
 
 
     /** Required empty public constructor for Firestore. */
@@ -94,6 +95,10 @@ public class Event {
     public String getUuid() { return uuid; }
     /** @return URL to the event poster image */
     public String getImageURL() {return imageURL;}
+    /** @return URL to the downscaled poster shown in lists, or null for posters without one */
+    public String getThumbnailURL() { return thumbnailURL; }
+    /** @param thumbnailURL URL to the downscaled poster */
+    public void setThumbnailURL(String thumbnailURL) { this.thumbnailURL = thumbnailURL; }
 
     /** @return mutable list of attendee identifiers */
     public List<String> getAttendeeList() {
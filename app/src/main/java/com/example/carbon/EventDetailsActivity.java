@@ -21,9 +21,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.bumptech.glide.Glide;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.FirebaseFirestoreException;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -50,6 +49,10 @@ public class EventDetailsActivity extends AppCompatActivity {
     private List<WaitlistEntrant> currentWaitlistEntrants = new ArrayList<>();
     private Handler countdownHandler;
     private Runnable countdownRunnable;
+    private EventStore.Subscription eventSubscription;
+    private boolean entrantsRequested, entrantsLoaded;
+    private boolean eventStale, entrantsStale;
+    private final FirebaseWaitlistService waitlistService = new FirebaseWaitlistService();
 
     @Override protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -82,100 +85,124 @@ public class EventDetailsActivity extends AppCompatActivity {
             eventUuid = intent.getStringExtra("EXTRA_EVENT_ID");
         }
 
+        String title  = getIntent().getStringExtra(EXTRA_EVENT_TITLE);
+        String date   = getIntent().getStringExtra(EXTRA_EVENT_DATE);
+        String counts = getIntent().getStringExtra(EXTRA_EVENT_COUNTS);
+
+        tvTitle.setText(title != null ? title : "Event");
+        tvDate.setText(date != null ? date : "");
+        tvCounts.setText(counts != null ? counts : "");
+
         // Now, use the eventUuid to load your data
         if (eventUuid != null && !eventUuid.isEmpty()) {
-            // Your existing logic to load event details from Firestore using the UUID
+            // The list screen that opened this one usually holds the event already
+            Event stored = EventStore.getInstance().peek(eventUuid);
+            if (stored != null) {
+                showEvent(stored);
+            }
             loadEventDataFromFirestore(eventUuid);
         } else {
             // Handle the error: no ID was found
             Toast.makeText(this, "Event ID not found.", Toast.LENGTH_LONG).show();
             finish(); // Close the activity if there's no data to show
         }
-        String title  = getIntent().getStringExtra(EXTRA_EVENT_TITLE);
-        String date   = getIntent().getStringExtra(EXTRA_EVENT_DATE);
-        String counts = getIntent().getStringExtra(EXTRA_EVENT_COUNTS);
 
-        tvTitle.setText(title != null ? title : "Event");
-        tvDate.setText(date != null ? date : "");
-        tvCounts.setText(counts != null ? counts : "");
-        
         signUpButton.setOnClickListener(v -> joinWaitlist());
     }
 
     /**
-     * Loads the event based on the passed ID and updates the titles and strings for user visualization
+     * Watches the event based on the passed ID and updates the titles and strings for user visualization.
+     * The waitlist entrants are loaded once, from the document ID and waitlist of the first snapshot.
      * @param eventId The ID of the event to view the waitlist of
      *
      * @author Cooper Goddard
      */
     private void loadEventDataFromFirestore(String eventId) {
         Log.d("Event DB", eventId);
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-
-        // Reference the correct document in the 'events' collection using the eventId
-        Query query = db.collection("events").whereEqualTo("uuid", eventId).limit(1);
-
-        query.get().addOnCompleteListener(task -> {
-            if (task.isSuccessful()) {
-                // Check if the query returned any results
-                if (!task.getResult().isEmpty()) {
-                    // Get the first (and only, otherwise something is very wrong lol) document from the query result
-                    DocumentSnapshot document = task.getResult().getDocuments().get(0);
-
-                    // Convert the document into an Event object
-                    Event event = document.toObject(Event.class);
-                    currentEvent = event;
-                    EventDetailsActivity.this.eventId = event.getUuid();
-                    EventDetailsActivity.this.eventDocId = document.getId();
-                    currentWaitlistEntrants = event != null && event.getWaitlist() != null &&
-                            event.getWaitlist().getWaitlistEntrants() != null
-                            ? new ArrayList<>(event.getWaitlist().getWaitlistEntrants())
-                            : new ArrayList<>();
-
-                    tvTitle.setText(event.getTitle());
-                    if (event.getEventDate() != null) {
-                        // Format date and time
-                        SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.US);
-                        SimpleDateFormat timeFormat = new SimpleDateFormat("h a", Locale.US); // e.g., "9 AM", "2 PM"
-                        String dateStr = dateFormat.format(event.getEventDate());
-                        String timeStr = timeFormat.format(event.getEventDate()).toLowerCase();
-                        tvDate.setText(dateStr + " at " + timeStr);
-                        
-                        // Start countdown timer
-                        startCountdown(event.getEventDate());
-                    }
-                    
-                    // Display description
-                    if (event.getDescription() != null && !event.getDescription().isEmpty()) {
-                        tvDescription.setText(event.getDescription());
-                    } else {
-                        tvDescription.setText("No description available.");
-                    }
-                    String imageUrl = event.getImageURL();
-                    if (!TextUtils.isEmpty(imageUrl) && eventPoster != null) {
-                        Glide.with(this)
-                                .load(imageUrl)
-                                .placeholder(R.drawable.carbon_start_logo)
-                                .centerCrop()
-                                .into(eventPoster);
-                    } else if (eventPoster != null) {
-                        eventPoster.setImageResource(R.drawable.carbon_start_logo);
-                    }
 
-                    updateCounts(currentEvent, currentWaitlistEntrants);
-                    updateSignUpButton(); //set the correct button state
+        // Renders the cached event at once, then again once the server confirms or changes it
+        eventSubscription = EventStore.getInstance().watch(eventId, (docId, event, stale) -> {
+            eventStale = stale;
+            currentEvent = event;
+            EventDetailsActivity.this.eventId = event.getUuid();
+            EventDetailsActivity.this.eventDocId = docId;
+            showEvent(event);
+            updateCounts(currentEvent, currentWaitlistEntrants);
+            UIHelper.showStaleIndicator(this, eventStale || entrantsStale);
+            Waitlist waitlist = event.getWaitlist();
+            // Entrants of older events are embedded in the document and change with every snapshot
+            if (waitlist == null) {
+                entrantsLoaded = true;
+                updateSignUpButton();
+            } else if (!entrantsRequested || !waitlist.usesEntrantSubcollection()) {
+                entrantsRequested = true;
+                loadEntrants(docId, waitlist);
+            }
+        }, e -> {
+            if (e instanceof EventIdResolver.EventNotFoundException) {
+                Toast.makeText(EventDetailsActivity.this, "Event not found.", Toast.LENGTH_SHORT).show();
+            } else if (currentEvent == null) {
+                Toast.makeText(EventDetailsActivity.this, "Failed to load event data.", Toast.LENGTH_SHORT).show();
+            } else {
+                // The event is on screen; it just stops updating
+                Log.w("EventDetailsActivity", "Stopped watching event " + eventId, e);
+                return;
+            }
+            finish();
+        });
+    }
 
-                } else {
-                    Toast.makeText(EventDetailsActivity.this, "Event not found.", Toast.LENGTH_SHORT).show();
-                    finish();
-                }
-                } else {
-                    Toast.makeText(EventDetailsActivity.this, "Failed to load event data.", Toast.LENGTH_SHORT).show();
-                    finish();
-                }
+    /**
+     * Loads the waitlist entrants for the counts and the sign-up button, cached first.
+     */
+    private void loadEntrants(String docId, Waitlist waitlist) {
+        waitlistService.fetchEntrants(docId, waitlist, ReadPolicy.EVENT_DETAILS, (entrants, stale) -> {
+            entrantsStale = stale;
+            entrantsLoaded = true;
+            currentWaitlistEntrants = new ArrayList<>(entrants);
+            UIHelper.showStaleIndicator(this, eventStale || entrantsStale);
+            updateCounts(currentEvent, currentWaitlistEntrants);
+            updateSignUpButton(); //set the correct button state
+        }, e -> {
+            Log.e("EventDetailsActivity", "Failed to load entrants of " + docId, e);
+            Toast.makeText(EventDetailsActivity.this, "Failed to load event data.", Toast.LENGTH_SHORT).show();
         });
     }
 
+    /**
+     * Renders the title, date, countdown, description and poster of an event.
+     */
+    private void showEvent(Event event) {
+        tvTitle.setText(event.getTitle());
+        if (event.getEventDate() != null) {
+            // Format date and time
+            SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.US);
+            SimpleDateFormat timeFormat = new SimpleDateFormat("h a", Locale.US); // e.g., "9 AM", "2 PM"
+            String dateStr = dateFormat.format(event.getEventDate());
+            String timeStr = timeFormat.format(event.getEventDate()).toLowerCase();
+            tvDate.setText(dateStr + " at " + timeStr);
+
+            // Start countdown timer
+            startCountdown(event.getEventDate());
+        }
+
+        // Display description
+        if (event.getDescription() != null && !event.getDescription().isEmpty()) {
+            tvDescription.setText(event.getDescription());
+        } else {
+            tvDescription.setText("No description available.");
+        }
+        String imageUrl = event.getImageURL();
+        if (!TextUtils.isEmpty(imageUrl) && eventPoster != null) {
+            CarbonGlideModule.eventPoster(Glide.with(this), event)
+                    .placeholder(R.drawable.carbon_start_logo)
+                    .centerCrop()
+                    .into(eventPoster);
+        } else if (eventPoster != null) {
+            eventPoster.setImageResource(R.drawable.carbon_start_logo);
+        }
+    }
+
     /**
      * Updates the counts text using either the event's waitlist or an override list.
      */
@@ -208,7 +235,7 @@ public class EventDetailsActivity extends AppCompatActivity {
             startActivity(new Intent(this, LogInActivity.class));
             return;
         }
-        if (currentEvent == null || eventDocId == null || eventDocId.isEmpty()) {
+        if (currentEvent == null || !entrantsLoaded || eventDocId == null || eventDocId.isEmpty()) {
             Toast.makeText(this, "Event not loaded yet", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -216,7 +243,7 @@ public class EventDetailsActivity extends AppCompatActivity {
         List<WaitlistEntrant> entrants = new ArrayList<>(currentWaitlistEntrants);
 
         Integer spots = currentEvent.getTotalSpots();
-        if (spots != null && spots > 0 && entrants.size() >= spots * 5) {
+        if (spots != null && spots > 0 && entrants.size() >= spots * FirebaseWaitlistService.MAX_ENTRANTS_PER_SPOT) {
             Toast.makeText(this, "Waitlist is full for this event", Toast.LENGTH_LONG).show();
             return;
         }
@@ -230,42 +257,67 @@ public class EventDetailsActivity extends AppCompatActivity {
 
         ensureUserProfile(user, () -> {
             WaitlistEntrant newEntrant = new WaitlistEntrant(user.getUid(), new Date());
-            entrants.add(newEntrant);
-            currentWaitlistEntrants = entrants;
-
-            FirebaseFirestore.getInstance().collection("events")
-                    .document(eventDocId)
-                    .update("waitlist.waitlistEntrants", entrants)
-                    .addOnSuccessListener(aVoid -> {
-                        Toast.makeText(this, "Added to waitlist", Toast.LENGTH_SHORT).show();
-                        updateCounts(currentEvent, entrants);
-                        updateSignUpButton();
-                    })
-                    .addOnFailureListener(e -> Toast.makeText(this, "Failed to join waitlist", Toast.LENGTH_LONG).show());
+
+            Runnable onJoined = () -> {
+                entrants.add(newEntrant);
+                currentWaitlistEntrants = entrants;
+                updateCounts(currentEvent, entrants);
+                updateSignUpButton();
+            };
+            // Sign-ups that cannot reach the server are journaled and sent once back online
+            OperationJournal.getInstance().submit(PendingOperation.join(eventDocId, newEntrant), () -> {
+                Toast.makeText(this, "Added to waitlist", Toast.LENGTH_SHORT).show();
+                onJoined.run();
+            }, offline -> {
+                Toast.makeText(this, offline
+                        ? "You're offline. Your sign-up will be sent when you're back online"
+                        : "Your sign-up will be sent after your earlier changes", Toast.LENGTH_LONG).show();
+                onJoined.run();
+            }, e -> {
+                // Window, capacity and duplicate checks are repeated server-side inside the transaction
+                if (isJoinRejection(e)) {
+                    Toast.makeText(this, e.getMessage(), Toast.LENGTH_LONG).show();
+                } else {
+                    Log.e("EventDetailsActivity", "Failed to join waitlist", e);
+                    Toast.makeText(this, "Failed to join waitlist", Toast.LENGTH_LONG).show();
+                }
+            });
         });
     }
 
+    private static boolean isJoinRejection(Exception e) {
+        if (!(e instanceof FirebaseFirestoreException)) return false;
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) e).getCode();
+        return code == FirebaseFirestoreException.Code.ALREADY_EXISTS
+                || code == FirebaseFirestoreException.Code.FAILED_PRECONDITION
+                || code == FirebaseFirestoreException.Code.RESOURCE_EXHAUSTED
+                || code == FirebaseFirestoreException.Code.NOT_FOUND;
+    }
+
     /**
      * Ensures anonymous/device users provide name and email before joining waitlist.
      */
     private void ensureUserProfile(FirebaseUser user, Runnable onReady) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("users").document(user.getUid()).get()
-                .addOnSuccessListener(doc -> {
-                    String first = doc.getString("firstName");
-                    String last = doc.getString("lastName");
-                    String email = doc.getString("email");
-                    boolean needsInfo = TextUtils.isEmpty(first) || TextUtils.isEmpty(last) || TextUtils.isEmpty(email);
-
-                    if (!needsInfo) {
-                        onReady.run();
-                        return;
-                    }
-                    showProfilePrompt(user, first, last, email, onReady);
-                })
-                .addOnFailureListener(e -> {
-                    showProfilePrompt(user, null, null, null, onReady);
-                });
+        UserCache.getInstance().get(user.getUid(), new WaitlistEntrant.UserCallback() {
+            @Override
+            public void onUserFetched(User profile) {
+                String first = profile.getFirstName();
+                String last = profile.getLastName();
+                String email = profile.getEmail();
+                boolean needsInfo = TextUtils.isEmpty(first) || TextUtils.isEmpty(last) || TextUtils.isEmpty(email);
+
+                if (!needsInfo) {
+                    onReady.run();
+                    return;
+                }
+                showProfilePrompt(user, first, last, email, onReady);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                showProfilePrompt(user, null, null, null, onReady);
+            }
+        });
     }
 
     private void showProfilePrompt(FirebaseUser user, String first, String last, String email, Runnable onReady) {
@@ -310,7 +362,10 @@ public class EventDetailsActivity extends AppCompatActivity {
                                 put("anonymous", false);
                                 put("role", "entrant");
                             }}, com.google.firebase.firestore.SetOptions.merge())
-                            .addOnSuccessListener(x -> onReady.run())
+                            .addOnSuccessListener(x -> {
+                                UserCache.getInstance().invalidate(user.getUid());
+                                onReady.run();
+                            })
                             .addOnFailureListener(err -> Toast.makeText(EventDetailsActivity.this, "Failed to save profile", Toast.LENGTH_LONG).show());
                 })
                 .setNegativeButton("Cancel", null)
@@ -338,17 +393,21 @@ public class EventDetailsActivity extends AppCompatActivity {
             return;
         }
 
-        // Update Firestore
-        FirebaseFirestore.getInstance().collection("events")
-                .document(eventDocId)
-                .update("waitlist.waitlistEntrants", updatedList)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(this, "You have left the waitlist", Toast.LENGTH_SHORT).show();
-                    currentWaitlistEntrants = updatedList;
-                    updateCounts(currentEvent, currentWaitlistEntrants);
-                    updateSignUpButton(); // update button back to "Sign Up"
-                })
-                .addOnFailureListener(e -> Toast.makeText(this, "Failed to leave waitlist", Toast.LENGTH_LONG).show());
+        Runnable onLeft = () -> {
+            currentWaitlistEntrants = updatedList;
+            updateCounts(currentEvent, currentWaitlistEntrants);
+            updateSignUpButton(); // update button back to "Sign Up"
+        };
+        // Update Firestore, or queue the change until the device is back online
+        OperationJournal.getInstance().submit(PendingOperation.leave(eventDocId, user.getUid()), () -> {
+            Toast.makeText(this, "You have left the waitlist", Toast.LENGTH_SHORT).show();
+            onLeft.run();
+        }, offline -> {
+            Toast.makeText(this, offline
+                    ? "You're offline. You will leave the waitlist when you're back online"
+                    : "You will leave the waitlist after your earlier changes are sent", Toast.LENGTH_LONG).show();
+            onLeft.run();
+        }, e -> Toast.makeText(this, "Failed to leave waitlist", Toast.LENGTH_LONG).show());
     }
 
 
@@ -379,6 +438,10 @@ public class EventDetailsActivity extends AppCompatActivity {
             tvCountdown.setText("Event date not available");
             return;
         }
+        if (countdownRunnable != null) {
+            // The event can be shown twice, from the cache and then from the server
+            countdownHandler.removeCallbacks(countdownRunnable);
+        }
 
         countdownRunnable = new Runnable() {
             @Override
@@ -422,5 +485,8 @@ public class EventDetailsActivity extends AppCompatActivity {
         if (countdownHandler != null && countdownRunnable != null) {
             countdownHandler.removeCallbacks(countdownRunnable);
         }
+        if (eventSubscription != null) {
+            eventSubscription.remove();
+        }
     }
 }
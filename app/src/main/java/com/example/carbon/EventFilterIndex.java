@@ -0,0 +1,253 @@
+package com.example.carbon;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory index of the browse filters: event keys grouped by category, by location and by the
+ * local day of the event. Entries are added and removed one at a time as snapshot changes arrive,
+ * and a filter combination is answered by walking the smallest matching group and checking the
+ * other criteria against each entry, instead of testing every event.
+ * Keys are returned in ascending order. Not thread-safe; the browse screen only uses it on the main thread.
+ */
+public class EventFilterIndex {
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private final TimeZone timeZone;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeSet<String> allKeys = new TreeSet<>();
+    private final Map<String, TreeSet<String>> byCategory = new HashMap<>();
+    private final Map<String, TreeSet<String>> byLocation = new HashMap<>();
+    private final TreeMap<Long, TreeSet<String>> byDay = new TreeMap<>();
+
+    private static class Entry {
+        final String category;
+        final String location;
+        final Long day;
+
+        Entry(String category, String location, Long day) {
+            this.category = category;
+            this.location = location;
+            this.day = day;
+        }
+    }
+
+    /**
+     * Filter values; a null field matches every event.
+     */
+    public static class Criteria {
+        final String category;
+        final String location;
+        final Long fromDay;
+        final Long toDay;
+
+        /**
+         * @param category category to match, or null for any
+         * @param location city (or address when the city is missing) to match, or null for any
+         * @param fromDay first epoch day to include, or null for no lower bound
+         * @param toDay last epoch day to include, or null for no upper bound
+         */
+        public Criteria(String category, String location, Long fromDay, Long toDay) {
+            this.category = category;
+            this.location = location;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+
+        boolean hasDateRange() {
+            return fromDay != null || toDay != null;
+        }
+    }
+
+    /** Creates an index that buckets dates by day in the device time zone. */
+    public EventFilterIndex() {
+        this(TimeZone.getDefault());
+    }
+
+    /**
+     * @param timeZone time zone whose calendar days are used for the date buckets
+     */
+    public EventFilterIndex(TimeZone timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    /**
+     * Days since 1970-01-01 of the given instant in a time zone.
+     * @param date instant to convert
+     * @param timeZone time zone whose calendar day is wanted
+     * @return the epoch day
+     */
+    public static long epochDay(Date date, TimeZone timeZone) {
+        long local = date.getTime() + timeZone.getOffset(date.getTime());
+        return Math.floorDiv(local, MILLIS_PER_DAY);
+    }
+
+    /**
+     * @param date instant to convert
+     * @return the epoch day of the instant in this index's time zone
+     */
+    public long epochDay(Date date) {
+        return epochDay(date, timeZone);
+    }
+
+    /**
+     * Adds or replaces an event.
+     * @param key unique key of the event, e.g. its document ID
+     * @param category event category, may be null
+     * @param location city or address used by the location filter, may be null
+     * @param date event date, may be null
+     */
+    public void put(String key, String category, String location, Date date) {
+        remove(key);
+        Entry entry = new Entry(category, location, date != null ? epochDay(date) : null);
+        entries.put(key, entry);
+        allKeys.add(key);
+        if (category != null) bucket(byCategory, category).add(key);
+        if (location != null) bucket(byLocation, location).add(key);
+        if (entry.day != null) bucket(byDay, entry.day).add(key);
+    }
+
+    /**
+     * Removes an event; does nothing when the key is unknown.
+     * @param key unique key of the event
+     */
+    public void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) return;
+        allKeys.remove(key);
+        if (entry.category != null) unbucket(byCategory, entry.category, key);
+        if (entry.location != null) unbucket(byLocation, entry.location, key);
+        if (entry.day != null) unbucket(byDay, entry.day, key);
+    }
+
+    /** Removes every event. */
+    public void clear() {
+        entries.clear();
+        allKeys.clear();
+        byCategory.clear();
+        byLocation.clear();
+        byDay.clear();
+    }
+
+    /** @return number of indexed events */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @param key unique key of the event
+     * @param criteria filter values
+     * @return true when the event is indexed and passes every criterion
+     */
+    public boolean matches(String key, Criteria criteria) {
+        Entry entry = entries.get(key);
+        return entry != null && matches(entry, criteria);
+    }
+
+    /**
+     * Resolves a filter combination.
+     * @param criteria filter values
+     * @return keys of the matching events in ascending order
+     */
+    public List<String> query(Criteria criteria) {
+        // Drive the lookup from the smallest candidate group; the other criteria are checked per entry
+        Collection<String> driver = allKeys;
+        boolean sorted = true;
+        if (criteria.category != null) {
+            driver = smaller(driver, byCategory.get(criteria.category));
+        }
+        if (criteria.location != null) {
+            driver = smaller(driver, byLocation.get(criteria.location));
+        }
+        if (criteria.hasDateRange()) {
+            NavigableMap<Long, TreeSet<String>> days = daysIn(criteria);
+            int inRange = 0;
+            for (TreeSet<String> keys : days.values()) {
+                inRange += keys.size();
+                if (inRange >= driver.size()) break;
+            }
+            if (inRange < driver.size()) {
+                List<String> keys = new ArrayList<>(inRange);
+                for (TreeSet<String> dayKeys : days.values()) {
+                    keys.addAll(dayKeys);
+                }
+                driver = keys;
+                sorted = days.size() <= 1;
+            }
+        }
+
+        List<String> result;
+        if (activeCriteria(criteria) <= 1) {
+            // The driver already is the answer; no other criterion to check
+            result = new ArrayList<>(driver);
+        } else {
+            result = new ArrayList<>();
+            for (String key : driver) {
+                if (matches(entries.get(key), criteria)) {
+                    result.add(key);
+                }
+            }
+        }
+        if (!sorted) {
+            Collections.sort(result);
+        }
+        return result;
+    }
+
+    private static int activeCriteria(Criteria criteria) {
+        int active = 0;
+        if (criteria.category != null) active++;
+        if (criteria.location != null) active++;
+        if (criteria.hasDateRange()) active++;
+        return active;
+    }
+
+    private NavigableMap<Long, TreeSet<String>> daysIn(Criteria criteria) {
+        long from = criteria.fromDay != null ? criteria.fromDay : Long.MIN_VALUE;
+        long to = criteria.toDay != null ? criteria.toDay : Long.MAX_VALUE;
+        if (from > to) return new TreeMap<>();
+        return byDay.subMap(from, true, to, true);
+    }
+
+    private static boolean matches(Entry entry, Criteria criteria) {
+        if (criteria.category != null && !criteria.category.equals(entry.category)) return false;
+        if (criteria.location != null && !criteria.location.equals(entry.location)) return false;
+        if (criteria.hasDateRange()) {
+            if (entry.day == null) return false;
+            if (criteria.fromDay != null && entry.day < criteria.fromDay) return false;
+            if (criteria.toDay != null && entry.day > criteria.toDay) return false;
+        }
+        return true;
+    }
+
+    private static Collection<String> smaller(Collection<String> current, Set<String> candidate) {
+        if (candidate == null) return Collections.emptySet();
+        return candidate.size() < current.size() ? candidate : current;
+    }
+
+    private static <K> TreeSet<String> bucket(Map<K, TreeSet<String>> index, K value) {
+        TreeSet<String> keys = index.get(value);
+        if (keys == null) {
+            keys = new TreeSet<>();
+            index.put(value, keys);
+        }
+        return keys;
+    }
+
+    private static <K> void unbucket(Map<K, TreeSet<String>> index, K value, String key) {
+        TreeSet<String> keys = index.get(value);
+        if (keys == null) return;
+        keys.remove(key);
+        if (keys.isEmpty()) index.remove(value);
+    }
+}
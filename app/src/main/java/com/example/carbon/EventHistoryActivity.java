@@ -2,6 +2,7 @@ package com.example.carbon;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.widget.ImageButton;
 import android.widget.TextView;
@@ -11,16 +12,13 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Date;
 
 
 /**
@@ -88,89 +86,40 @@ public class EventHistoryActivity extends AppCompatActivity {
 
 
     /**
-     * Loads all past events from Firestore and filters them to include
-     * only events the user actually participated in, was selected for,
-     * or appeared in the waitlist for. Only events that occurred before
-     * the current date are included.
+     * Loads the past events the user participated in from their participations index,
+     * most recent first, together with the user's status for each event.
      *
      * @param uid The current user's UID
      */
     private void loadPastEvents(String uid) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-
-        db.collection("events").get()
-                .addOnSuccessListener(querySnapshot -> {
-
-                    pastEvents.clear(); // clear old data
-                    Date now = new Date();
-
-                    for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-
-                        Event event = doc.toObject(Event.class);
-                        if (event == null || event.getEventDate() == null)
-                            continue;
-
-                        // Only include past events
-                        if (!event.getEventDate().before(now))
-                            continue;
-
-                        // Determine if user was actually part of this event
-                        String userStatus = getUserStatus(doc, uid);
-
-                        // Only add event to history if user ever signed up
-                        if (!"NOT_IN_EVENT".equals(userStatus)) {
-                            pastEvents.add(new EventHistory(event, userStatus));
-                        }
-                    }
-
-                    // Update UI
-                    adapter.notifyDataSetChanged();
-                    emptyMessage.setVisibility(pastEvents.isEmpty() ? View.VISIBLE : View.GONE);
-
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(this,
-                            "Failed to load events: " + e.getMessage(),
-                            Toast.LENGTH_SHORT
-                    ).show();
-                });
-    }
-
-
-    // Helper method to get user status from document
-    private String getUserStatus(DocumentSnapshot doc, String uid) {
-
-        // Check selected entrants
-        List<Map<String, Object>> selectedEntries =
-                (List<Map<String, Object>>) doc.get("selectedEntrants");
-
-        if (selectedEntries != null) {
-            for (Map<String, Object> user : selectedEntries) {
-                if (uid.equals(user.get("userId"))) {
-                    return "Selected";
-                }
+        new FirebaseWaitlistService().fetchPastParticipations(uid, participations -> {
+            List<String> eventDocIds = new ArrayList<>();
+            Map<String, String> statusByEventDocId = new HashMap<>();
+            for (Participation participation : participations) {
+                eventDocIds.add(participation.getEventDocId());
+                String status = participation.getStatus();
+                statusByEventDocId.put(participation.getEventDocId(), status != null ? status : "Not Selected");
             }
-        }
-
-        // Check waitlist entrants
-        Map<String, Object> waitlistMap = (Map<String, Object>) doc.get("waitlist");
 
-        if (waitlistMap != null) {
-            List<Map<String, Object>> waitlistEntries =
-                    (List<Map<String, Object>>) waitlistMap.get("waitlistEntrants");
-
-            if (waitlistEntries != null) {
-                for (Map<String, Object> user : waitlistEntries) {
-                    if (uid.equals(user.get("userId"))) {
-                        String status = (String) user.get("status");
-                        return status != null ? status : "Not Selected";
-                    }
+            new EventList().fetchEventsByDocIds(eventDocIds, events -> {
+                pastEvents.clear(); // clear old data
+                for (Map.Entry<String, Event> entry : events.entrySet()) {
+                    pastEvents.add(new EventHistory(entry.getValue(), statusByEventDocId.get(entry.getKey())));
                 }
-            }
-        }
 
-        // User never signed up for this event
-        return "NOT_IN_EVENT";
+                // Update UI
+                adapter.notifyDataSetChanged();
+                emptyMessage.setVisibility(pastEvents.isEmpty() ? View.VISIBLE : View.GONE);
+            }, this::showLoadError);
+        }, this::showLoadError);
+    }
+
+    private void showLoadError(Exception e) {
+        Log.w("EventHistoryActivity", "Failed to load event history", e);
+        Toast.makeText(this,
+                "Failed to load events: " + e.getMessage(),
+                Toast.LENGTH_SHORT
+        ).show();
     }
 
 }
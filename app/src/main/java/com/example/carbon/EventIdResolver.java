@@ -0,0 +1,273 @@
+package com.example.carbon;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Process-wide resolver that maps event UUIDs to Firestore document IDs so services and screens
+ * can address an event document directly instead of running a whereEqualTo("uuid") query first.
+ * Lookups go through a bounded LRU memory tier, then a SharedPreferences tier that survives
+ * restarts, then the uuid query, and finally a direct document(uuid) lookup for callers that
+ * already hold a document ID.
+ * Outstanding issues: cached entries are only dropped when the mapped document no longer exists.
+ */
+public class EventIdResolver {
+    private static final String TAG = "EventIdResolver";
+    private static final String PREFS_NAME = "event_id_cache";
+    private static final int MEMORY_CAPACITY = 256;
+    private static final int DISK_CAPACITY = 2048;
+
+    private static EventIdResolver instance;
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final SharedPreferences diskCache;
+    // Number of mappings in the persistent tier, counted once on creation; guarded by diskCache
+    private int diskCount;
+    private final Map<String, String> memoryCache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MEMORY_CAPACITY;
+        }
+    };
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Raised when neither the uuid query nor the document ID fallback finds the event.
+     */
+    public static class EventNotFoundException extends Exception {
+        public EventNotFoundException(String eventKey) {
+            super("Event not found with ID or UUID: " + eventKey);
+        }
+    }
+
+    private EventIdResolver(Context context) {
+        this.diskCache = context != null
+                ? context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                : null;
+        this.diskCount = diskCache != null ? diskCache.getAll().size() : 0;
+    }
+
+    /**
+     * Creates the shared resolver with a persistent tier. Called once from {@link CarbonApplication}.
+     * @param context any context; the application context is retained
+     */
+    public static synchronized void init(Context context) {
+        if (instance == null || instance.diskCache == null) {
+            instance = new EventIdResolver(context);
+        }
+    }
+
+    /**
+     * @return the shared resolver; memory-only if {@link #init(Context)} has not run yet
+     */
+    public static synchronized EventIdResolver getInstance() {
+        if (instance == null) {
+            instance = new EventIdResolver(null);
+        }
+        return instance;
+    }
+
+    /**
+     * Resolves an event UUID (or a document ID) to the Firestore document ID of the event.
+     * @param eventKey event UUID, or a document ID for legacy callers
+     * @param onResolved receives the document ID
+     * @param onError receives {@link EventNotFoundException} or the Firestore failure
+     */
+    public void resolve(String eventKey, Consumer<String> onResolved, Consumer<Exception> onError) {
+        if (eventKey == null || eventKey.isEmpty()) {
+            onError.accept(new Exception("Missing event ID"));
+            return;
+        }
+        String cached = lookup(eventKey);
+        if (cached != null) {
+            hitCount.incrementAndGet();
+            onResolved.accept(cached);
+            return;
+        }
+        missCount.incrementAndGet();
+        query(eventKey, doc -> onResolved.accept(doc.getId()), onError);
+    }
+
+    /**
+     * Fetches the event document for a UUID (or document ID). On a cache hit this is a single
+     * document read; on a miss the uuid query result is used directly and remembered.
+     * @param eventKey event UUID, or a document ID for legacy callers
+     * @param onFetched receives an existing event document
+     * @param onError receives {@link EventNotFoundException} or the Firestore failure
+     */
+    public void fetch(String eventKey, Consumer<DocumentSnapshot> onFetched, Consumer<Exception> onError) {
+        if (eventKey == null || eventKey.isEmpty()) {
+            onError.accept(new Exception("Missing event ID"));
+            return;
+        }
+        String cached = lookup(eventKey);
+        if (cached == null) {
+            missCount.incrementAndGet();
+            query(eventKey, onFetched, onError);
+            return;
+        }
+        hitCount.incrementAndGet();
+        db.collection("events").document(cached)
+                .get()
+                .addOnSuccessListener(doc -> {
+                    if (doc.exists()) {
+                        onFetched.accept(doc);
+                    } else {
+                        // Event was deleted or re-created under a new document; drop the stale entry
+                        invalidate(eventKey);
+                        query(eventKey, onFetched, onError);
+                    }
+                })
+                .addOnFailureListener(onError::accept);
+    }
+
+    /**
+     * Fetches the event document like {@link #fetch(String, Consumer, Consumer)}, but answers
+     * from the Firestore cache first and revalidates according to the policy. On a mapping miss
+     * the uuid query goes to the server and its result counts as fresh.
+     * @param eventKey event UUID, or a document ID for legacy callers
+     * @param policy staleness budget of the calling screen
+     * @param onFetched receives an existing event document, possibly twice: cached, then fresh
+     * @param onError receives {@link EventNotFoundException} or the Firestore failure
+     */
+    public void fetch(String eventKey, ReadPolicy policy, ReadPolicy.Listener<DocumentSnapshot> onFetched,
+                      Consumer<Exception> onError) {
+        if (eventKey == null || eventKey.isEmpty()) {
+            onError.accept(new Exception("Missing event ID"));
+            return;
+        }
+        Consumer<DocumentSnapshot> fromServer = doc -> {
+            ReadPolicy.markFresh(doc.getReference().getPath());
+            onFetched.onResult(doc, false);
+        };
+        String cached = lookup(eventKey);
+        if (cached == null) {
+            missCount.incrementAndGet();
+            query(eventKey, fromServer, onError);
+            return;
+        }
+        hitCount.incrementAndGet();
+        policy.read(db.collection("events").document(cached), (doc, stale) -> {
+            if (doc.exists()) {
+                onFetched.onResult(doc, stale);
+            } else {
+                // Event was deleted or re-created under a new document; drop the stale entry
+                invalidate(eventKey);
+                query(eventKey, fromServer, onError);
+            }
+        }, onError);
+    }
+
+    /**
+     * Records a known mapping, e.g. from a list screen that already holds the event document.
+     * @param eventUuid event UUID
+     * @param eventDocId Firestore document ID
+     */
+    public void remember(String eventUuid, String eventDocId) {
+        if (eventUuid == null || eventUuid.isEmpty() || eventDocId == null || eventDocId.isEmpty()) {
+            return;
+        }
+        String previous;
+        synchronized (memoryCache) {
+            previous = memoryCache.put(eventUuid, eventDocId);
+        }
+        if (diskCache == null || eventDocId.equals(previous)) return;
+        synchronized (diskCache) {
+            // The memory tier may have evicted a mapping the disk tier still holds
+            String stored = diskCache.getString(eventUuid, null);
+            if (eventDocId.equals(stored)) return;
+            SharedPreferences.Editor editor = diskCache.edit();
+            if (stored == null && diskCount >= DISK_CAPACITY) {
+                // SharedPreferences keeps no access order; start over rather than grow unbounded
+                editor.clear();
+                diskCount = 0;
+            }
+            if (stored == null) diskCount++;
+            editor.putString(eventUuid, eventDocId).apply();
+        }
+    }
+
+    /**
+     * Drops a mapping from both tiers.
+     * @param eventUuid event UUID to forget
+     */
+    public void invalidate(String eventUuid) {
+        synchronized (memoryCache) {
+            memoryCache.remove(eventUuid);
+        }
+        if (diskCache != null) {
+            synchronized (diskCache) {
+                if (diskCache.contains(eventUuid)) diskCount--;
+                diskCache.edit().remove(eventUuid).apply();
+            }
+        }
+    }
+
+    /** @return number of lookups answered from the memory or disk tier */
+    public long getHitCount() { return hitCount.get(); }
+
+    /** @return number of lookups that needed a Firestore query */
+    public long getMissCount() { return missCount.get(); }
+
+    /** @return fraction of lookups answered without a query, 0 when nothing was looked up */
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private String lookup(String eventKey) {
+        synchronized (memoryCache) {
+            String docId = memoryCache.get(eventKey);
+            if (docId != null) return docId;
+        }
+        if (diskCache == null) return null;
+        String docId = diskCache.getString(eventKey, null);
+        if (docId != null) {
+            synchronized (memoryCache) {
+                memoryCache.put(eventKey, docId);
+            }
+        }
+        return docId;
+    }
+
+    private void query(String eventKey, Consumer<DocumentSnapshot> onFetched, Consumer<Exception> onError) {
+        db.collection("events")
+                .whereEqualTo("uuid", eventKey)
+                .limit(1)
+                .get()
+                .addOnSuccessListener(querySnapshot -> {
+                    if (!querySnapshot.isEmpty()) {
+                        DocumentSnapshot doc = querySnapshot.getDocuments().get(0);
+                        remember(eventKey, doc.getId());
+                        onFetched.accept(doc);
+                        return;
+                    }
+                    // Fallback: treat the key as a document ID
+                    db.collection("events").document(eventKey)
+                            .get()
+                            .addOnSuccessListener(doc -> {
+                                if (doc.exists()) {
+                                    remember(eventKey, doc.getId());
+                                    remember(doc.getString("uuid"), doc.getId());
+                                    onFetched.accept(doc);
+                                } else {
+                                    Log.w(TAG, "Event not found with ID or UUID: " + eventKey);
+                                    onError.accept(new EventNotFoundException(eventKey));
+                                }
+                            })
+                            .addOnFailureListener(onError::accept);
+                })
+                .addOnFailureListener(onError::accept);
+    }
+}
@@ -2,20 +2,34 @@ package com.example.carbon;
 
 /**
  * Helper for fetching event collections from Firestore for various screens.
- * Outstanding issues: local caching and offline support are not yet implemented.
+ * Outstanding issues: only the first page of an organizer's events is read cache-first. The organizer
+ * query needs a composite index on (ownerId, eventDate), and events without an eventDate or an
+ * ownerId field at all are not returned by it.
  */
 
 import android.util.Log;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class EventList {
     private List<Event> events;
 
     private static final String TAG = "EventList";
+    // Firestore caps whereIn at 30 values
+    private static final int MAX_IDS_PER_QUERY = 30;
+    private static final int ALL_EVENTS_PAGE_SIZE = 100;
 
     // Callback interface to handle asynchronous results
     public interface EventListCallback {
@@ -23,6 +37,18 @@ public class EventList {
         void onError(Exception e);
     }
 
+    // Callback interface for one page of a paginated query
+    public interface EventPageCallback {
+        void onPageFetched(ArrayList<Event> events, DocumentSnapshot lastDocument, boolean hasMore);
+        void onError(Exception e);
+    }
+
+    // Callback interface for a page read under a ReadPolicy; it may arrive twice, cached then fresh
+    public interface CachedPageCallback {
+        void onPageFetched(ArrayList<Event> events, DocumentSnapshot lastDocument, boolean hasMore, boolean stale);
+        void onError(Exception e);
+    }
+
     // No longer need to store the list as a field.
     // The data is passed directly to the callback.
     public EventList() {
@@ -44,6 +70,7 @@ public class EventList {
                             try {
                                 Event event = document.toObject(Event.class);
                                 if (event != null) {
+                                    EventStore.getInstance().put(document.getId(), event);
                                     fetchedEvents.add(event);
                                 }
                             } catch (Exception e) {
@@ -61,39 +88,169 @@ public class EventList {
     }
 
     /**
-     * Asynchronously fetches events for a specific organizer.
+     * Asynchronously fetches one page of an organizer's events, ordered by event date.
+     * @param organizerId The ID of the event owner.
+     * @param startAfter The last document of the previous page, or null for the first page.
+     * @param pageSize Maximum number of events in the page.
+     * @param callback The callback to be invoked when the fetch is complete or fails.
+     */
+    public void fetchOrganizerEventsPage(String organizerId, DocumentSnapshot startAfter, int pageSize,
+                                         EventPageCallback callback) {
+        Query query = organizerEventsQuery(organizerId, pageSize);
+        if (startAfter != null) {
+            query = query.startAfter(startAfter);
+        }
+        query.get()
+                .addOnSuccessListener(querySnapshot -> {
+                    List<DocumentSnapshot> documents = querySnapshot.getDocuments();
+                    DocumentSnapshot last = documents.isEmpty() ? startAfter : documents.get(documents.size() - 1);
+                    callback.onPageFetched(toEvents(documents), last, documents.size() == pageSize);
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Error getting events for organizer.", e);
+                    callback.onError(e);
+                });
+    }
+
+    /**
+     * Fetches the first page of an organizer's events from the local cache first, then from the
+     * server according to the policy, so the list can be shown before the network answers.
+     * @param organizerId The ID of the event owner.
+     * @param pageSize Maximum number of events in the page.
+     * @param policy Staleness budget of the calling screen.
+     * @param callback Receives the page, possibly twice: cached, then fresh.
+     */
+    public void fetchOrganizerEventsFirstPage(String organizerId, int pageSize, ReadPolicy policy,
+                                              CachedPageCallback callback) {
+        policy.read(organizerEventsQuery(organizerId, pageSize), "events?ownerId=" + organizerId,
+                (querySnapshot, stale) -> {
+                    List<DocumentSnapshot> documents = querySnapshot.getDocuments();
+                    DocumentSnapshot last = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+                    callback.onPageFetched(toEvents(documents), last, documents.size() == pageSize, stale);
+                },
+                e -> {
+                    Log.w(TAG, "Error getting events for organizer.", e);
+                    callback.onError(e);
+                });
+    }
+
+    private static Query organizerEventsQuery(String organizerId, int pageSize) {
+        return FirebaseFirestore.getInstance().collection("events")
+                .whereEqualTo("ownerId", organizerId)
+                .orderBy("eventDate")
+                .limit(pageSize);
+    }
+
+    /**
+     * Asynchronously fetches every event of an organizer by following
+     * {@link #fetchOrganizerEventsPage} until the last page.
      * @param organizerId The ID of the event owner.
+     * @param callback The callback to be invoked with all events, or the first failure.
+     */
+    public void fetchAllOrganizerEvents(String organizerId, EventListCallback callback) {
+        fetchRemainingOrganizerEvents(organizerId, null, new ArrayList<>(), callback);
+    }
+
+    private void fetchRemainingOrganizerEvents(String organizerId, DocumentSnapshot startAfter,
+                                               ArrayList<Event> fetched, EventListCallback callback) {
+        fetchOrganizerEventsPage(organizerId, startAfter, ALL_EVENTS_PAGE_SIZE, new EventPageCallback() {
+            @Override
+            public void onPageFetched(ArrayList<Event> events, DocumentSnapshot lastDocument, boolean hasMore) {
+                fetched.addAll(events);
+                if (hasMore) {
+                    fetchRemainingOrganizerEvents(organizerId, lastDocument, fetched, callback);
+                } else {
+                    callback.onEventsFetched(fetched);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Asynchronously fetches legacy events that have no owner, so they don't disappear from the
+     * organizer screen. Firestore cannot match null and "" in one query, so each runs separately.
+     * @param limit Maximum number of events per query.
      * @param callback The callback to be invoked when the fetch is complete or fails.
      */
-    public void fetchOrganizerEvents(String organizerId, EventListCallback callback) {
+    public void fetchUnassignedEvents(int limit, EventListCallback callback) {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("events")
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        ArrayList<Event> fetchedEvents = new ArrayList<>();
-                        for (DocumentSnapshot document : task.getResult()) {
-                            try {
-                                Event event = document.toObject(Event.class);
-                                if (event == null) continue;
+        Task<QuerySnapshot> nullOwner = db.collection("events").whereEqualTo("ownerId", null).limit(limit).get();
+        Task<QuerySnapshot> emptyOwner = db.collection("events").whereEqualTo("ownerId", "").limit(limit).get();
+        Tasks.whenAllSuccess(nullOwner, emptyOwner)
+                .addOnSuccessListener(results -> {
+                    List<DocumentSnapshot> documents = new ArrayList<>();
+                    for (Object result : results) {
+                        documents.addAll(((QuerySnapshot) result).getDocuments());
+                    }
+                    callback.onEventsFetched(toEvents(documents));
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Error getting unassigned events.", e);
+                    callback.onError(e);
+                });
+    }
 
-                                String ownerId = event.getOwnerId();
-                                // Include events owned by the organizer, and also unassigned ones so they don't disappear.
-                                if (organizerId.equals(ownerId) || ownerId == null || ownerId.isEmpty()) {
-                                    fetchedEvents.add(event);
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error converting document to Event object", e);
-                            }
+    /**
+     * Asynchronously fetches events by document ID, in batches of 30 IDs per query.
+     * @param docIds Firestore document IDs of the events.
+     * @param onFetched Receives the events that exist keyed by document ID, in the order of docIds.
+     * @param onError Receives the Firestore failure.
+     */
+    public void fetchEventsByDocIds(List<String> docIds, Consumer<Map<String, Event>> onFetched,
+                                    Consumer<Exception> onError) {
+        if (docIds.isEmpty()) {
+            onFetched.accept(new LinkedHashMap<>());
+            return;
+        }
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        List<Task<QuerySnapshot>> queries = new ArrayList<>();
+        for (int start = 0; start < docIds.size(); start += MAX_IDS_PER_QUERY) {
+            List<String> chunk = new ArrayList<>(docIds.subList(start, Math.min(start + MAX_IDS_PER_QUERY, docIds.size())));
+            queries.add(db.collection("events").whereIn(FieldPath.documentId(), chunk).get());
+        }
+        Tasks.whenAllSuccess(queries)
+                .addOnSuccessListener(results -> {
+                    Map<String, DocumentSnapshot> byId = new HashMap<>();
+                    for (Object result : results) {
+                        for (DocumentSnapshot document : ((QuerySnapshot) result).getDocuments()) {
+                            byId.put(document.getId(), document);
                         }
-                        callback.onEventsFetched(fetchedEvents);
-                    } else {
-                        Log.w(TAG, "Error getting documents for organizer.", task.getException());
-                        callback.onError(task.getException());
                     }
+                    Map<String, Event> events = new LinkedHashMap<>();
+                    for (String docId : docIds) {
+                        DocumentSnapshot document = byId.get(docId);
+                        if (document == null) continue;
+                        ArrayList<Event> converted = toEvents(Collections.singletonList(document));
+                        if (!converted.isEmpty()) events.put(docId, converted.get(0));
+                    }
+                    onFetched.accept(events);
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Error getting events by ID.", e);
+                    onError.accept(e);
                 });
     }
 
+    private ArrayList<Event> toEvents(List<DocumentSnapshot> documents) {
+        ArrayList<Event> fetchedEvents = new ArrayList<>();
+        for (DocumentSnapshot document : documents) {
+            try {
+                Event event = document.toObject(Event.class);
+                if (event == null) continue;
+                EventStore.getInstance().put(document.getId(), event);
+                fetchedEvents.add(event);
+            } catch (Exception e) {
+                Log.e(TAG, "Error converting document to Event object", e);
+            }
+        }
+        return fetchedEvents;
+    }
+
     // Add a single event to the list
     public void addEvent(Event e) {
         events.add(e);
@@ -0,0 +1,180 @@
+package com.example.carbon;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Process-wide store of the events list screens have already loaded, keyed by event UUID, so a
+ * detail screen can paint its event synchronously on creation instead of querying for an object
+ * the previous screen held in memory. Detail screens then {@link #watch} the event's document,
+ * which delivers later changes and keeps the stored copy current. Stored events are shared
+ * between screens and must not be modified.
+ * Outstanding issues: waitlist entrants are not part of the stored events; screens that need
+ * them still load them separately.
+ */
+public class EventStore {
+    private static final int CAPACITY = 256;
+
+    private static EventStore instance;
+
+    private final Map<String, Entry> events = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    private static class Entry {
+        final String eventDocId;
+        final Event event;
+
+        Entry(String eventDocId, Event event) {
+            this.eventDocId = eventDocId;
+            this.event = event;
+        }
+    }
+
+    /**
+     * Receives the watched event each time its document changes.
+     */
+    public interface Observer {
+        /**
+         * @param eventDocId Firestore document ID of the event
+         * @param event the event as currently stored
+         * @param stale true while the snapshot comes from the local cache only
+         */
+        void onEvent(String eventDocId, Event event, boolean stale);
+    }
+
+    /**
+     * Handle of a {@link #watch}; screens remove it when they are destroyed.
+     */
+    public static class Subscription {
+        private ListenerRegistration registration;
+        private boolean removed;
+
+        public void remove() {
+            removed = true;
+            if (registration != null) {
+                registration.remove();
+                registration = null;
+            }
+        }
+    }
+
+    private EventStore() {
+    }
+
+    /**
+     * @return the shared store
+     */
+    public static synchronized EventStore getInstance() {
+        if (instance == null) {
+            instance = new EventStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Stores an event loaded from its document and records its UUID mapping in the
+     * {@link EventIdResolver}.
+     * @param eventDocId Firestore document ID of the event
+     * @param event the event read from that document
+     */
+    public void put(String eventDocId, Event event) {
+        if (event == null || event.getUuid() == null || eventDocId == null) return;
+        Entry previous;
+        synchronized (events) {
+            previous = events.put(event.getUuid(), new Entry(eventDocId, event));
+        }
+        if (previous == null || !eventDocId.equals(previous.eventDocId)) {
+            EventIdResolver.getInstance().remember(event.getUuid(), eventDocId);
+        }
+    }
+
+    /**
+     * @param eventUuid event UUID
+     * @return the stored event, or null when no screen has loaded it yet
+     */
+    public Event peek(String eventUuid) {
+        synchronized (events) {
+            Entry entry = events.get(eventUuid);
+            return entry != null ? entry.event : null;
+        }
+    }
+
+    /**
+     * @param eventUuid event UUID
+     * @return the document ID of the stored event, or null when it is not stored
+     */
+    public String docIdOf(String eventUuid) {
+        synchronized (events) {
+            Entry entry = events.get(eventUuid);
+            return entry != null ? entry.eventDocId : null;
+        }
+    }
+
+    /**
+     * Drops an event, e.g. after it was deleted.
+     * @param eventUuid event UUID
+     */
+    public void remove(String eventUuid) {
+        synchronized (events) {
+            events.remove(eventUuid);
+        }
+    }
+
+    /**
+     * Listens to a single event document. The observer is called with the cached snapshot first
+     * and again when the server confirms or changes it; every snapshot replaces the stored copy.
+     * @param eventKey event UUID, or a document ID for legacy callers
+     * @param observer receives the event on every change
+     * @param onError receives {@link EventIdResolver.EventNotFoundException} when the event does
+     *                not exist, or the Firestore failure
+     * @return handle to remove the listener with
+     */
+    public Subscription watch(String eventKey, Observer observer, Consumer<Exception> onError) {
+        Subscription subscription = new Subscription();
+        String known = docIdOf(eventKey);
+        Consumer<String> listen = eventDocId -> {
+            if (subscription.removed) return;
+            subscription.registration = FirebaseFirestore.getInstance().collection("events").document(eventDocId)
+                    .addSnapshotListener(MetadataChanges.INCLUDE, (document, error) -> {
+                        if (error != null) {
+                            onError.accept(error);
+                            return;
+                        }
+                        if (document == null) return;
+                        if (!document.exists()) {
+                            // A cache miss is followed by the server snapshot
+                            if (document.getMetadata().isFromCache()) return;
+                            remove(eventKey);
+                            EventIdResolver.getInstance().invalidate(eventKey);
+                            onError.accept(new EventIdResolver.EventNotFoundException(eventKey));
+                            return;
+                        }
+                        Event event;
+                        try {
+                            event = document.toObject(Event.class);
+                        } catch (RuntimeException e) {
+                            onError.accept(e);
+                            return;
+                        }
+                        if (event == null) return;
+                        put(document.getId(), event);
+                        observer.onEvent(document.getId(), event, document.getMetadata().isFromCache());
+                    });
+        };
+        if (known != null) {
+            listen.accept(known);
+        } else {
+            EventIdResolver.getInstance().resolve(eventKey, listen, onError);
+        }
+        return subscription;
+    }
+}
@@ -17,17 +17,15 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import com.example.carbon.NotificationStatus;
 import com.example.carbon.Notification;
@@ -57,6 +55,7 @@ public class EventWaitlistActivity extends AppCompatActivity {
     private TextView titleView;
     private String eventId;
     private final FirebaseNotificationService notificationService = new FirebaseNotificationService();
+    private final FirebaseWaitlistService waitlistService = new FirebaseWaitlistService();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -75,7 +74,7 @@ public class EventWaitlistActivity extends AppCompatActivity {
         }
         // Setup your RecyclerView and adapter
         RecyclerView recyclerView = findViewById(R.id.recycler_waitlist);
-        adapter = new WaitlistAdapter(displayedEntrants); // Initialize adapter with an empty list
+        adapter = new WaitlistAdapter(); // Initialize adapter with an empty list
         adapter.setOnSelectClickListener(this::handleSelectEntrant);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
@@ -125,23 +124,37 @@ public class EventWaitlistActivity extends AppCompatActivity {
         redrawButton = findViewById(R.id.redraw_btn);
         redrawButton.setOnClickListener(v -> redrawPendingEntrants());
         randomSampleButton = findViewById(R.id.random_sample_btn);
-        randomSampleButton.setOnClickListener(v -> randomlySampleUsers());
+        randomSampleButton.setOnClickListener(v -> showLotteryModeDialog());
+
+        Button exportButton = findViewById(R.id.export_csv_btn);
+        exportButton.setOnClickListener(v -> {
+            if (displayedEntrants.isEmpty()) {
+                Toast.makeText(this, "No entrants to export.", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            CsvExporter.exportWithProgress(this, exportButton, displayedEntrants,
+                    "waitlist_" + eventId + ".csv", "Export waitlist");
+        });
+    }
+
+    /**
+     * Lets the organizer choose between a uniform draw and one that favors early registrations.
+     */
+    private void showLotteryModeDialog() {
+        String[] options = {"Uniform", "Favor early registration"};
+        new AlertDialog.Builder(this)
+                .setTitle("Lottery mode")
+                .setItems(options, (dialog, which) -> randomlySampleUsers(which == 0
+                        ? WaitlistLottery.MODE_UNIFORM : WaitlistLottery.MODE_EARLY_REGISTRATION))
+                .show();
     }
 
     /**
      * Randomly samples entrants based on available spots and updates waitlist/invited list.
+     * @param mode WaitlistLottery.MODE_UNIFORM or WaitlistLottery.MODE_EARLY_REGISTRATION
      */
-    private void randomlySampleUsers() {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("events").whereEqualTo("uuid", eventId).limit(1)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    if (snapshot.isEmpty()) {
-                        Toast.makeText(this, "Event not found", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-                    DocumentSnapshot doc = snapshot.getDocuments().get(0);
-                    Event event = doc.toObject(Event.class);
+    private void randomlySampleUsers(String mode) {
+        waitlistService.fetchEventWithEntrants(eventId, (doc, event) -> {
                     if (event == null || event.getWaitlist() == null) {
                         Toast.makeText(this, "Waitlist missing", Toast.LENGTH_SHORT).show();
                         return;
@@ -165,37 +178,23 @@ public class EventWaitlistActivity extends AppCompatActivity {
                     }
 
                     int available = spots > 0 ? Math.max(spots, 0) : notSelected.size();
-                    Collections.shuffle(notSelected);
-
-                    List<WaitlistEntrant> selected = new ArrayList<>();
-                    if (notSelected.size() <= available) {
-                        selected.addAll(notSelected);
-                    } else {
-                        selected.addAll(notSelected.subList(0, available));
-                    }
+                    WaitlistLottery lottery = WaitlistLottery.start(event.getWaitlist(), mode);
+                    Log.i("EventWaitlistActivity", "Lottery draw for " + eventId + ": " + mode + ", seed "
+                            + lottery.getSeed() + ", " + available + " of " + notSelected.size() + " entrants");
+                    List<WaitlistEntrant> selected = lottery.draw(notSelected, available);
 
-                    // Mark selected as Pending
+                    // Mark selected as Pending; they are the same objects as in entrants
+                    Date now = new Date();
                     for (WaitlistEntrant e : selected) {
                         e.setStatus("Pending");
-                        e.setSelectionDate(new Date());
-                    }
-
-                    // Rebuild entrants list with updated statuses
-                    for (WaitlistEntrant e : entrants) {
-                        for (WaitlistEntrant sel : selected) {
-                            if (e != null && sel != null && Objects.equals(e.getUserId(), sel.getUserId())) {
-                                e.setStatus(sel.getStatus());
-                                e.setSelectionDate(sel.getSelectionDate());
-                            }
-                        }
+                        e.setSelectionDate(now);
                     }
 
-                    final List<WaitlistEntrant> updatedEntrants = entrants;
-                    final int waitlistSize = updatedEntrants.size();
+                    final int waitlistSize = entrants.size();
 
-                    db.collection("events").document(doc.getId())
-                            .update("waitlist.waitlistEntrants", updatedEntrants)
-                            .addOnSuccessListener(x -> {
+                    // Only the selected entrants changed, so only their documents are written
+                    Consumer<Exception> onSampleFailed = e -> Toast.makeText(this, "Failed to update waitlist", Toast.LENGTH_LONG).show();
+                    waitlistService.updateEntrants(doc.getId(), selected, lottery, () -> {
                                 Toast.makeText(this, "Random sample complete", Toast.LENGTH_SHORT).show();
                                 sendSelectionNotifications(selected, event.getUuid(), event.getTitle());
                                 loadWaitlistFromDatabase(eventId);
@@ -205,10 +204,14 @@ public class EventWaitlistActivity extends AppCompatActivity {
                                 Intent newIntent = new Intent(EventWaitlistActivity.this, SelectedListActivity.class);
                                 newIntent.putExtra("EVENT_ID", eventId);
                                 startActivity(newIntent);
-                            })
-                            .addOnFailureListener(e -> Toast.makeText(this, "Failed to update waitlist", Toast.LENGTH_LONG).show());
-                })
-                .addOnFailureListener(e -> Toast.makeText(this, "Failed to sample waitlist", Toast.LENGTH_LONG).show());
+                            }, onSampleFailed);
+                }, e -> {
+                    if (e instanceof EventIdResolver.EventNotFoundException) {
+                        Toast.makeText(this, "Event not found", Toast.LENGTH_SHORT).show();
+                    } else {
+                        Toast.makeText(this, "Failed to sample waitlist", Toast.LENGTH_LONG).show();
+                    }
+                });
     }
 
     private void updateTitleCount(int count) {
@@ -220,9 +223,10 @@ public class EventWaitlistActivity extends AppCompatActivity {
     private void sendSelectionNotifications(List<WaitlistEntrant> selected, String eventUuid, String title) {
         if (selected == null || selected.isEmpty()) return;
         String safeEventId = eventUuid != null ? eventUuid : eventId;
+        List<Notification> notifications = new ArrayList<>();
         for (WaitlistEntrant entrant : selected) {
             if (entrant == null || entrant.getUserId() == null) continue;
-            Notification notification = new Notification(
+            notifications.add(new Notification(
                     null,
                     entrant.getUserId(),
                     safeEventId,
@@ -231,9 +235,16 @@ public class EventWaitlistActivity extends AppCompatActivity {
                     NotificationStatus.UNREAD,
                     new Date(),
                     "chosen"
-            );
-            notificationService.sendNotification(notification, () -> {}, e -> Log.e("EventWaitlistActivity", "Failed to send selection notification", e));
+            ));
         }
+        notificationService.sendNotifications(notifications, result -> {
+            if (!result.isComplete()) {
+                Log.e("EventWaitlistActivity", "Failed to send " + result.getFailedCount()
+                        + " selection notifications", result.getLastError());
+                Toast.makeText(this, result.getFailedCount() + " selection notifications could not be sent",
+                        Toast.LENGTH_LONG).show();
+            }
+        });
     }
 
     /**
@@ -291,52 +302,41 @@ public class EventWaitlistActivity extends AppCompatActivity {
      */
     private void loadWaitlistFromDatabase(String eventId) {
         Log.d("Waitlist DB", eventId);
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
 
-        // Reference the correct document in the 'events' collection using the eventId
-        Query query = db.collection("events").whereEqualTo("uuid", eventId).limit(1);
-
-        query.get().addOnCompleteListener(task -> {
-            if (task.isSuccessful()) {
-                // Check if the query returned any results
-                if (!task.getResult().isEmpty()) {
-                    // Get the first (and only, otherwise something is very wrong lol) document from the query result
-                    DocumentSnapshot document = task.getResult().getDocuments().get(0);
-
-                    // Convert the document into an Event object
-                    Event event = document.toObject(Event.class);
-
-                    if (event != null && event.getWaitlist() != null) {
-                        // Get the nested Waitlist object from the Event
-                        this.waitlist = event.getWaitlist();
-                        List<WaitlistEntrant> entrants = this.waitlist.getWaitlistEntrants();
-
-                        if (entrants != null) {
-                            // Update the adapter with the list of entrants
-                            displayedEntrants.clear();
-                            displayedEntrants.addAll(entrants);
-                            adapter.notifyDataSetChanged();
-                            updateTitleCount(displayedEntrants.size());
-                            Log.d("Waitlist DB", "Successfully loaded " + entrants.size() + " entrants.");
-                        } else {
-                            updateTitleCount(0);
-                        }
+        // Resolve the event document through the shared UUID cache and load its entrants,
+        // showing the cached waitlist until the server copy arrives
+        waitlistService.fetchEventWithEntrants(eventId, ReadPolicy.WAITLIST, (document, event, stale) -> {
+            UIHelper.showStaleIndicator(this, stale);
+
+            if (event != null && event.getWaitlist() != null) {
+                // Get the nested Waitlist object from the Event
+                this.waitlist = event.getWaitlist();
+                List<WaitlistEntrant> entrants = this.waitlist.getWaitlistEntrants();
+
+                if (entrants != null) {
+                    // Update the adapter with the list of entrants
+                    displayedEntrants.clear();
+                    displayedEntrants.addAll(entrants);
+                    adapter.updateList(displayedEntrants);
+                    updateTitleCount(displayedEntrants.size());
+                    Log.d("Waitlist DB", "Successfully loaded " + entrants.size() + " entrants.");
+                } else {
+                    updateTitleCount(0);
+                }
 
-                            } else {
-                                Toast.makeText(EventWaitlistActivity.this, "Waitlist data is missing in this event.", Toast.LENGTH_SHORT).show();
-                                updateTitleCount(0);
-                            }
-                        } else {
-                            Toast.makeText(EventWaitlistActivity.this, "Event not found.", Toast.LENGTH_SHORT).show();
-                            updateTitleCount(0);
-                            finish();
-                        }
-                    } else {
-                        Toast.makeText(EventWaitlistActivity.this, "Failed to load event data.", Toast.LENGTH_SHORT).show();
-                        updateTitleCount(0);
-                        finish();
-                    }
-                });
+            } else {
+                Toast.makeText(EventWaitlistActivity.this, "Waitlist data is missing in this event.", Toast.LENGTH_SHORT).show();
+                updateTitleCount(0);
+            }
+        }, e -> {
+            if (e instanceof EventIdResolver.EventNotFoundException) {
+                Toast.makeText(EventWaitlistActivity.this, "Event not found.", Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(EventWaitlistActivity.this, "Failed to load event data.", Toast.LENGTH_SHORT).show();
+            }
+            updateTitleCount(0);
+            finish();
+        });
     }
 
     /**
@@ -361,33 +361,16 @@ public class EventWaitlistActivity extends AppCompatActivity {
      * Removes the entrant from the waitlist
      */
     private void removeEntrant(WaitlistEntrant entrant) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        Query query = db.collection("events").whereEqualTo("uuid", eventId).limit(1);
-
-        query.get().addOnCompleteListener(task -> {
-            if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                String eventDocId = task.getResult().getDocuments().get(0).getId();
-                DocumentSnapshot document = task.getResult().getDocuments().get(0);
-                Event event = document.toObject(Event.class);
-
-                if (event != null && event.getWaitlist() != null) {
-                    List<WaitlistEntrant> entrants = event.getWaitlist().getWaitlistEntrants();
-                    if (entrants != null) {
-                        entrants.remove(entrant);
-                        db.collection("events").document(eventDocId)
-                                .update("waitlist.waitlistEntrants", entrants)
-                                .addOnSuccessListener(aVoid -> {
-                                    Toast.makeText(this, "Entrant removed", Toast.LENGTH_SHORT).show();
-                                    loadWaitlistFromDatabase(eventId);
-                                    updateTitleCount(entrants.size());
-                                })
-                                .addOnFailureListener(e -> {
-                                    Toast.makeText(this, "Failed to remove entrant", Toast.LENGTH_SHORT).show();
-                                    Log.e("EventWaitlistActivity", "Failed to remove entrant", e);
-                                });
-                    }
-                }
-            }
+        EventIdResolver.getInstance().resolve(eventId, eventDocId ->
+                waitlistService.removeEntrant(eventDocId, entrant.getUserId(), () -> {
+                    Toast.makeText(this, "Entrant removed", Toast.LENGTH_SHORT).show();
+                    loadWaitlistFromDatabase(eventId);
+                }, e -> {
+                    Toast.makeText(this, "Failed to remove entrant", Toast.LENGTH_SHORT).show();
+                    Log.e("EventWaitlistActivity", "Failed to remove entrant", e);
+                }), e -> {
+            Toast.makeText(this, "Failed to load event data.", Toast.LENGTH_SHORT).show();
+            Log.e("EventWaitlistActivity", "Failed to load event", e);
         });
     }
 
@@ -395,56 +378,51 @@ public class EventWaitlistActivity extends AppCompatActivity {
      * Replaces the entrant with a random selection from available entrants
      */
     private void replaceEntrantWithRandom(WaitlistEntrant entrantToReplace) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        Query query = db.collection("events").whereEqualTo("uuid", eventId).limit(1);
-
-        query.get().addOnCompleteListener(task -> {
-            if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                String eventDocId = task.getResult().getDocuments().get(0).getId();
-                DocumentSnapshot document = task.getResult().getDocuments().get(0);
-                Event event = document.toObject(Event.class);
-
-                if (event != null && event.getWaitlist() != null) {
-                    List<WaitlistEntrant> allEntrants = event.getWaitlist().getWaitlistEntrants();
-                    
-                    // Find available entrants (status = "Not Selected" and not the one being replaced)
-                    List<WaitlistEntrant> availableEntrants = new ArrayList<>();
-                    for (WaitlistEntrant e : allEntrants) {
-                        if (e != null && Objects.equals(e.getStatus(), "Not Selected") && 
-                            !e.getUserId().equals(entrantToReplace.getUserId())) {
-                            availableEntrants.add(e);
-                        }
-                    }
-
-                    if (availableEntrants.isEmpty()) {
-                        Toast.makeText(this, "No available entrants to replace with", Toast.LENGTH_SHORT).show();
-                        return;
+        waitlistService.fetchEventWithEntrants(eventId, (document, event) -> {
+            String eventDocId = document.getId();
+
+            if (event != null && event.getWaitlist() != null) {
+                List<WaitlistEntrant> allEntrants = event.getWaitlist().getWaitlistEntrants();
+                
+                // Find available entrants (status = "Not Selected" and not the one being replaced)
+                List<WaitlistEntrant> availableEntrants = new ArrayList<>();
+                for (WaitlistEntrant e : allEntrants) {
+                    if (e != null && Objects.equals(e.getStatus(), "Not Selected") && 
+                        !e.getUserId().equals(entrantToReplace.getUserId())) {
+                        availableEntrants.add(e);
                     }
+                }
 
-                    // Randomly select one
-                    java.util.Collections.shuffle(availableEntrants);
-                    WaitlistEntrant replacement = availableEntrants.get(0);
-                    
-                    // Update: remove old, set replacement to "Pending"
-                    allEntrants.remove(entrantToReplace);
-                    replacement.setStatus("Pending");
-                    replacement.setSelectionDate(new Date());
-
-                            db.collection("events").document(eventDocId)
-                                    .update("waitlist.waitlistEntrants", allEntrants)
-                                    .addOnSuccessListener(aVoid -> {
-                                        Toast.makeText(this, "Entrant replaced with random selection", Toast.LENGTH_SHORT).show();
-                                        // Notify the replacement entrant
-                                        sendSelectionNotifications(java.util.Collections.singletonList(replacement), event.getUuid(), event.getTitle());
-                                        loadWaitlistFromDatabase(eventId);
-                                        updateTitleCount(allEntrants.size());
-                                    })
-                            .addOnFailureListener(e -> {
-                                Toast.makeText(this, "Failed to replace entrant", Toast.LENGTH_SHORT).show();
-                                Log.e("EventWaitlistActivity", "Failed to replace entrant", e);
-                            });
+                if (availableEntrants.isEmpty()) {
+                    Toast.makeText(this, "No available entrants to replace with", Toast.LENGTH_SHORT).show();
+                    return;
                 }
+
+                // Randomly select one
+                WaitlistLottery lottery = WaitlistLottery.resume(event.getWaitlist());
+                Log.i("EventWaitlistActivity", "Replacement draw for " + eventId + ": " + lottery.getMode()
+                        + ", seed " + lottery.getSeed() + ", " + availableEntrants.size() + " entrants");
+                WaitlistEntrant replacement = lottery.draw(availableEntrants, 1).get(0);
+                
+                // Update: remove old, set replacement to "Pending"
+                replacement.setStatus("Pending");
+                replacement.setSelectionDate(new Date());
+
+                Consumer<Exception> onReplaceFailed = e -> {
+                    Toast.makeText(this, "Failed to replace entrant", Toast.LENGTH_SHORT).show();
+                    Log.e("EventWaitlistActivity", "Failed to replace entrant", e);
+                };
+                waitlistService.removeEntrant(eventDocId, entrantToReplace.getUserId(), () ->
+                        waitlistService.updateEntrants(eventDocId, java.util.Collections.singletonList(replacement), () -> {
+                            Toast.makeText(this, "Entrant replaced with random selection", Toast.LENGTH_SHORT).show();
+                            // Notify the replacement entrant
+                            sendSelectionNotifications(java.util.Collections.singletonList(replacement), event.getUuid(), event.getTitle());
+                            loadWaitlistFromDatabase(eventId);
+                        }, onReplaceFailed), onReplaceFailed);
             }
+        }, e -> {
+            Toast.makeText(this, "Failed to load event data.", Toast.LENGTH_SHORT).show();
+            Log.e("EventWaitlistActivity", "Failed to load event", e);
         });
     }
 
@@ -455,18 +433,8 @@ public class EventWaitlistActivity extends AppCompatActivity {
      *   a random Not Selected entrant is set to "Pending" with a new selectionDate.
      */
     private void redrawPendingEntrants() {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        Query query = db.collection("events").whereEqualTo("uuid", eventId).limit(1);
-
-        query.get().addOnCompleteListener(task -> {
-            if (!task.isSuccessful() || task.getResult().isEmpty()) {
-                Toast.makeText(this, "Failed to load event for redraw.", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-            String eventDocId = task.getResult().getDocuments().get(0).getId();
-            DocumentSnapshot document = task.getResult().getDocuments().get(0);
-            Event event = document.toObject(Event.class);
+        waitlistService.fetchEventWithEntrants(eventId, (document, event) -> {
+            String eventDocId = document.getId();
 
             if (event == null || event.getWaitlist() == null) {
                 Toast.makeText(this, "Waitlist data is missing for this event.", Toast.LENGTH_SHORT).show();
@@ -507,29 +475,27 @@ public class EventWaitlistActivity extends AppCompatActivity {
                     createInvitationRevokedNotification(p, event);
                 }
 
-                db.collection("events").document(eventDocId)
-                        .update("waitlist.waitlistEntrants", entrants)
-                        .addOnSuccessListener(aVoid -> {
-                            Toast.makeText(this, "All Pending entrants marked as No Response (no replacements available).", Toast.LENGTH_SHORT).show();
-                            loadWaitlistFromDatabase(eventId);
-                        })
-                        .addOnFailureListener(e -> {
-                            Toast.makeText(this, "Failed to update entrants during redraw.", Toast.LENGTH_SHORT).show();
-                            Log.e("EventWaitlistActivity", "Redraw update failed", e);
-                        });
+                waitlistService.updateEntrants(eventDocId, pendingEntrants, () -> {
+                    Toast.makeText(this, "All Pending entrants marked as No Response (no replacements available).", Toast.LENGTH_SHORT).show();
+                    loadWaitlistFromDatabase(eventId);
+                }, e -> {
+                    Toast.makeText(this, "Failed to update entrants during redraw.", Toast.LENGTH_SHORT).show();
+                    Log.e("EventWaitlistActivity", "Redraw update failed", e);
+                });
                 return;
             }
 
-            // Randomize the order of Not Selected entrants
-            Collections.shuffle(notSelectedEntrants);
-
-            // Assign replacements for as many Pending entrants as possible
-            int pairs = Math.min(pendingEntrants.size(), notSelectedEntrants.size());
+            // Draw a replacement for as many Pending entrants as possible
+            WaitlistLottery lottery = WaitlistLottery.resume(event.getWaitlist());
+            Log.i("EventWaitlistActivity", "Redraw for " + eventId + ": " + lottery.getMode() + ", seed "
+                    + lottery.getSeed() + ", " + pendingEntrants.size() + " of " + notSelectedEntrants.size() + " entrants");
+            List<WaitlistEntrant> replacements = lottery.draw(notSelectedEntrants, pendingEntrants.size());
+            int pairs = replacements.size();
             Date now = new Date();
 
             for (int i = 0; i < pairs; i++) {
                 WaitlistEntrant pending = pendingEntrants.get(i);
-                WaitlistEntrant replacement = notSelectedEntrants.get(i);
+                WaitlistEntrant replacement = replacements.get(i);
 
                 // Old Pending entrant → No Response
                 pending.setStatus("No Response");
@@ -542,25 +508,25 @@ public class EventWaitlistActivity extends AppCompatActivity {
 
             // If there are more Pending entrants than replacements,
             // mark the remaining Pending entrants as No Response
-            if (pendingEntrants.size() > notSelectedEntrants.size()) {
-                for (int i = notSelectedEntrants.size(); i < pendingEntrants.size(); i++) {
+            if (pendingEntrants.size() > pairs) {
+                for (int i = pairs; i < pendingEntrants.size(); i++) {
                     WaitlistEntrant extraPending = pendingEntrants.get(i);
                     extraPending.setStatus("No Response");
                     createInvitationRevokedNotification(extraPending, event);
                 }
             }
 
-            db.collection("events").document(eventDocId)
-                    .update("waitlist.waitlistEntrants", entrants)
-                    .addOnSuccessListener(aVoid -> {
-                        Toast.makeText(this, "Redraw completed: Pending entrants updated.", Toast.LENGTH_SHORT).show();
-                        loadWaitlistFromDatabase(eventId);
-                    })
-                    .addOnFailureListener(e -> {
-                        Toast.makeText(this, "Failed to redraw entrants.", Toast.LENGTH_SHORT).show();
-                        Log.e("EventWaitlistActivity", "Redraw failed", e);
-                    });
-        });
+            // Only the pending entrants and their replacements changed
+            List<WaitlistEntrant> changed = new ArrayList<>(pendingEntrants);
+            changed.addAll(replacements);
+            waitlistService.updateEntrants(eventDocId, changed, () -> {
+                Toast.makeText(this, "Redraw completed: Pending entrants updated.", Toast.LENGTH_SHORT).show();
+                loadWaitlistFromDatabase(eventId);
+            }, e -> {
+                Toast.makeText(this, "Failed to redraw entrants.", Toast.LENGTH_SHORT).show();
+                Log.e("EventWaitlistActivity", "Redraw failed", e);
+            });
+        }, e -> Toast.makeText(this, "Failed to load event for redraw.", Toast.LENGTH_SHORT).show());
     }
 
 
@@ -12,27 +12,52 @@ import android.view.ViewGroup;
 import android.widget.ImageButton;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
-public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.VH> {
+public class EventsAdapter extends ListAdapter<Event, EventsAdapter.VH> {
+
+    /** Change payload for rows that only need their edit-mode controls refreshed */
+    private static final Object PAYLOAD_EDIT_MODE = new Object();
 
-    private List<Event> events = new ArrayList<>();
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.US);
+    private final StableIds stableIds = new StableIds();
     private boolean isEditMode = false;
     private OnDeleteClickListener deleteListener;
     private OnLongPressListener longPressListener;
     private OnItemClickListener itemClickListener;
 
+    private static final DiffUtil.ItemCallback<Event> DIFF = new DiffUtil.ItemCallback<Event>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+            return Objects.equals(oldItem.getUuid(), newItem.getUuid());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+            // Only the fields shown on the card
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getEventDate(), newItem.getEventDate())
+                    && Objects.equals(oldItem.getEventLocation(), newItem.getEventLocation())
+                    && Objects.equals(oldItem.getEventCity(), newItem.getEventCity())
+                    && Objects.equals(oldItem.getTotalSpots(), newItem.getTotalSpots());
+        }
+    };
+
     public interface OnItemClickListener {
         void onItemClick(Event event);
     }
 
-    public EventsAdapter(ArrayList<Event> displayedEvents) {
-        this.events = displayedEvents;
+    /** Creates an empty adapter; events are supplied through {@link #updateList(List)}. */
+    public EventsAdapter() {
+        super(DIFF);
+        setHasStableIds(true);
     }
 
     public interface OnDeleteClickListener {
@@ -55,14 +80,23 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.VH> {
     }
 
     public void setEditMode(boolean editMode) {
+        if (isEditMode == editMode) return;
         isEditMode = editMode;
-        notifyDataSetChanged();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_EDIT_MODE);
     }
 
+    /**
+     * Shows a new list of events. The list is copied and diffed by UUID in the background, so
+     * only inserted, removed and changed cards are redrawn.
+     * @param newList events to display
+     */
     public void updateList(List<Event> newList) {
-        events.clear();
-        events.addAll(newList);
-        notifyDataSetChanged();
+        submitList(newList == null ? null : new ArrayList<>(newList));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idOf(getItem(position).getUuid());
     }
 
     @NonNull @Override
@@ -72,22 +106,37 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.VH> {
         return new VH(v);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull VH h, int i, @NonNull List<Object> payloads) {
+        // A non-empty payload list only ever carries PAYLOAD_EDIT_MODE; content changes bind in full
+        if (!payloads.isEmpty()) {
+            bindEditMode(h, getItem(i));
+        } else {
+            onBindViewHolder(h, i);
+        }
+    }
+
     @Override
     public void onBindViewHolder(@NonNull VH h, int i) {
-        Event e = events.get(i);
+        Event e = getItem(i);
         h.tvTitle.setText(e.getTitle());
         h.tvDate.setText(dateFormat.format(e.getEventDate()));
         h.tvLocation.setText(e.getEventLocation() + ", " + e.getEventCity());
         h.tvSpots.setText(e.getTotalSpots() + " spots");
 
-        // delete button only in edit mode
-        h.btnDelete.setVisibility(isEditMode ? View.VISIBLE : View.GONE);
+        bindEditMode(h, e);
 
-        h.itemView.setOnClickListener(v -> {
-            if (itemClickListener != null) {
-                itemClickListener.onItemClick(e);
+        h.itemView.setOnLongClickListener(v -> {
+            if (longPressListener != null) {
+                longPressListener.onLongPress();
             }
+            return true;
         });
+    }
+
+    private void bindEditMode(@NonNull VH h, Event e) {
+        // delete button only in edit mode
+        h.btnDelete.setVisibility(isEditMode ? View.VISIBLE : View.GONE);
 
         if (isEditMode) {
             h.btnDelete.setOnClickListener(v -> {
@@ -97,18 +146,15 @@ public class EventsAdapter extends RecyclerView.Adapter<EventsAdapter.VH> {
             });
             // disable open-details click when editing
             h.itemView.setOnClickListener(null);
+        } else {
+            h.itemView.setOnClickListener(v -> {
+                if (itemClickListener != null) {
+                    itemClickListener.onItemClick(e);
+                }
+            });
         }
-
-        h.itemView.setOnLongClickListener(v -> {
-            if (longPressListener != null) {
-                longPressListener.onLongPress();
-            }
-            return true;
-        });
     }
 
-    @Override public int getItemCount() { return events.size(); }
-
     static class VH extends RecyclerView.ViewHolder {
         TextView tvTitle, tvDate, tvLocation, tvSpots;
         ImageButton btnDelete;
@@ -2,13 +2,13 @@ package com.example.carbon;
 
 /**
  * Utility service for performing event-related Firestore updates such as adding attendees.
- * Outstanding issues: does not currently handle retries or offline queuing.
+ * Outstanding issues: retries and offline queuing are left to callers, see {@link OperationJournal}.
  */
 
 import android.util.Log;
 
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
 
 import java.util.List;
 import java.util.function.Consumer;
@@ -17,45 +17,24 @@ public class FirebaseEventService {
     private final FirebaseFirestore db = FirebaseFirestore.getInstance();
 
     /**
-     * Adds a user ID to the attendee list given an event UUID
+     * Adds a user ID to the attendee list given an event UUID. The ID is added with arrayUnion,
+     * so concurrent additions are not lost and adding the same user twice changes nothing.
      *
-     * @param eventUuid The UUID of the event (not document ID)
+     * @param eventUuid The UUID of the event (a document ID is also accepted)
      * @param userId Firebase UID of the user who accepted the event
      * @param onSuccess Callback when the operation succeeds
      * @param onError Callback when the operation fails
      */
     public void addAttendee(String eventUuid, String userId, Runnable onSuccess, Consumer<Exception> onError) {
-        // Find event by UUID first
-        Query query = db.collection("events").whereEqualTo("uuid", eventUuid).limit(1);
-        query.get().addOnCompleteListener(task -> {
-            if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                String eventDocId = task.getResult().getDocuments().get(0).getId();
+        // Resolve the event document through the shared UUID cache
+        EventIdResolver.getInstance().resolve(eventUuid, eventDocId ->
                 db.collection("events").document(eventDocId)
-                        .get()
-                        .addOnSuccessListener(documentSnapshot -> {
-                            if (documentSnapshot.exists()) {
-                                Event event = documentSnapshot.toObject(Event.class);
-                                if (event != null) {
-                                    event.addAttendee(userId);
-                                    db.collection("events").document(eventDocId)
-                                            .update("attendeeList", event.getAttendeeList())
-                                            .addOnSuccessListener(Void -> {
-                                                Log.d("FirebaseEventService", "Attendee added: " + userId);
-                                                onSuccess.run();
-                                            })
-                                            .addOnFailureListener(onError::accept);
-                                } else {
-                                    onError.accept(new Exception("Event object is null"));
-                                }
-                            } else {
-                                onError.accept(new Exception("Event not found"));
-                            }
+                        .update("attendeeList", FieldValue.arrayUnion(userId))
+                        .addOnSuccessListener(Void -> {
+                            Log.d("FirebaseEventService", "Attendee added: " + userId);
+                            onSuccess.run();
                         })
-                        .addOnFailureListener(onError::accept);
-            } else {
-                onError.accept(new Exception("Event not found with UUID: " + eventUuid));
-            }
-        });
+                        .addOnFailureListener(onError::accept), onError);
     }
 
     /**
@@ -1,17 +1,22 @@
 package com.example.carbon;
 
+import android.os.SystemClock;
 import android.util.Log;
 
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.FirebaseFirestoreException;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
@@ -21,7 +26,12 @@ import java.util.function.Consumer;
  * are accepted or declined
  */
 public class FirebaseNotificationService implements NotificationService{
+    private static final String TAG = "FirebaseNotificationService";
+    // Set on a declined invitation until the replacement it owes has been drawn
+    static final String FIELD_REPLACEMENT_PENDING = "replacementPending";
     private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final EventIdResolver eventIds = EventIdResolver.getInstance();
+    private final FirebaseWaitlistService waitlistService = new FirebaseWaitlistService();
 
     /**
      * Fetches all notifications for a specific user from firestore
@@ -47,110 +57,143 @@ public class FirebaseNotificationService implements NotificationService{
 
     /**
      * Marks a notification as accepted and adds the user as an attendee for the related event.
+     * The notification, its log entry, the entrant status and the attendee list change in one
+     * transaction, see {@link #respond}.
      * @param notification the notification being accepted
      * @param onSuccess callback to run when the operation completes successfully
      * @param onError callback to handle any error that occurs
      */
     @Override
     public void markAsAccepted(Notification notification, Runnable onSuccess, Consumer<Exception> onError) {
-        db.collection("notifications").document(notification.getId())
-                .update("status", NotificationStatus.ACCEPTED.name())
-                .addOnSuccessListener(Void -> resolveEvent(notification,
-                        (eventDocId, eventUuid) -> {
-                            // Update notification log
-                            updateNotificationLog(notification.getId(), NotificationStatus.ACCEPTED);
-                            // Update waitlist entrant status to "Accepted"
-                            updateWaitlistEntrantStatus(eventUuid, notification.getUserId(), "Accepted");
-
-                            FirebaseEventService eventService = new FirebaseEventService();
-                            eventService.addAttendee(
-                                    eventDocId,
-                                    notification.getUserId(),
-                                    () -> {
-                                        Log.d("FirebaseNotificationService", "Attendee added for event " + eventUuid);
-                                        onSuccess.run();
-                                    },
-                                    e -> {
-                                        Log.e("FirebaseNotificationService", "Failed to add attendee", e);
-                                        onError.accept(e);
-                                    }
-                            );
-                        },
-                        onError))
-                .addOnFailureListener(onError::accept);
-
+        long start = SystemClock.elapsedRealtime();
+        respond(notification, NotificationStatus.ACCEPTED, "Accepted", true, false,
+                (eventDocId, eventUuid) -> {
+                    Log.i(TAG, "Accept committed in " + (SystemClock.elapsedRealtime() - start) + " ms for event " + eventUuid);
+                    onSuccess.run();
+                },
+                onSuccess, onError);
     }
 
     /**
-     * Marks a notification as declined and automatically selects a replacement entrant
+     * Marks a notification as declined and automatically selects a replacement entrant.
+     * The notification, its log entry and the entrant status change in one transaction, which
+     * also records on the notification that a replacement is owed. The replacement is drawn in a
+     * second transaction that clears that record, so a decline replayed after either step
+     * finishes the draw exactly once.
      * @param notification the declined notification
      * @param onSuccess callback to run when the update succeeds
      * @param onError callback to handle any errors
      */
     @Override
     public void markAsDeclined(Notification notification, Runnable onSuccess, Consumer<Exception> onError) {
-        db.collection("notifications").document(notification.getId())
-                .update("status", NotificationStatus.DECLINED.name())
-                .addOnSuccessListener(Void -> resolveEvent(notification,
-                        (eventDocId, eventUuid) -> {
-                            // Update notification log
-                            updateNotificationLog(notification.getId(), NotificationStatus.DECLINED);
-                            // Update waitlist entrant status to "Denied"
-                            updateWaitlistEntrantStatus(eventUuid, notification.getUserId(), "Denied");
-                            // Automatically select a replacement
-                            selectReplacementEntrant(eventUuid, notification.getEventName(), onSuccess, onError);
-                        },
-                        onError))
-                .addOnFailureListener(onError::accept);
+        long start = SystemClock.elapsedRealtime();
+        respond(notification, NotificationStatus.DECLINED, "Denied", false, true,
+                (eventDocId, eventUuid) -> {
+                    Log.i(TAG, "Decline committed in " + (SystemClock.elapsedRealtime() - start) + " ms for event " + eventUuid);
+                    // Automatically select a replacement
+                    selectReplacementEntrant(notification, eventDocId, eventUuid, onSuccess, onError);
+                },
+                // Already declined, but the replacement may not have been drawn yet
+                () -> resolveEvent(notification, (eventDocId, eventUuid) ->
+                        selectReplacementEntrant(notification, eventDocId, eventUuid, onSuccess, onError), onError),
+                onError);
     }
 
     /**
-     * Marks a notification as seen in Firestore
+     * Marks a notification as seen in Firestore, together with its log entry
      * @param notification the notification that is being marked as seen
      */
     @Override
     public void markAsSeen(Notification notification) {
-        db.collection("notifications").document(notification.getId())
-                .update("status", NotificationStatus.SEEN.name())
-                .addOnSuccessListener(Void -> {
-                    // Update notification log
-                    updateNotificationLog(notification.getId(), NotificationStatus.SEEN);
-                });
+        WriteBatch batch = db.batch();
+        batch.update(db.collection("notifications").document(notification.getId()),
+                "status", NotificationStatus.SEEN.name());
+        NotificationLog log = NotificationLog.of(notification.withStatus(NotificationStatus.SEEN), new Date());
+        batch.set(logOf(notification.getId()), log, SetOptions.merge());
+        batch.commit().addOnFailureListener(e -> Log.e(TAG, "Failed to mark notification as seen", e));
     }
 
     /**
-     * Updates the notification log when status changes
-     * @param notificationId the ID of the notification
-     * @param newStatus the new status
+     * Answers an invitation in a single transaction. The event document ID comes from the
+     * {@link EventIdResolver} cache and the log entry is keyed by the notification ID, so the only
+     * sequential round trips are the reads and the commit of the transaction. An entrant that
+     * already has the answered status, or a notification that does when the user is not on the
+     * waitlist, means the answer was stored before, so nothing is written again and answers can
+     * safely be retried.
+     * @param notification the invitation being answered
+     * @param status new status of the notification and its log entry
+     * @param entrantStatus new status of the waitlist entrant
+     * @param attend whether the user is added to the event's attendee list
+     * @param owesReplacement whether the answer leaves a replacement to be drawn, see
+     *                        {@link #FIELD_REPLACEMENT_PENDING}
+     * @param onCommitted callback with (eventDocId, eventUuid) once everything is stored
+     * @param onUnchanged callback when the invitation had already been answered this way
+     * @param onError callback for errors; nothing is written when the transaction fails
      */
-    private void updateNotificationLog(String notificationId, NotificationStatus newStatus) {
-        db.collection("notification_logs")
-                .whereEqualTo("notificationId", notificationId)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (!querySnapshot.isEmpty()) {
-                        // Update existing log
-                        querySnapshot.getDocuments().get(0).getReference()
-                                .update("status", newStatus.name(), "timestamp", new java.util.Date())
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d("FirebaseNotificationService", "Notification log updated: " + notificationId);
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e("FirebaseNotificationService", "Failed to update notification log", e);
-                                });
-                    } else {
-                        // Create new log entry if not found (shouldn't happen, but safety check)
-                        Log.w("FirebaseNotificationService", "Notification log not found for: " + notificationId);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e("FirebaseNotificationService", "Failed to find notification log", e);
-                });
+    private void respond(Notification notification, NotificationStatus status, String entrantStatus,
+                         boolean attend, boolean owesReplacement,
+                         BiConsumer<String, String> onCommitted, Runnable onUnchanged, Consumer<Exception> onError) {
+        String userId = notification.getUserId();
+        NotificationLog log = NotificationLog.of(notification.withStatus(status), new Date());
+        resolveEvent(notification, (eventDocId, eventUuid) -> waitlistService.whenMigrated(eventDocId,
+                () -> {
+                    DocumentReference notificationRef = db.collection("notifications").document(notification.getId());
+                    DocumentReference logRef = logOf(notification.getId());
+                    DocumentReference eventRef = db.collection("events").document(eventDocId);
+                    DocumentReference entrantRef = waitlistService.entrantsOf(eventDocId).document(userId);
+                    db.runTransaction(transaction -> {
+                        DocumentSnapshot entrant = transaction.get(entrantRef);
+                        boolean onWaitlist = entrant.exists();
+                        if (onWaitlist && entrantStatus.equals(entrant.getString("status"))) {
+                            return false;
+                        }
+                        if (!onWaitlist && status.name().equals(transaction.get(notificationRef).getString("status"))) {
+                            return false;
+                        }
+                        if (owesReplacement) {
+                            transaction.update(notificationRef, "status", status.name(), FIELD_REPLACEMENT_PENDING, true);
+                        } else {
+                            transaction.update(notificationRef, "status", status.name());
+                        }
+                        transaction.set(logRef, log, SetOptions.merge());
+                        if (onWaitlist) {
+                            waitlistService.updateEntrantStatus(transaction, eventDocId, userId, entrantStatus);
+                        } else {
+                            Log.w(TAG, "User " + userId + " is not on the waitlist of " + eventUuid);
+                        }
+                        if (attend) {
+                            transaction.update(eventRef, "attendeeList", FieldValue.arrayUnion(userId));
+                        }
+                        return true;
+                    })
+                            .addOnSuccessListener(applied -> {
+                                if (applied) {
+                                    onCommitted.accept(eventDocId, eventUuid);
+                                } else {
+                                    Log.i(TAG, "Notification " + notification.getId() + " was already answered");
+                                    onUnchanged.run();
+                                }
+                            })
+                            .addOnFailureListener(e -> {
+                                Log.e(TAG, "Failed to answer notification " + notification.getId(), e);
+                                onError.accept(e);
+                            });
+                },
+                onError), onError);
+    }
+
+    /**
+     * @return the log entry of a notification, stored under the notification's ID. Entries are
+     * written with merge so notifications logged before this scheme get a keyed entry on their
+     * next status change.
+     */
+    private DocumentReference logOf(String notificationId) {
+        return db.collection(NotificationLog.COLLECTION).document(notificationId);
     }
 
     /**
-     * Sends a new notification to Firestore and logs it.
+     * Sends a new notification to Firestore and logs it. The notification ID is generated up
+     * front so the notification and its log entry are written in one batch.
      *
      * @param notification the notification to send
      * @param onSuccess callback to run when successfully saved
@@ -158,201 +201,124 @@ public class FirebaseNotificationService implements NotificationService{
      */
     @Override
     public void sendNotification(Notification notification, Runnable onSuccess, Consumer<Exception> onError) {
-        db.collection("notifications")
-                .add(notification)
-                .addOnSuccessListener(documentReference -> {
-                    notification.setId(documentReference.getId());
-                    // Log the notification
-                    logNotification(notification);
-                    onSuccess.run();
-                })
+        DocumentReference notificationRef = db.collection("notifications").document();
+        notification.setId(notificationRef.getId());
+        WriteBatch batch = db.batch();
+        batch.set(notificationRef, notification);
+        batch.set(logOf(notification.getId()), NotificationLog.of(notification, notification.getCreated_at()));
+        batch.commit()
+                .addOnSuccessListener(v -> onSuccess.run())
                 .addOnFailureListener(onError::accept);
     }
 
     /**
-     * Updates the waitlist entrant status for a user in an event
-     * @param eventUuid the event UUID
-     * @param userId the user ID
-     * @param newStatus the new status ("Denied" or "Accepted")
+     * Sends many notifications with their log entries in chunked batches, see {@link NotificationFanout}.
+     * @param notifications the notifications to send; their IDs are assigned before writing
+     * @param onComplete receives the aggregated result once every chunk has finished
      */
-    private void updateWaitlistEntrantStatus(String eventUuid, String userId, String newStatus) {
-        // Find the event by UUID
-        // First try by UUID field
-        db.collection("events")
-                .whereEqualTo("uuid", eventUuid)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (!querySnapshot.isEmpty()) {
-                        String eventDocId = querySnapshot.getDocuments().get(0).getId();
-                        updateEntrantStatusOnDoc(eventDocId, userId, newStatus);
-                    } else {
-                        // Fallback: treat eventUuid as document ID
-                        db.collection("events").document(eventUuid)
-                                .get()
-                                .addOnSuccessListener(documentSnapshot -> {
-                                    if (documentSnapshot.exists()) {
-                                        updateEntrantStatusOnDoc(documentSnapshot.getId(), userId, newStatus);
-                                    } else {
-                                        Log.e("FirebaseNotificationService", "Event not found with UUID/doc: " + eventUuid);
-                                    }
-                                })
-                                .addOnFailureListener(e -> Log.e("FirebaseNotificationService", "Failed to get event doc by id", e));
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e("FirebaseNotificationService", "Failed to find event", e);
-                });
+    public void sendNotifications(List<Notification> notifications, Consumer<NotificationFanout.Result> onComplete) {
+        new NotificationFanout().send(notifications, null, onComplete);
     }
 
-    private void updateEntrantStatusOnDoc(String eventDocId, String userId, String newStatus) {
-        db.collection("events").document(eventDocId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    Event event = documentSnapshot.toObject(Event.class);
-                    if (event != null && event.getWaitlist() != null) {
-                        List<WaitlistEntrant> entrants = event.getWaitlist().getWaitlistEntrants();
-                        if (entrants != null) {
-                            for (WaitlistEntrant entrant : entrants) {
-                                if (entrant != null && entrant.getUserId().equals(userId)) {
-                                    entrant.setStatus(newStatus);
-                                    if ("Pending".equals(newStatus)) {
-                                        entrant.setSelectionDate(new Date());
-                                    }
-                                    break;
-                                }
-                            }
-                            db.collection("events").document(eventDocId)
-                                    .update("waitlist.waitlistEntrants", entrants)
-                                    .addOnSuccessListener(aVoid -> Log.d("FirebaseNotificationService",
-                                            "Waitlist entrant status updated to " + newStatus + " for user " + userId))
-                                    .addOnFailureListener(e -> Log.e("FirebaseNotificationService", "Failed to update waitlist entrant status", e));
-                        }
-                    }
-                })
-                .addOnFailureListener(e -> Log.e("FirebaseNotificationService", "Failed to get event document", e));
+    /**
+     * Maps a fan-out result to the success/error callbacks used by the broadcast methods
+     */
+    private void reportFanout(NotificationFanout.Result result, Runnable onSuccess, Consumer<Exception> onError) {
+        if (result.isComplete()) {
+            onSuccess.run();
+        } else {
+            onError.accept(new Exception(result.getFailedCount() + " of " + result.getTotal()
+                    + " notifications could not be sent", result.getLastError()));
+        }
     }
 
     /**
      * Selects a replacement entrant from the waitlist when someone declines
-     * Prevents duplicate selection by only selecting entrants with "Not Selected" status
+     * Prevents duplicate selection by only selecting entrants with "Not Selected" status. The
+     * draw, the replacement's status, its notification and the cleared
+     * {@link #FIELD_REPLACEMENT_PENDING} record of the declined invitation are written in one
+     * transaction, which writes nothing when the replacement was drawn before. A replacement that
+     * stopped being "Not Selected" in the meantime aborts the transaction, so the caller retries
+     * it with a fresh draw.
+     * @param declined the declined invitation
+     * @param eventDocId Firestore document ID of the event
      * @param eventUuid the event UUID
-     * @param eventName the event name
-     * @param onSuccess callback when replacement is selected
+     * @param onSuccess callback when replacement is selected, or none is owed or available
      * @param onError callback for errors
      */
-    private void selectReplacementEntrant(String eventUuid, String eventName, Runnable onSuccess, Consumer<Exception> onError) {
-        // Find the event by UUID
-        db.collection("events")
-                .whereEqualTo("uuid", eventUuid)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (!querySnapshot.isEmpty()) {
-                        String eventDocId = querySnapshot.getDocuments().get(0).getId();
-                        DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                        Event event = document.toObject(Event.class);
-
-                        if (event != null && event.getWaitlist() != null) {
-                            List<WaitlistEntrant> allEntrants = event.getWaitlist().getWaitlistEntrants();
-                            
-                            if (allEntrants == null || allEntrants.isEmpty()) {
-                                Log.d("FirebaseNotificationService", "No entrants available for replacement");
-                                onSuccess.run();
-                                return;
-                            }
-
-                            // Filter to only "Not Selected" entrants (prevents duplicate selection)
-                            List<WaitlistEntrant> availableEntrants = new ArrayList<>();
-                            for (WaitlistEntrant entrant : allEntrants) {
-                                if (entrant != null && Objects.equals(entrant.getStatus(), "Not Selected")) {
-                                    availableEntrants.add(entrant);
-                                }
-                            }
-
-                            if (availableEntrants.isEmpty()) {
-                                Log.d("FirebaseNotificationService", "No available entrants for replacement");
-                                onSuccess.run();
-                                return;
-                            }
-
-                            // Randomly select one replacement entrant
-                            Collections.shuffle(availableEntrants);
-                            WaitlistEntrant replacement = availableEntrants.get(0);
-                            
-                            // Update status to "Pending"
-                            replacement.setStatus("Pending");
-                            replacement.setSelectionDate(new Date());
-
-                            // Update the event in Firestore
-                            db.collection("events").document(eventDocId)
-                                    .update("waitlist.waitlistEntrants", allEntrants)
-                                    .addOnSuccessListener(aVoid -> {
-                                        // Send notification to replacement entrant
-                                        Notification replacementNotification = new Notification(
-                                                null, // id will be set by Firebase
-                                                replacement.getUserId(),
-                                                eventUuid,
-                                                eventName,
-                                                "You have been selected for the event: " + eventName + ". Please accept or decline.",
-                                                NotificationStatus.UNREAD,
-                                                new Date(),
-                                                "chosen" // type for chosen entrants
-                                        );
-
-                                        sendNotification(replacementNotification,
-                                                () -> {
-                                                    Log.d("FirebaseNotificationService", "Replacement notification sent to " + replacement.getUserId());
-                                                    onSuccess.run();
-                                                },
-                                                e -> {
-                                                    Log.e("FirebaseNotificationService", "Failed to send replacement notification", e);
-                                                    onError.accept(e);
-                                                }
-                                        );
-                                    })
-                                    .addOnFailureListener(e -> {
-                                        Log.e("FirebaseNotificationService", "Failed to update waitlist with replacement", e);
-                                        onError.accept(e);
-                                    });
+    private void selectReplacementEntrant(Notification declined, String eventDocId, String eventUuid,
+                                          Runnable onSuccess, Consumer<Exception> onError) {
+        String eventName = declined.getEventName();
+        DocumentReference declinedRef = db.collection("notifications").document(declined.getId());
+        waitlistService.fetchEventWithEntrants(eventUuid, (document, event) -> {
+            List<WaitlistEntrant> availableEntrants = new ArrayList<>();
+            if (event != null && event.getWaitlist() != null && event.getWaitlist().getWaitlistEntrants() != null) {
+                // Filter to only "Not Selected" entrants (prevents duplicate selection)
+                for (WaitlistEntrant entrant : event.getWaitlist().getWaitlistEntrants()) {
+                    if (entrant != null && Objects.equals(entrant.getStatus(), "Not Selected")) {
+                        availableEntrants.add(entrant);
+                    }
+                }
+            }
+
+            WaitlistEntrant replacement = null;
+            if (!availableEntrants.isEmpty()) {
+                // Randomly select one replacement entrant
+                WaitlistLottery lottery = WaitlistLottery.resume(event.getWaitlist());
+                Log.i(TAG, "Replacement draw for " + eventUuid + ": " + lottery.getMode()
+                        + ", seed " + lottery.getSeed() + ", " + availableEntrants.size() + " entrants");
+                replacement = lottery.draw(availableEntrants, 1).get(0);
+            } else {
+                Log.d(TAG, "No available entrants for replacement");
+            }
+
+            DocumentReference replacementRef = db.collection("notifications").document();
+            Notification replacementNotification = replacement == null ? null : new Notification(
+                    replacementRef.getId(),
+                    replacement.getUserId(),
+                    eventUuid,
+                    eventName,
+                    "You have been selected for the event: " + eventName + ". Please accept or decline.",
+                    NotificationStatus.UNREAD,
+                    new Date(),
+                    "chosen" // type for chosen entrants
+            );
+            DocumentReference entrantRef = replacement == null ? null
+                    : waitlistService.entrantsOf(eventDocId).document(replacement.getUserId());
+
+            db.runTransaction(transaction -> {
+                if (!Boolean.TRUE.equals(transaction.get(declinedRef).getBoolean(FIELD_REPLACEMENT_PENDING))) {
+                    return false;
+                }
+                if (replacementNotification != null) {
+                    if (!"Not Selected".equals(transaction.get(entrantRef).getString("status"))) {
+                        throw new FirebaseFirestoreException("Replacement was selected concurrently",
+                                FirebaseFirestoreException.Code.ABORTED);
+                    }
+                    waitlistService.updateEntrantStatus(transaction, eventDocId, replacementNotification.getUserId(), "Pending");
+                    transaction.set(replacementRef, replacementNotification);
+                    transaction.set(logOf(replacementRef.getId()),
+                            NotificationLog.of(replacementNotification, replacementNotification.getCreated_at()));
+                }
+                transaction.update(declinedRef, FIELD_REPLACEMENT_PENDING, FieldValue.delete());
+                return replacementNotification != null;
+            })
+                    .addOnSuccessListener(drawn -> {
+                        if (drawn) {
+                            Log.d(TAG, "Replacement notification sent to " + replacementNotification.getUserId());
                         } else {
-                            Log.d("FirebaseNotificationService", "Event or waitlist not found");
-                            onSuccess.run();
+                            Log.i(TAG, "No replacement drawn for notification " + declined.getId());
                         }
-                    } else {
-                        Log.e("FirebaseNotificationService", "Event not found with UUID: " + eventUuid);
-                        onError.accept(new Exception("Event not found"));
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e("FirebaseNotificationService", "Failed to find event for replacement", e);
-                    onError.accept(e);
-                });
-    }
-
-    /**
-     * Logs a notification with its status and timestamp to the notification_logs collection
-     * @param notification the notification to log
-     */
-    private void logNotification(Notification notification) {
-        NotificationLog log = new NotificationLog(
-                notification.getId(),
-                notification.getUserId(),
-                notification.getEventId(),
-                notification.getEventName(),
-                notification.getStatus(),
-                notification.getCreated_at(),
-                notification.getType()
-        );
-
-        db.collection("notification_logs")
-                .add(log)
-                .addOnSuccessListener(documentReference -> {
-                    Log.d("FirebaseNotificationService", "Notification logged: " + documentReference.getId());
-                })
-                .addOnFailureListener(e -> {
-                    Log.e("FirebaseNotificationService", "Failed to log notification", e);
-                });
+                        onSuccess.run();
+                    })
+                    .addOnFailureListener(e -> {
+                        Log.e(TAG, "Failed to select a replacement for notification " + declined.getId(), e);
+                        onError.accept(e);
+                    });
+        }, e -> {
+            Log.e(TAG, "Failed to find event for replacement", e);
+            onError.accept(e);
+        });
     }
 
     /**
@@ -364,7 +330,7 @@ public class FirebaseNotificationService implements NotificationService{
      * @param onError error callback
      */
     private void resolveEvent(Notification notification,
-                              java.util.function.BiConsumer<String, String> onResolved,
+                              BiConsumer<String, String> onResolved,
                               Consumer<Exception> onError) {
         String eventId = notification.getEventId();
         if (eventId == null || eventId.isEmpty()) {
@@ -372,32 +338,7 @@ public class FirebaseNotificationService implements NotificationService{
             return;
         }
 
-        // Try lookup by UUID field
-        db.collection("events")
-                .whereEqualTo("uuid", eventId)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (!querySnapshot.isEmpty()) {
-                        String eventDocId = querySnapshot.getDocuments().get(0).getId();
-                        onResolved.accept(eventDocId, eventId);
-                    } else {
-                        // Fallback: treat eventId as document ID
-                        db.collection("events").document(eventId)
-                                .get()
-                                .addOnSuccessListener(doc -> {
-                                    if (doc.exists()) {
-                                        Event event = doc.toObject(Event.class);
-                                        String uuid = event != null && event.getUuid() != null ? event.getUuid() : eventId;
-                                        onResolved.accept(doc.getId(), uuid);
-                                    } else {
-                                        onError.accept(new Exception("Event not found with ID or UUID: " + eventId));
-                                    }
-                                })
-                                .addOnFailureListener(onError::accept);
-                    }
-                })
-                .addOnFailureListener(onError::accept);
+        eventIds.resolve(eventId, eventDocId -> onResolved.accept(eventDocId, eventId), onError);
     }
 
     /**
@@ -409,81 +350,42 @@ public class FirebaseNotificationService implements NotificationService{
      */
     public void broadcastNotificationToWaitlist(String eventUuid, String message, Runnable onSuccess, Consumer<Exception> onError) {
         // Find the event by UUID
-        db.collection("events")
-                .whereEqualTo("uuid", eventUuid)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (!querySnapshot.isEmpty()) {
-                        DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                        Event event = document.toObject(Event.class);
+        waitlistService.fetchEventWithEntrants(eventUuid, (document, event) -> {
 
-                        if (event != null && event.getWaitlist() != null) {
-                            List<WaitlistEntrant> allEntrants = event.getWaitlist().getWaitlistEntrants();
-                            
-                            if (allEntrants == null || allEntrants.isEmpty()) {
-                                Log.d("FirebaseNotificationService", "No entrants in waitlist to broadcast to");
-                                onSuccess.run();
-                                return;
-                            }
-
-                            // Send notification to all waitlist entrants
-                            int[] successCount = {0};
-                            int[] failCount = {0};
-                            int totalEntrants = allEntrants.size();
-                            
-                            for (WaitlistEntrant entrant : allEntrants) {
-                                if (entrant != null && entrant.getUserId() != null) {
-                                    Notification broadcastNotification = new Notification(
-                                            null, // id will be set by Firebase
-                                            entrant.getUserId(),
-                                            eventUuid,
-                                            event.getTitle(),
-                                            message,
-                                            NotificationStatus.UNREAD,
-                                            new Date(),
-                                            "broadcast" // type for broadcast notifications
-                                    );
-
-                                    sendNotification(broadcastNotification,
-                                            () -> {
-                                                successCount[0]++;
-                                                if (successCount[0] + failCount[0] == totalEntrants) {
-                                                    Log.d("FirebaseNotificationService", 
-                                                            "Broadcast complete: " + successCount[0] + " sent, " + failCount[0] + " failed");
-                                                    onSuccess.run();
-                                                }
-                                            },
-                                            e -> {
-                                                failCount[0]++;
-                                                Log.e("FirebaseNotificationService", "Failed to send broadcast to " + entrant.getUserId(), e);
-                                                if (successCount[0] + failCount[0] == totalEntrants) {
-                                                    Log.d("FirebaseNotificationService", 
-                                                            "Broadcast complete: " + successCount[0] + " sent, " + failCount[0] + " failed");
-                                                    onSuccess.run();
-                                                }
-                                            }
-                                    );
-                                } else {
-                                    failCount[0]++;
-                                    if (successCount[0] + failCount[0] == totalEntrants) {
-                                        onSuccess.run();
-                                    }
-                                }
-                            }
-                        } else {
-                            Log.d("FirebaseNotificationService", "Event or waitlist not found");
-                            onError.accept(new Exception("Event or waitlist not found"));
-                        }
-                    } else {
-                        Log.e("FirebaseNotificationService", "Event not found with UUID: " + eventUuid);
-                        onError.accept(new Exception("Event not found"));
+            if (event != null && event.getWaitlist() != null) {
+                List<WaitlistEntrant> allEntrants = event.getWaitlist().getWaitlistEntrants();
+                
+                if (allEntrants == null || allEntrants.isEmpty()) {
+                    Log.d("FirebaseNotificationService", "No entrants in waitlist to broadcast to");
+                    onSuccess.run();
+                    return;
+                }
+
+                // Send notification to all waitlist entrants in batched chunks
+                List<Notification> broadcast = new ArrayList<>();
+                for (WaitlistEntrant entrant : allEntrants) {
+                    if (entrant != null && entrant.getUserId() != null) {
+                        broadcast.add(new Notification(
+                                null, // id is assigned by the fan-out
+                                entrant.getUserId(),
+                                eventUuid,
+                                event.getTitle(),
+                                message,
+                                NotificationStatus.UNREAD,
+                                new Date(),
+                                "broadcast" // type for broadcast notifications
+                        ));
                     }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e("FirebaseNotificationService", "Failed to find event for broadcast", e);
-                    onError.accept(e);
-                });
+                }
+                sendNotifications(broadcast, result -> reportFanout(result, onSuccess, onError));
+            } else {
+                Log.d("FirebaseNotificationService", "Event or waitlist not found");
+                onError.accept(new Exception("Event or waitlist not found"));
+            }
+        }, e -> {
+            Log.e("FirebaseNotificationService", "Failed to find event for broadcast", e);
+            onError.accept(e);
+        });
     }
 
     /**
@@ -495,88 +397,54 @@ public class FirebaseNotificationService implements NotificationService{
      */
     public void broadcastNotificationToSelected(String eventUuid, String message, Runnable onSuccess, Consumer<Exception> onError) {
         // Find the event by UUID
-        db.collection("events")
-                .whereEqualTo("uuid", eventUuid)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (!querySnapshot.isEmpty()) {
-                        DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                        Event event = document.toObject(Event.class);
-
-                        if (event != null && event.getWaitlist() != null) {
-                            List<WaitlistEntrant> allEntrants = event.getWaitlist().getWaitlistEntrants();
-                            
-                            if (allEntrants == null || allEntrants.isEmpty()) {
-                                Log.d("FirebaseNotificationService", "No entrants in waitlist to broadcast to");
-                                onSuccess.run();
-                                return;
-                            }
+        waitlistService.fetchEventWithEntrants(eventUuid, (document, event) -> {
 
-                            // Filter to only selected entrants (status != "Not Selected")
-                            List<WaitlistEntrant> selectedEntrants = new ArrayList<>();
-                            for (WaitlistEntrant entrant : allEntrants) {
-                                if (entrant != null && entrant.getUserId() != null && 
-                                    !Objects.equals(entrant.getStatus(), "Not Selected")) {
-                                    selectedEntrants.add(entrant);
-                                }
-                            }
-
-                            if (selectedEntrants.isEmpty()) {
-                                Log.d("FirebaseNotificationService", "No selected entrants to broadcast to");
-                                onSuccess.run();
-                                return;
-                            }
-
-                            // Send notification to all selected entrants
-                            int[] successCount = {0};
-                            int[] failCount = {0};
-                            int totalEntrants = selectedEntrants.size();
-                            
-                            for (WaitlistEntrant entrant : selectedEntrants) {
-                                Notification broadcastNotification = new Notification(
-                                        null, // id will be set by Firebase
-                                        entrant.getUserId(),
-                                        eventUuid,
-                                        event.getTitle(),
-                                        message,
-                                        NotificationStatus.UNREAD,
-                                        new Date(),
-                                        "reminder" // type for reminder notifications
-                                );
-
-                                sendNotification(broadcastNotification,
-                                        () -> {
-                                            successCount[0]++;
-                                            if (successCount[0] + failCount[0] == totalEntrants) {
-                                                Log.d("FirebaseNotificationService", 
-                                                        "Broadcast to selected complete: " + successCount[0] + " sent, " + failCount[0] + " failed");
-                                                onSuccess.run();
-                                            }
-                                        },
-                                        e -> {
-                                            failCount[0]++;
-                                            Log.e("FirebaseNotificationService", "Failed to send reminder to " + entrant.getUserId(), e);
-                                            if (successCount[0] + failCount[0] == totalEntrants) {
-                                                Log.d("FirebaseNotificationService", 
-                                                        "Broadcast to selected complete: " + successCount[0] + " sent, " + failCount[0] + " failed");
-                                                onSuccess.run();
-                                            }
-                                        }
-                                );
-                            }
-                        } else {
-                            Log.d("FirebaseNotificationService", "Event or waitlist not found");
-                            onError.accept(new Exception("Event or waitlist not found"));
-                        }
-                    } else {
-                        Log.e("FirebaseNotificationService", "Event not found with UUID: " + eventUuid);
-                        onError.accept(new Exception("Event not found"));
+            if (event != null && event.getWaitlist() != null) {
+                List<WaitlistEntrant> allEntrants = event.getWaitlist().getWaitlistEntrants();
+                
+                if (allEntrants == null || allEntrants.isEmpty()) {
+                    Log.d("FirebaseNotificationService", "No entrants in waitlist to broadcast to");
+                    onSuccess.run();
+                    return;
+                }
+
+                // Filter to only selected entrants (status != "Not Selected")
+                List<WaitlistEntrant> selectedEntrants = new ArrayList<>();
+                for (WaitlistEntrant entrant : allEntrants) {
+                    if (entrant != null && entrant.getUserId() != null && 
+                        !Objects.equals(entrant.getStatus(), "Not Selected")) {
+                        selectedEntrants.add(entrant);
                     }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e("FirebaseNotificationService", "Failed to find event for broadcast", e);
-                    onError.accept(e);
-                });
+                }
+
+                if (selectedEntrants.isEmpty()) {
+                    Log.d("FirebaseNotificationService", "No selected entrants to broadcast to");
+                    onSuccess.run();
+                    return;
+                }
+
+                // Send notification to all selected entrants in batched chunks
+                List<Notification> reminders = new ArrayList<>();
+                for (WaitlistEntrant entrant : selectedEntrants) {
+                    reminders.add(new Notification(
+                            null, // id is assigned by the fan-out
+                            entrant.getUserId(),
+                            eventUuid,
+                            event.getTitle(),
+                            message,
+                            NotificationStatus.UNREAD,
+                            new Date(),
+                            "reminder" // type for reminder notifications
+                    ));
+                }
+                sendNotifications(reminders, result -> reportFanout(result, onSuccess, onError));
+            } else {
+                Log.d("FirebaseNotificationService", "Event or waitlist not found");
+                onError.accept(new Exception("Event or waitlist not found"));
+            }
+        }, e -> {
+            Log.e("FirebaseNotificationService", "Failed to find event for broadcast", e);
+            onError.accept(e);
+        });
     }
 }
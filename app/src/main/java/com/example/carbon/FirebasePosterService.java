@@ -0,0 +1,278 @@
+package com.example.carbon;
+
+/**
+ * Firestore access for the posters manifest. Every poster uploaded to the event_posters/ folder
+ * in Storage has one document in the "posters" collection, keyed by its Storage file name, that
+ * holds its download URLs, event, uploader and upload time. The admin gallery pages over the
+ * manifest instead of listing Storage and resolving one download URL per file.
+ * Outstanding issues: posters uploaded before the manifest existed only appear after
+ * {@link #reconcile} has run once; files deleted from Storage by other means keep their manifest
+ * entry.
+ */
+
+import android.net.Uri;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.ListResult;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+public class FirebasePosterService {
+    private static final String TAG = "FirebasePosterService";
+    static final String COLLECTION = "posters";
+    static final String FOLDER = "event_posters";
+    // Firestore caps a write batch at 500 operations
+    private static final int MAX_BATCH_WRITES = 500;
+    // Marks the one-time reconcile as done for every device
+    private static final String MAINTENANCE_COLLECTION = "maintenance";
+    private static final String RECONCILE_DOC = "posterManifest";
+    // Length of a UUID string, the prefix of posters uploaded from the event details screen
+    private static final int UUID_LENGTH = 36;
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final FirebaseStorage storage = FirebaseStorage.getInstance();
+
+    // Callback interface for one page of the manifest
+    public interface PosterPageCallback {
+        void onPageFetched(List<Poster> posters, DocumentSnapshot lastDocument, boolean hasMore);
+        void onError(Exception e);
+    }
+
+    /**
+     * Builds the manifest entry of a freshly uploaded poster; the timestamp is set by the server.
+     * @param imageUrl download URL of the full-size image
+     * @param thumbnailUrl download URL of the list thumbnail, may be null
+     * @param eventId UUID of the event the poster belongs to
+     * @param uploadedBy user ID of the uploader
+     * @return the entry to pass to {@link #record}
+     */
+    public static Poster newPoster(String imageUrl, String thumbnailUrl, String eventId, String uploadedBy) {
+        Poster poster = new Poster();
+        poster.setImageUrl(imageUrl);
+        poster.setThumbnailUrl(thumbnailUrl);
+        poster.setEventId(eventId);
+        poster.setUploadedBy(uploadedBy);
+        return poster;
+    }
+
+    /**
+     * Adds a poster to the manifest.
+     * @param poster entry built by {@link #newPoster}
+     * @param onSuccess callback when the entry is written
+     * @param onError callback for failures
+     */
+    public void record(Poster poster, Runnable onSuccess, Consumer<Exception> onError) {
+        db.collection(COLLECTION).document(manifestIdOf(poster))
+                .set(poster)
+                .addOnSuccessListener(v -> onSuccess.run())
+                .addOnFailureListener(onError::accept);
+    }
+
+    /**
+     * Adds a poster to the manifest as part of a larger batch, e.g. the one creating its event.
+     * @param batch batch to add the write to
+     * @param poster entry built by {@link #newPoster}
+     */
+    public void record(WriteBatch batch, Poster poster) {
+        batch.set(db.collection(COLLECTION).document(manifestIdOf(poster)), poster);
+    }
+
+    /**
+     * Asynchronously fetches one page of the manifest, newest uploads first.
+     * @param startAfter The last document of the previous page, or null for the first page.
+     * @param pageSize Maximum number of posters in the page.
+     * @param callback The callback to be invoked when the fetch is complete or fails.
+     */
+    public void fetchPage(DocumentSnapshot startAfter, int pageSize, PosterPageCallback callback) {
+        Query query = db.collection(COLLECTION)
+                .orderBy("timestamp", Query.Direction.DESCENDING)
+                .limit(pageSize);
+        if (startAfter != null) {
+            query = query.startAfter(startAfter);
+        }
+        query.get()
+                .addOnSuccessListener(querySnapshot -> {
+                    List<DocumentSnapshot> documents = querySnapshot.getDocuments();
+                    List<Poster> posters = new ArrayList<>();
+                    for (DocumentSnapshot document : documents) {
+                        Poster poster = document.toObject(Poster.class);
+                        if (poster != null && poster.getImageUrl() != null) {
+                            posters.add(poster);
+                        }
+                    }
+                    DocumentSnapshot last = documents.isEmpty() ? startAfter : documents.get(documents.size() - 1);
+                    callback.onPageFetched(posters, last, documents.size() == pageSize);
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Error getting posters.", e);
+                    callback.onError(e);
+                });
+    }
+
+    /**
+     * Deletes a poster's image, its thumbnail and its manifest entry. A thumbnail that cannot be
+     * deleted is only logged.
+     * @param poster poster read from the manifest
+     * @param onSuccess callback when the image and entry are gone
+     * @param onError callback for failures
+     */
+    public void delete(Poster poster, Runnable onSuccess, Consumer<Exception> onError) {
+        String manifestId = poster.getId() != null ? poster.getId() : manifestIdOf(poster);
+        storage.getReferenceFromUrl(poster.getImageUrl()).delete()
+                .onSuccessTask(v -> {
+                    if (poster.getThumbnailUrl() != null) {
+                        storage.getReferenceFromUrl(poster.getThumbnailUrl()).delete()
+                                .addOnFailureListener(e -> Log.w(TAG, "Failed to delete poster thumbnail", e));
+                    }
+                    return db.collection(COLLECTION).document(manifestId).delete();
+                })
+                .addOnSuccessListener(v -> onSuccess.run())
+                .addOnFailureListener(onError::accept);
+    }
+
+    /**
+     * Adds manifest entries for posters in Storage that have none, e.g. those uploaded before the
+     * manifest existed. This runs once: a run that recorded every missing poster is marked in
+     * Firestore and later calls only read that mark. A run that had to skip posters whose URLs
+     * could not be read leaves no mark, so the next call retries them. Uploads since the manifest
+     * was introduced record themselves.
+     * @param onComplete receives the number of entries added, 0 when the reconcile already ran
+     * @param onError callback for failures; the reconcile is retried on the next call
+     */
+    public void reconcile(Consumer<Integer> onComplete, Consumer<Exception> onError) {
+        DocumentReference done = db.collection(MAINTENANCE_COLLECTION).document(RECONCILE_DOC);
+        done.get()
+                .addOnSuccessListener(doc -> {
+                    if (doc.exists()) {
+                        onComplete.accept(0);
+                        return;
+                    }
+                    reconcileStorage((added, skipped) -> {
+                        if (skipped > 0) {
+                            Log.w(TAG, skipped + " posters could not be recorded; reconcile stays pending");
+                            onComplete.accept(added);
+                            return;
+                        }
+                        done.set(Collections.singletonMap("reconciledAt", FieldValue.serverTimestamp()))
+                                .addOnSuccessListener(v -> onComplete.accept(added))
+                                .addOnFailureListener(onError::accept);
+                    }, onError);
+                })
+                .addOnFailureListener(onError::accept);
+    }
+
+    /**
+     * Lists Storage and the whole manifest and records the posters missing from it.
+     * @param onComplete receives the number of entries added and of posters skipped
+     */
+    private void reconcileStorage(BiConsumer<Integer, Integer> onComplete, Consumer<Exception> onError) {
+        StorageReference folder = storage.getReference().child(FOLDER);
+        Task<ListResult> listing = folder.listAll();
+        Task<QuerySnapshot> manifest = db.collection(COLLECTION).get();
+        Tasks.whenAllSuccess(listing, manifest)
+                .addOnSuccessListener(results -> {
+                    Set<String> names = new HashSet<>();
+                    for (StorageReference item : listing.getResult().getItems()) {
+                        names.add(item.getName());
+                    }
+                    Set<String> recorded = new HashSet<>();
+                    for (DocumentSnapshot doc : manifest.getResult().getDocuments()) {
+                        recorded.add(doc.getId());
+                    }
+
+                    List<Task<Poster>> missing = new ArrayList<>();
+                    for (StorageReference item : listing.getResult().getItems()) {
+                        String name = item.getName();
+                        if (ImageIngestor.isThumbnailName(name) || recorded.contains(name)) continue;
+                        String thumbnailName = ImageIngestor.thumbnailNameOf(name);
+                        StorageReference thumbnail = names.contains(thumbnailName) ? folder.child(thumbnailName) : null;
+                        missing.add(describe(item, thumbnail));
+                    }
+                    Tasks.whenAllComplete(missing)
+                            .addOnSuccessListener(done -> writeMissing(missing, onComplete, onError));
+                })
+                .addOnFailureListener(onError::accept);
+    }
+
+    /** Reads a legacy poster's URLs and upload time from Storage. */
+    private Task<Poster> describe(StorageReference image, StorageReference thumbnail) {
+        Task<Uri> imageUri = image.getDownloadUrl();
+        Task<Uri> thumbnailUri = thumbnail != null ? thumbnail.getDownloadUrl() : Tasks.forResult(null);
+        Task<StorageMetadata> metadata = image.getMetadata();
+        return Tasks.whenAllSuccess(imageUri, thumbnailUri, metadata).continueWith(task -> {
+            Poster poster = new Poster();
+            poster.setImageUrl(imageUri.getResult().toString());
+            poster.setThumbnailUrl(thumbnailUri.getResult() != null ? thumbnailUri.getResult().toString() : null);
+            poster.setEventId(eventIdFromFileName(image.getName()));
+            poster.setTimestamp(new Timestamp(new Date(metadata.getResult().getCreationTimeMillis())));
+            return poster;
+        });
+    }
+
+    private void writeMissing(List<Task<Poster>> missing, BiConsumer<Integer, Integer> onComplete,
+                              Consumer<Exception> onError) {
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = db.batch();
+        int inBatch = 0;
+        int added = 0;
+        int skipped = 0;
+        for (Task<Poster> task : missing) {
+            if (!task.isSuccessful()) {
+                // A file whose URL cannot be read is left for the next run
+                Log.w(TAG, "Skipping poster during reconcile", task.getException());
+                skipped++;
+                continue;
+            }
+            record(batch, task.getResult());
+            added++;
+            if (++inBatch == MAX_BATCH_WRITES) {
+                commits.add(batch.commit());
+                batch = db.batch();
+                inBatch = 0;
+            }
+        }
+        if (inBatch > 0) {
+            commits.add(batch.commit());
+        }
+        int total = added;
+        int unreadable = skipped;
+        Tasks.whenAll(commits)
+                .addOnSuccessListener(v -> onComplete.accept(total, unreadable))
+                .addOnFailureListener(onError::accept);
+    }
+
+    private String manifestIdOf(Poster poster) {
+        return storage.getReferenceFromUrl(poster.getImageUrl()).getName();
+    }
+
+    /**
+     * @param fileName Storage file name of a poster
+     * @return the event UUID for posters named "{eventUuid}-{random}.jpg", otherwise null
+     */
+    static String eventIdFromFileName(String fileName) {
+        if (fileName.length() > UUID_LENGTH && fileName.charAt(UUID_LENGTH) == '-') {
+            return fileName.substring(0, UUID_LENGTH);
+        }
+        return null;
+    }
+}
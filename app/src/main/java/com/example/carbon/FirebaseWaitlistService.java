@@ -0,0 +1,661 @@
+package com.example.carbon;
+
+/**
+ * Reads and writes waitlist entrants for an event. New events keep one document per entrant under
+ * events/{eventDocId}/entrants/{userId} so a join, leave or status change touches a single small
+ * document instead of rewriting the whole waitlistEntrants array. Legacy events that still embed
+ * the array are read as-is and migrated the first time an entrant is written through this service.
+ * Every entrant write also maintains the user's users/{userId}/participations index, see
+ * {@link Participation}, in the same transaction or batch.
+ * Outstanding issues: events created before the index existed are only indexed once
+ * backfillParticipations has run; until then they are missing from history and upcoming events.
+ */
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.TransactionOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+public class FirebaseWaitlistService {
+    private static final String TAG = "FirebaseWaitlistService";
+    private static final String ENTRANTS = "entrants";
+    private static final String PARTICIPATIONS = "participations";
+    // Firestore allows 500 writes per batch; leave room for the event document update
+    private static final int BATCH_LIMIT = 450;
+    // Each entrant write is paired with a participations write
+    private static final int ENTRANTS_PER_BATCH = BATCH_LIMIT / 2;
+    // Waitlists are capped at five entrants per available spot
+    static final int MAX_ENTRANTS_PER_SPOT = 5;
+    // Bounded retries for join/leave; the SDK backs off between attempts when the event document is contended
+    private static final TransactionOptions JOIN_LEAVE_OPTIONS = new TransactionOptions.Builder()
+            .setMaxAttempts(5)
+            .build();
+
+    // Event documents already known to use the subcollection, so writes can skip the migration check
+    private static final Set<String> migratedEvents = Collections.synchronizedSet(new HashSet<>());
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+
+    /**
+     * @param eventDocId Firestore document ID of the event
+     * @return the entrants subcollection of the event
+     */
+    public CollectionReference entrantsOf(String eventDocId) {
+        return db.collection("events").document(eventDocId).collection(ENTRANTS);
+    }
+
+    /**
+     * @param userId entrant identifier
+     * @return the participations index of the user
+     */
+    public CollectionReference participationsOf(String userId) {
+        return db.collection("users").document(userId).collection(PARTICIPATIONS);
+    }
+
+    /**
+     * Fetches an event by UUID (or document ID) and fills in its waitlist entrants from whichever
+     * storage the event uses, so callers can keep reading event.getWaitlist().getWaitlistEntrants().
+     * @param eventKey event UUID, or a document ID for legacy callers
+     * @param onFetched receives the event document and the converted event (null if conversion failed)
+     * @param onError receives {@link EventIdResolver.EventNotFoundException} or the Firestore failure
+     */
+    public void fetchEventWithEntrants(String eventKey, BiConsumer<DocumentSnapshot, Event> onFetched,
+                                       Consumer<Exception> onError) {
+        EventIdResolver.getInstance().fetch(eventKey, document -> {
+            Event event = document.toObject(Event.class);
+            if (event == null || event.getWaitlist() == null) {
+                onFetched.accept(document, event);
+                return;
+            }
+            fetchEntrants(document.getId(), event.getWaitlist(),
+                    entrants -> onFetched.accept(document, event), onError);
+        }, onError);
+    }
+
+    /**
+     * Receives an event read under a {@link ReadPolicy}.
+     */
+    public interface EventReadCallback {
+        /**
+         * @param document the event document
+         * @param event the converted event with its entrants, null if conversion failed
+         * @param stale true when both come from the local cache and may be out of date
+         */
+        void onFetched(DocumentSnapshot document, Event event, boolean stale);
+    }
+
+    /**
+     * Fetches an event with its entrants for display: a cached copy is delivered right away and
+     * then replaced by the server copy, according to the screen's policy. Entrants are read from
+     * the same source as the event document so both are equally fresh. Use the overload without
+     * a policy before writing based on what was read.
+     * @param eventKey event UUID, or a document ID for legacy callers
+     * @param policy staleness budget of the calling screen
+     * @param onFetched receives the event, possibly twice: cached, then fresh
+     * @param onError receives {@link EventIdResolver.EventNotFoundException} or the Firestore failure
+     */
+    public void fetchEventWithEntrants(String eventKey, ReadPolicy policy, EventReadCallback onFetched,
+                                       Consumer<Exception> onError) {
+        EventIdResolver.getInstance().fetch(eventKey, policy, (document, stale) -> {
+            Event event = document.toObject(Event.class);
+            if (event == null || event.getWaitlist() == null) {
+                onFetched.onFetched(document, event, stale);
+                return;
+            }
+            Source source = document.getMetadata().isFromCache() ? Source.CACHE : Source.SERVER;
+            fetchEntrants(document.getId(), event.getWaitlist(), source,
+                    entrants -> onFetched.onFetched(document, event, stale),
+                    e -> {
+                        if (stale) {
+                            // The server read of the event follows and reports its own failure
+                            Log.w(TAG, "Cached entrants unavailable for " + document.getId(), e);
+                        } else {
+                            onError.accept(e);
+                        }
+                    });
+        }, onError);
+    }
+
+    /**
+     * Loads the entrants of a waitlist and stores them on it via setWaitlistEntrants.
+     * @param eventDocId Firestore document ID of the event
+     * @param waitlist waitlist read from the event document
+     * @param onLoaded receives the entrants; never null
+     * @param onError receives the Firestore failure
+     */
+    public void fetchEntrants(String eventDocId, Waitlist waitlist, Consumer<List<WaitlistEntrant>> onLoaded,
+                              Consumer<Exception> onError) {
+        fetchEntrants(eventDocId, waitlist, Source.DEFAULT, onLoaded, onError);
+    }
+
+    /**
+     * Loads the entrants of a waitlist for display under a {@link ReadPolicy}: cached entrants are
+     * delivered right away and then replaced by the server's. Unlike the other overloads this
+     * does not store them on the waitlist, so it can be used with events shared through the
+     * {@link EventStore}.
+     * @param eventDocId Firestore document ID of the event
+     * @param waitlist waitlist read from the event document
+     * @param policy staleness budget of the calling screen
+     * @param onLoaded receives the entrants, possibly twice: cached, then fresh
+     * @param onError receives the Firestore failure when nothing could be read
+     */
+    public void fetchEntrants(String eventDocId, Waitlist waitlist, ReadPolicy policy,
+                              ReadPolicy.Listener<List<WaitlistEntrant>> onLoaded, Consumer<Exception> onError) {
+        if (!waitlist.usesEntrantSubcollection()) {
+            List<WaitlistEntrant> embedded = waitlist.getWaitlistEntrants();
+            onLoaded.onResult(embedded != null ? embedded : new ArrayList<>(), false);
+            return;
+        }
+        migratedEvents.add(eventDocId);
+        CollectionReference entrants = entrantsOf(eventDocId);
+        policy.read(entrants, entrants.getPath(), (querySnapshot, stale) ->
+                onLoaded.onResult(new ArrayList<>(querySnapshot.toObjects(WaitlistEntrant.class)), stale), onError);
+    }
+
+    private void fetchEntrants(String eventDocId, Waitlist waitlist, Source source,
+                               Consumer<List<WaitlistEntrant>> onLoaded, Consumer<Exception> onError) {
+        if (!waitlist.usesEntrantSubcollection()) {
+            if (waitlist.getWaitlistEntrants() == null) {
+                waitlist.setWaitlistEntrants(new ArrayList<>());
+            }
+            onLoaded.accept(waitlist.getWaitlistEntrants());
+            return;
+        }
+        migratedEvents.add(eventDocId);
+        entrantsOf(eventDocId)
+                .get(source)
+                .addOnSuccessListener(querySnapshot -> {
+                    List<WaitlistEntrant> entrants = new ArrayList<>(querySnapshot.toObjects(WaitlistEntrant.class));
+                    waitlist.setWaitlistEntrants(entrants);
+                    onLoaded.accept(entrants);
+                })
+                .addOnFailureListener(onError::accept);
+    }
+
+    /**
+     * Fetches the user's participations in events that have not happened yet, soonest first.
+     * @param userId entrant identifier
+     * @param onLoaded receives the participations
+     * @param onError receives the Firestore failure
+     */
+    public void fetchUpcomingParticipations(String userId, Consumer<List<Participation>> onLoaded,
+                                            Consumer<Exception> onError) {
+        fetchParticipations(participationsOf(userId)
+                .whereGreaterThan("eventDate", new Date())
+                .orderBy("eventDate"), onLoaded, onError);
+    }
+
+    /**
+     * Fetches the user's participations in events that already happened, most recent first.
+     * @param userId entrant identifier
+     * @param onLoaded receives the participations
+     * @param onError receives the Firestore failure
+     */
+    public void fetchPastParticipations(String userId, Consumer<List<Participation>> onLoaded,
+                                        Consumer<Exception> onError) {
+        fetchParticipations(participationsOf(userId)
+                .whereLessThan("eventDate", new Date())
+                .orderBy("eventDate", Query.Direction.DESCENDING), onLoaded, onError);
+    }
+
+    private void fetchParticipations(Query query, Consumer<List<Participation>> onLoaded, Consumer<Exception> onError) {
+        query.get()
+                .addOnSuccessListener(querySnapshot -> onLoaded.accept(querySnapshot.toObjects(Participation.class)))
+                .addOnFailureListener(onError::accept);
+    }
+
+    /**
+     * Adds an entrant in a transaction that re-checks the opening/deadline window, the capacity
+     * (Waitlist.maxLimit and five entrants per spot) and duplicates against the server state.
+     * A rejected join fails with a {@link FirebaseFirestoreException} whose message can be shown
+     * to the user: FAILED_PRECONDITION outside the window, RESOURCE_EXHAUSTED when full and
+     * ALREADY_EXISTS when the user is already on the waitlist.
+     * @param eventDocId Firestore document ID of the event
+     * @param entrant entrant to add
+     * @param onSuccess callback when the entrant is stored
+     * @param onError callback for errors
+     */
+    public void addEntrant(String eventDocId, WaitlistEntrant entrant, Runnable onSuccess, Consumer<Exception> onError) {
+        ensureMigrated(eventDocId, () -> {
+            DocumentReference eventRef = db.collection("events").document(eventDocId);
+            DocumentReference entrantRef = entrantsOf(eventDocId).document(entrant.getUserId());
+            db.runTransaction(JOIN_LEAVE_OPTIONS, transaction -> {
+                DocumentSnapshot event = transaction.get(eventRef);
+                if (transaction.get(entrantRef).exists()) {
+                    throw new FirebaseFirestoreException("You are already on the waitlist",
+                            FirebaseFirestoreException.Code.ALREADY_EXISTS);
+                }
+                checkJoinAllowed(event);
+                transaction.set(entrantRef, entrant);
+                transaction.set(participationsOf(entrant.getUserId()).document(eventDocId),
+                        participationFor(event, entrant.getStatus()));
+                transaction.update(eventRef, "waitlist.entrantCount", FieldValue.increment(1));
+                return null;
+            })
+                    .addOnSuccessListener(result -> onSuccess.run())
+                    .addOnFailureListener(onError::accept);
+        }, onError);
+    }
+
+    /**
+     * Throws when the event document does not accept another entrant right now.
+     */
+    private static void checkJoinAllowed(DocumentSnapshot event) throws FirebaseFirestoreException {
+        if (!event.exists()) {
+            throw new FirebaseFirestoreException("Event no longer exists", FirebaseFirestoreException.Code.NOT_FOUND);
+        }
+        Date now = new Date();
+        Date opening = event.getDate("waitlist.opening");
+        Date deadline = event.getDate("waitlist.deadline");
+        if (opening != null && now.before(opening)) {
+            throw new FirebaseFirestoreException("The waitlist is not open yet",
+                    FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+        }
+        if (deadline != null && now.after(deadline)) {
+            throw new FirebaseFirestoreException("The waitlist has closed",
+                    FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+        }
+
+        Long count = event.getLong("waitlist.entrantCount");
+        long entrants = count != null ? count : 0;
+        Long maxLimit = event.getLong("waitlist.maxLimit");
+        Long spots = event.getLong("totalSpots");
+        boolean full = (maxLimit != null && maxLimit > 0 && entrants >= maxLimit)
+                || (spots != null && spots > 0 && entrants >= spots * MAX_ENTRANTS_PER_SPOT);
+        if (full) {
+            throw new FirebaseFirestoreException("Waitlist is full for this event",
+                    FirebaseFirestoreException.Code.RESOURCE_EXHAUSTED);
+        }
+    }
+
+    /**
+     * Removes an entrant; succeeds without changes if the user is not on the waitlist.
+     * @param eventDocId Firestore document ID of the event
+     * @param userId entrant identifier
+     * @param onSuccess callback when the entrant is gone
+     * @param onError callback for errors
+     */
+    public void removeEntrant(String eventDocId, String userId, Runnable onSuccess, Consumer<Exception> onError) {
+        ensureMigrated(eventDocId, () -> {
+            DocumentReference eventRef = db.collection("events").document(eventDocId);
+            DocumentReference entrantRef = entrantsOf(eventDocId).document(userId);
+            db.runTransaction(JOIN_LEAVE_OPTIONS, transaction -> {
+                if (transaction.get(entrantRef).exists()) {
+                    transaction.delete(entrantRef);
+                    transaction.delete(participationsOf(userId).document(eventDocId));
+                    transaction.update(eventRef, "waitlist.entrantCount", FieldValue.increment(-1));
+                }
+                return null;
+            })
+                    .addOnSuccessListener(result -> onSuccess.run())
+                    .addOnFailureListener(onError::accept);
+        }, onError);
+    }
+
+    /**
+     * Writes the status, selection date and cancellation reason of the given entrants, one small
+     * update per entrant plus its participation status. Entrants that were removed in the meantime
+     * make the write fail.
+     * @param eventDocId Firestore document ID of the event
+     * @param changed entrants whose state changed
+     * @param onSuccess callback when all updates are stored
+     * @param onError callback for errors
+     */
+    public void updateEntrants(String eventDocId, List<WaitlistEntrant> changed, Runnable onSuccess,
+                               Consumer<Exception> onError) {
+        updateEntrants(eventDocId, changed, null, onSuccess, onError);
+    }
+
+    /**
+     * Writes the entrants selected by a lottery draw, see
+     * {@link #updateEntrants(String, List, Runnable, Consumer)}. The mode, seed and registration
+     * span of the draw are stored on the event in the same batch as the first winners, so
+     * replacement draws continue it and a draw whose winners could not be written leaves the
+     * previous draw in place.
+     * @param eventDocId Firestore document ID of the event
+     * @param changed entrants whose state changed
+     * @param lottery the draw that selected them, or null
+     * @param onSuccess callback when all updates are stored
+     * @param onError callback for errors
+     */
+    public void updateEntrants(String eventDocId, List<WaitlistEntrant> changed, WaitlistLottery lottery,
+                               Runnable onSuccess, Consumer<Exception> onError) {
+        if (changed.isEmpty()) {
+            onSuccess.run();
+            return;
+        }
+        ensureMigrated(eventDocId, () -> {
+            List<Task<Void>> commits = new ArrayList<>();
+            WriteBatch batch = db.batch();
+            int pending = 0;
+            if (lottery != null) {
+                batch.update(db.collection("events").document(eventDocId),
+                        "waitlist.lotteryMode", lottery.getMode(),
+                        "waitlist.lotterySeed", lottery.getSeed(),
+                        "waitlist.lotteryFirstRegistration", lottery.getFirstRegistration(),
+                        "waitlist.lotteryLastRegistration", lottery.getLastRegistration());
+                // Counts as one entrant so the first batch stays within the write limit
+                pending = 1;
+            }
+            for (WaitlistEntrant entrant : changed) {
+                batch.update(entrantsOf(eventDocId).document(entrant.getUserId()),
+                        "status", entrant.getStatus(),
+                        "selectionDate", entrant.getSelectionDate(),
+                        "cancellationReason", entrant.getCancellationReason());
+                batch.set(participationsOf(entrant.getUserId()).document(eventDocId),
+                        participationStatus(eventDocId, entrant.getStatus()), SetOptions.merge());
+                if (++pending == ENTRANTS_PER_BATCH) {
+                    commits.add(batch.commit());
+                    batch = db.batch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                commits.add(batch.commit());
+            }
+            Tasks.whenAll(commits)
+                    .addOnSuccessListener(aVoid -> onSuccess.run())
+                    .addOnFailureListener(onError::accept);
+        }, onError);
+    }
+
+    /**
+     * Updates the status of a single entrant, stamping the selection date when moved to "Pending".
+     * @param eventDocId Firestore document ID of the event
+     * @param userId entrant identifier
+     * @param newStatus the new status
+     * @param onSuccess callback when the update is stored
+     * @param onError callback for errors
+     */
+    public void updateEntrantStatus(String eventDocId, String userId, String newStatus, Runnable onSuccess,
+                                    Consumer<Exception> onError) {
+        ensureMigrated(eventDocId, () -> {
+            DocumentReference entrantRef = entrantsOf(eventDocId).document(userId);
+            WriteBatch batch = db.batch();
+            if ("Pending".equals(newStatus)) {
+                batch.update(entrantRef, "status", newStatus, "selectionDate", new Date());
+            } else {
+                batch.update(entrantRef, "status", newStatus);
+            }
+            batch.set(participationsOf(userId).document(eventDocId),
+                    participationStatus(eventDocId, newStatus), SetOptions.merge());
+            batch.commit()
+                    .addOnSuccessListener(aVoid -> onSuccess.run())
+                    .addOnFailureListener(onError::accept);
+        }, onError);
+    }
+
+    /**
+     * Adds a single entrant's status change and its participation index to a transaction, for
+     * callers that change other documents atomically with it. The event must already store its
+     * entrants in the subcollection, see {@link #whenMigrated}.
+     * @param transaction transaction to add the writes to
+     * @param eventDocId Firestore document ID of the event
+     * @param userId entrant identifier
+     * @param newStatus the new status
+     */
+    public void updateEntrantStatus(Transaction transaction, String eventDocId, String userId, String newStatus) {
+        DocumentReference entrantRef = entrantsOf(eventDocId).document(userId);
+        if ("Pending".equals(newStatus)) {
+            transaction.update(entrantRef, "status", newStatus, "selectionDate", new Date());
+        } else {
+            transaction.update(entrantRef, "status", newStatus);
+        }
+        transaction.set(participationsOf(userId).document(eventDocId),
+                participationStatus(eventDocId, newStatus), SetOptions.merge());
+    }
+
+    /**
+     * Runs onReady once the event stores its entrants in the subcollection, migrating it first if
+     * needed. Events already seen by this service are not read again.
+     * @param eventDocId Firestore document ID of the event
+     * @param onReady callback when the entrants can be written
+     * @param onError callback for errors
+     */
+    public void whenMigrated(String eventDocId, Runnable onReady, Consumer<Exception> onError) {
+        ensureMigrated(eventDocId, onReady, onError);
+    }
+
+    /**
+     * Migrates every event that still embeds its entrants, one event at a time.
+     * @param onComplete receives the number of events examined
+     * @param onError callback for the first failure; events before it stay migrated
+     */
+    public void migrateLegacyEvents(Consumer<Integer> onComplete, Consumer<Exception> onError) {
+        db.collection("events")
+                .get()
+                .addOnSuccessListener(querySnapshot -> {
+                    List<String> eventDocIds = new ArrayList<>();
+                    for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
+                        eventDocIds.add(doc.getId());
+                    }
+                    migrateSequentially(eventDocIds, 0, onComplete, onError);
+                })
+                .addOnFailureListener(onError::accept);
+    }
+
+    private void migrateSequentially(List<String> eventDocIds, int index, Consumer<Integer> onComplete,
+                                     Consumer<Exception> onError) {
+        if (index >= eventDocIds.size()) {
+            onComplete.accept(eventDocIds.size());
+            return;
+        }
+        ensureMigrated(eventDocIds.get(index),
+                () -> migrateSequentially(eventDocIds, index + 1, onComplete, onError),
+                onError);
+    }
+
+    /**
+     * Runs onReady once the event stores its entrants in the subcollection, migrating it first if needed.
+     */
+    private void ensureMigrated(String eventDocId, Runnable onReady, Consumer<Exception> onError) {
+        if (migratedEvents.contains(eventDocId)) {
+            onReady.run();
+            return;
+        }
+        DocumentReference eventRef = db.collection("events").document(eventDocId);
+        eventRef.get()
+                .addOnSuccessListener(doc -> {
+                    Event event = doc.toObject(Event.class);
+                    Waitlist waitlist = event != null ? event.getWaitlist() : null;
+                    if (waitlist == null) {
+                        onError.accept(new Exception("Waitlist missing for event " + eventDocId));
+                    } else if (waitlist.usesEntrantSubcollection()) {
+                        migratedEvents.add(eventDocId);
+                        onReady.run();
+                    } else {
+                        migrate(doc, waitlist.getWaitlistEntrants(), onReady, onError);
+                    }
+                })
+                .addOnFailureListener(onError::accept);
+    }
+
+    /**
+     * Copies the embedded entrants into the subcollection in batches, then flips the event to
+     * subcollection storage in a transaction that also applies any joins, leaves or status changes
+     * made to the array while the copy was running.
+     */
+    private void migrate(DocumentSnapshot eventDoc, List<WaitlistEntrant> embedded, Runnable onReady,
+                         Consumer<Exception> onError) {
+        DocumentReference eventRef = eventDoc.getReference();
+        Map<String, WaitlistEntrant> copied = byUserId(embedded);
+        CollectionReference entrants = eventRef.collection(ENTRANTS);
+
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = db.batch();
+        int pending = 0;
+        for (WaitlistEntrant entrant : copied.values()) {
+            batch.set(entrants.document(entrant.getUserId()), entrant);
+            batch.set(participationsOf(entrant.getUserId()).document(eventRef.getId()),
+                    participationFor(eventDoc, entrant.getStatus()));
+            if (++pending == ENTRANTS_PER_BATCH) {
+                commits.add(batch.commit());
+                batch = db.batch();
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            commits.add(batch.commit());
+        }
+
+        Transaction.Function<Void> switchStorage = transaction -> {
+            DocumentSnapshot current = transaction.get(eventRef);
+            Event event = current.toObject(Event.class);
+            Waitlist waitlist = event != null ? event.getWaitlist() : null;
+            if (waitlist == null || waitlist.usesEntrantSubcollection()) {
+                return null; // another client finished the migration first
+            }
+            Map<String, WaitlistEntrant> latest = byUserId(waitlist.getWaitlistEntrants());
+            for (WaitlistEntrant entrant : latest.values()) {
+                if (!sameState(copied.get(entrant.getUserId()), entrant)) {
+                    transaction.set(entrants.document(entrant.getUserId()), entrant);
+                    transaction.set(participationsOf(entrant.getUserId()).document(eventRef.getId()),
+                            participationFor(current, entrant.getStatus()));
+                }
+            }
+            for (String userId : copied.keySet()) {
+                if (!latest.containsKey(userId)) {
+                    transaction.delete(entrants.document(userId));
+                    transaction.delete(participationsOf(userId).document(eventRef.getId()));
+                }
+            }
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("waitlist.entrantStorage", Waitlist.STORAGE_SUBCOLLECTION);
+            updates.put("waitlist.entrantCount", latest.size());
+            updates.put("waitlist.participationsIndexed", true);
+            updates.put("waitlist.waitlistEntrants", FieldValue.delete());
+            transaction.update(eventRef, updates);
+            return null;
+        };
+
+        Tasks.whenAll(commits)
+                .continueWithTask(copy -> copy.isSuccessful()
+                        ? db.runTransaction(switchStorage)
+                        : Tasks.<Void>forException(copy.getException()))
+                .addOnSuccessListener(result -> {
+                    migratedEvents.add(eventRef.getId());
+                    Log.d(TAG, "Migrated entrants of event " + eventRef.getId());
+                    onReady.run();
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to migrate entrants of event " + eventRef.getId(), e);
+                    onError.accept(e);
+                });
+    }
+
+    /**
+     * Writes participations for the entrants of every event that was migrated before the index
+     * existed, one event at a time, and flags each event once it is indexed. Legacy events that still
+     * embed their entrants are indexed as part of their migration instead.
+     * @param onComplete receives the number of events that were indexed
+     * @param onError callback for the first failure; events before it stay indexed
+     */
+    public void backfillParticipations(Consumer<Integer> onComplete, Consumer<Exception> onError) {
+        db.collection("events")
+                .whereEqualTo("waitlist.entrantStorage", Waitlist.STORAGE_SUBCOLLECTION)
+                .get()
+                .addOnSuccessListener(querySnapshot -> {
+                    List<DocumentSnapshot> pending = new ArrayList<>();
+                    for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
+                        if (!Boolean.TRUE.equals(doc.getBoolean("waitlist.participationsIndexed"))) {
+                            pending.add(doc);
+                        }
+                    }
+                    backfillSequentially(pending, 0, onComplete, onError);
+                })
+                .addOnFailureListener(onError::accept);
+    }
+
+    private void backfillSequentially(List<DocumentSnapshot> events, int index, Consumer<Integer> onComplete,
+                                      Consumer<Exception> onError) {
+        if (index >= events.size()) {
+            onComplete.accept(events.size());
+            return;
+        }
+        DocumentSnapshot eventDoc = events.get(index);
+        entrantsOf(eventDoc.getId())
+                .get()
+                .continueWithTask(read -> {
+                    if (!read.isSuccessful()) return Tasks.<Void>forException(read.getException());
+                    List<Task<Void>> commits = new ArrayList<>();
+                    WriteBatch batch = db.batch();
+                    int pending = 0;
+                    for (WaitlistEntrant entrant : read.getResult().toObjects(WaitlistEntrant.class)) {
+                        if (entrant.getUserId() == null || entrant.getUserId().isEmpty()) continue;
+                        batch.set(participationsOf(entrant.getUserId()).document(eventDoc.getId()),
+                                participationFor(eventDoc, entrant.getStatus()));
+                        if (++pending == BATCH_LIMIT) {
+                            commits.add(batch.commit());
+                            batch = db.batch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        commits.add(batch.commit());
+                    }
+                    return Tasks.whenAll(commits);
+                })
+                .onSuccessTask(written -> eventDoc.getReference().update("waitlist.participationsIndexed", true))
+                .addOnSuccessListener(aVoid -> backfillSequentially(events, index + 1, onComplete, onError))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to index participations of event " + eventDoc.getId(), e);
+                    onError.accept(e);
+                });
+    }
+
+    private static Participation participationFor(DocumentSnapshot eventDoc, String status) {
+        return new Participation(eventDoc.getId(), eventDoc.getString("uuid"), status, eventDoc.getDate("eventDate"));
+    }
+
+    /** Partial participation for a status change, merged into the existing entry. */
+    private static Map<String, Object> participationStatus(String eventDocId, String status) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("eventDocId", eventDocId);
+        fields.put("status", status);
+        fields.put("updatedAt", new Date());
+        return fields;
+    }
+
+    private static Map<String, WaitlistEntrant> byUserId(List<WaitlistEntrant> entrants) {
+        Map<String, WaitlistEntrant> byId = new LinkedHashMap<>();
+        if (entrants == null) return byId;
+        for (WaitlistEntrant entrant : entrants) {
+            if (entrant != null && entrant.getUserId() != null && !entrant.getUserId().isEmpty()) {
+                byId.put(entrant.getUserId(), entrant);
+            }
+        }
+        return byId;
+    }
+
+    private static boolean sameState(WaitlistEntrant a, WaitlistEntrant b) {
+        return a != null && b != null
+                && Objects.equals(a.getStatus(), b.getStatus())
+                && Objects.equals(a.getSelectionDate(), b.getSelectionDate())
+                && Objects.equals(a.getCancellationReason(), b.getCancellationReason());
+    }
+}
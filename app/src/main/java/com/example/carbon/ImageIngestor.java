@@ -0,0 +1,253 @@
+package com.example.carbon;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Prepares picked images for upload instead of sending the original file. An image is decoded
+ * with an inSampleSize that keeps it at least as large as the target, rotated upright from its
+ * EXIF orientation, scaled so its longer edge fits the target and compressed to JPEG. Posters are
+ * uploaded twice: a full-size image for detail screens and a small thumbnail, stored next to it
+ * with a "_thumb" suffix, for lists. Decoding runs on a background thread.
+ * Outstanding issues: JPEG is used rather than WebP because lossy WebP encoding needs API 30;
+ * posters uploaded before this change have no thumbnail and lists fall back to the original.
+ */
+public class ImageIngestor {
+    private static final String TAG = "ImageIngestor";
+    static final int POSTER_MAX_EDGE = 1600;
+    static final int THUMBNAIL_MAX_EDGE = 400;
+    static final int AVATAR_MAX_EDGE = 512;
+    static final int JPEG_QUALITY = 85;
+    static final String THUMBNAIL_SUFFIX = "_thumb";
+
+    // Decoding one image at a time bounds the memory used by large camera photos
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final ContentResolver resolver;
+    private final FirebaseStorage storage = FirebaseStorage.getInstance();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Download URLs of an uploaded poster.
+     */
+    public static class UploadedPoster {
+        public final String imageUrl;
+        public final String thumbnailUrl;
+
+        UploadedPoster(String imageUrl, String thumbnailUrl) {
+            this.imageUrl = imageUrl;
+            this.thumbnailUrl = thumbnailUrl;
+        }
+    }
+
+    /**
+     * @param context any context; only its content resolver is kept
+     */
+    public ImageIngestor(Context context) {
+        this.resolver = context.getApplicationContext().getContentResolver();
+    }
+
+    /**
+     * Uploads a poster and its list thumbnail. Callbacks run on the main thread.
+     * @param source picked image
+     * @param basePath storage path without extension, e.g. "event_posters/{uuid}"
+     * @param onUploaded receives the download URLs of both images
+     * @param onError callback for decoding or upload failures
+     */
+    public void uploadPoster(Uri source, String basePath, Consumer<UploadedPoster> onUploaded,
+                             Consumer<Exception> onError) {
+        EXECUTOR.execute(() -> {
+            try {
+                Bitmap full = decode(source, POSTER_MAX_EDGE);
+                byte[] fullBytes = compress(full);
+                Bitmap thumbnail = scaleToFit(full, THUMBNAIL_MAX_EDGE);
+                byte[] thumbnailBytes = compress(thumbnail);
+                if (thumbnail != full) thumbnail.recycle();
+                full.recycle();
+
+                Task<String> fullUrl = upload(basePath + ".jpg", fullBytes);
+                Task<String> thumbnailUrl = upload(basePath + THUMBNAIL_SUFFIX + ".jpg", thumbnailBytes);
+                Tasks.whenAllSuccess(fullUrl, thumbnailUrl)
+                        .addOnSuccessListener(urls -> onUploaded.accept(
+                                new UploadedPoster((String) urls.get(0), (String) urls.get(1))))
+                        .addOnFailureListener(onError::accept);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to prepare poster", e);
+                mainHandler.post(() -> onError.accept(e));
+            }
+        });
+    }
+
+    /**
+     * Uploads a single downscaled image, e.g. a profile photo. Callbacks run on the main thread.
+     * @param source picked image
+     * @param path full storage path, e.g. "avatars/{uid}.jpg"
+     * @param maxEdge longest edge of the uploaded image in pixels
+     * @param onUploaded receives the download URL
+     * @param onError callback for decoding or upload failures
+     */
+    public void uploadImage(Uri source, String path, int maxEdge, Consumer<String> onUploaded,
+                            Consumer<Exception> onError) {
+        EXECUTOR.execute(() -> {
+            try {
+                Bitmap bitmap = decode(source, maxEdge);
+                byte[] bytes = compress(bitmap);
+                bitmap.recycle();
+                upload(path, bytes)
+                        .addOnSuccessListener(onUploaded::accept)
+                        .addOnFailureListener(onError::accept);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to prepare image", e);
+                mainHandler.post(() -> onError.accept(e));
+            }
+        });
+    }
+
+    private Task<String> upload(String path, byte[] bytes) {
+        StorageReference ref = storage.getReference(path);
+        StorageMetadata metadata = new StorageMetadata.Builder().setContentType("image/jpeg").build();
+        return ref.putBytes(bytes, metadata)
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    return ref.getDownloadUrl();
+                })
+                .continueWith(task -> task.getResult().toString());
+    }
+
+    /**
+     * Decodes an image upright with its longer edge at most maxEdge pixels.
+     */
+    Bitmap decode(Uri source, int maxEdge) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(source)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not an image: " + source);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSizeFor(bounds.outWidth, bounds.outHeight, maxEdge);
+        Bitmap decoded;
+        try (InputStream in = open(source)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            throw new IOException("Cannot decode " + source);
+        }
+
+        Bitmap scaled = scaleToFit(decoded, maxEdge);
+        if (scaled != decoded) decoded.recycle();
+
+        int degrees = rotationOf(source);
+        if (degrees == 0) return scaled;
+        Matrix matrix = new Matrix();
+        matrix.postRotate(degrees);
+        Bitmap upright = Bitmap.createBitmap(scaled, 0, 0, scaled.getWidth(), scaled.getHeight(), matrix, true);
+        if (upright != scaled) scaled.recycle();
+        return upright;
+    }
+
+    private int rotationOf(Uri source) {
+        try (InputStream in = open(source)) {
+            int orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            switch (orientation) {
+                case ExifInterface.ORIENTATION_ROTATE_90: return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180: return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270: return 270;
+                default: return 0;
+            }
+        } catch (IOException e) {
+            // Images without EXIF data are assumed upright
+            return 0;
+        }
+    }
+
+    private InputStream open(Uri source) throws IOException {
+        InputStream in = resolver.openInputStream(source);
+        if (in == null) {
+            throw new IOException("Cannot open " + source);
+        }
+        return in;
+    }
+
+    private static Bitmap scaleToFit(Bitmap bitmap, int maxEdge) {
+        int[] size = scaledSize(bitmap.getWidth(), bitmap.getHeight(), maxEdge);
+        if (size[0] == bitmap.getWidth() && size[1] == bitmap.getHeight()) return bitmap;
+        return Bitmap.createScaledBitmap(bitmap, size[0], size[1], true);
+    }
+
+    private static byte[] compress(Bitmap bitmap) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return the largest power of two that keeps the decoded image's longer edge at least maxEdge
+     */
+    static int sampleSizeFor(int width, int height, int maxEdge) {
+        int longest = Math.max(width, height);
+        int sampleSize = 1;
+        while (longest / (sampleSize * 2) >= maxEdge) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * @return {width, height} scaled down, keeping the aspect ratio, so the longer edge is at most
+     * maxEdge; images that already fit are not enlarged
+     */
+    static int[] scaledSize(int width, int height, int maxEdge) {
+        int longest = Math.max(width, height);
+        if (longest <= maxEdge) return new int[]{width, height};
+        double scale = (double) maxEdge / longest;
+        return new int[]{
+                Math.max(1, (int) Math.round(width * scale)),
+                Math.max(1, (int) Math.round(height * scale))
+        };
+    }
+
+    /**
+     * @param imageName storage file name of a full-size poster, e.g. "{uuid}.jpg"
+     * @return file name of its thumbnail
+     */
+    static String thumbnailNameOf(String imageName) {
+        int dot = imageName.lastIndexOf('.');
+        if (dot < 0) return imageName + THUMBNAIL_SUFFIX;
+        return imageName.substring(0, dot) + THUMBNAIL_SUFFIX + imageName.substring(dot);
+    }
+
+    /**
+     * @return true when the storage file name is a list thumbnail
+     */
+    static boolean isThumbnailName(String name) {
+        int dot = name.lastIndexOf('.');
+        String stem = dot < 0 ? name : name.substring(0, dot);
+        return stem.endsWith(THUMBNAIL_SUFFIX);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.carbon;
+
+/**
+ * RecyclerView adapter for a user's notification inbox. Invitations that are still open show
+ * accept and decline buttons; seen notifications are greyed out.
+ * Outstanding issues: actions are delegated to the activity; there is no swipe to dismiss.
+ */
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class InboxAdapter extends ListAdapter<Notification, InboxAdapter.VH> {
+
+    private static final int ACTION_ACCEPT = 0;
+    private static final int ACTION_DECLINE = 1;
+    private static final int ACTION_OPEN = 2;
+
+    private final StableIds stableIds = new StableIds();
+    private OnNotificationActionListener actionListener;
+
+    private static final DiffUtil.ItemCallback<Notification> DIFF = new DiffUtil.ItemCallback<Notification>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Notification oldItem, @NonNull Notification newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Notification oldItem, @NonNull Notification newItem) {
+            return Objects.equals(oldItem.getEventName(), newItem.getEventName())
+                    && Objects.equals(oldItem.getMessage(), newItem.getMessage())
+                    && Objects.equals(oldItem.getType(), newItem.getType())
+                    && oldItem.getStatus() == newItem.getStatus();
+        }
+    };
+
+    /**
+     * Receives taps on inbox rows.
+     */
+    public interface OnNotificationActionListener {
+        void onAccept(Notification notification);
+        void onDecline(Notification notification);
+        /** Called for taps on rows without accept and decline buttons. */
+        void onOpen(Notification notification);
+    }
+
+    public InboxAdapter() {
+        super(DIFF);
+        setHasStableIds(true);
+    }
+
+    public void setOnNotificationActionListener(OnNotificationActionListener listener) {
+        this.actionListener = listener;
+    }
+
+    /**
+     * Shows a new list of notifications, diffed by notification ID in the background so only
+     * rows whose notification changed are rebound.
+     * @param newList notifications to display, newest first; each needs its ID set
+     */
+    public void updateList(List<Notification> newList) {
+        submitList(newList == null ? null : new ArrayList<>(newList));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idOf(getItem(position).getId());
+    }
+
+    /**
+     * @return true when the notification asks the user to accept or decline and they have not yet
+     */
+    static boolean isActionable(Notification n) {
+        boolean invitation = "invitation".equalsIgnoreCase(n.getType()) || "chosen".equalsIgnoreCase(n.getType());
+        return invitation && n.getStatus() != NotificationStatus.ACCEPTED
+                && n.getStatus() != NotificationStatus.DECLINED;
+    }
+
+    @NonNull
+    @Override
+    public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View v = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_notification, parent, false);
+        VH holder = new VH(v);
+        holder.btnAccept.setOnClickListener(view -> dispatch(holder, ACTION_ACCEPT));
+        holder.btnDecline.setOnClickListener(view -> dispatch(holder, ACTION_DECLINE));
+        holder.itemView.setOnClickListener(view -> dispatch(holder, ACTION_OPEN));
+        return holder;
+    }
+
+    private void dispatch(VH holder, int action) {
+        int position = holder.getAdapterPosition();
+        if (actionListener == null || position == RecyclerView.NO_POSITION) return;
+        Notification n = getItem(position);
+        if (action == ACTION_ACCEPT) {
+            actionListener.onAccept(n);
+        } else if (action == ACTION_DECLINE) {
+            actionListener.onDecline(n);
+        } else if (!isActionable(n)) {
+            actionListener.onOpen(n);
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull VH holder, int position) {
+        Notification n = getItem(position);
+        holder.tvTitle.setText(n.getEventName());
+        holder.tvMessage.setText(n.getMessage());
+        holder.tvMessage.setTextColor(n.getStatus() == NotificationStatus.SEEN
+                ? ContextCompat.getColor(holder.itemView.getContext(), android.R.color.darker_gray)
+                : holder.defaultMessageColor);
+        holder.actions.setVisibility(isActionable(n) ? View.VISIBLE : View.GONE);
+    }
+
+    static class VH extends RecyclerView.ViewHolder {
+
+        TextView tvTitle;
+        TextView tvMessage;
+        LinearLayout actions;
+        Button btnAccept;
+        Button btnDecline;
+        final int defaultMessageColor;
+
+        VH(@NonNull View itemView) {
+            super(itemView);
+            tvTitle    = itemView.findViewById(R.id.notification_title);
+            tvMessage  = itemView.findViewById(R.id.notification_message);
+            actions    = itemView.findViewById(R.id.notification_actions);
+            btnAccept  = itemView.findViewById(R.id.btn_accept_notification);
+            btnDecline = itemView.findViewById(R.id.btn_decline_notification);
+            defaultMessageColor = tvMessage.getCurrentTextColor();
+        }
+    }
+}
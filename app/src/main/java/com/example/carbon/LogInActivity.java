@@ -75,6 +75,7 @@ public class LogInActivity extends AppCompatActivity {
                                         if (document.exists()) {
                                             String role = document.getString("role");
                                             saveUserToCache(userId, role);
+                                            UserCache.getInstance().put(userId, document.toObject(User.class));
                                             if (Objects.equals(role, "organizer")) {
                                                 startActivity(new Intent(LogInActivity.this, BrowseOrganizerEventsActivity.class));
                                             }
@@ -134,6 +135,7 @@ public class LogInActivity extends AppCompatActivity {
                         .set(data, SetOptions.merge())
                         .addOnSuccessListener(x -> {
                             Log.d("DEVICE_LOGIN", "Firestore write SUCCESS for UID: " + uid);
+                            UserCache.getInstance().invalidate(uid);
 
                             if (!hasShownPrivacyNotice()) {
                                 Log.d("DEVICE_LOGIN", "Privacy notice has NOT been shown. Displaying dialog...");
@@ -190,6 +192,7 @@ public class LogInActivity extends AppCompatActivity {
                 .edit()
                 .clear()
                 .apply();
+        UserCache.getInstance().clear();
     }
 
 
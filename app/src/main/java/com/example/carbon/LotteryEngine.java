@@ -0,0 +1,248 @@
+package com.example.carbon;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Draws lottery winners from a waitlist. Every draw is driven by a seed, so logging
+ * {@link #getSeed()} together with the candidate list (entrants are loaded in user ID order) is
+ * enough to reproduce and audit it.
+ * Uniform winners are picked with a sparse partial Fisher-Yates shuffle: only the swapped positions
+ * are remembered, so picking k of n candidates costs O(k) time and memory and never copies or
+ * shuffles the whole list.
+ * Weighted draws give every candidate an exponential key derived from the seed and the candidate's
+ * key, and hand out candidates in key order from a heap built once per draw (Efraimidis-Spirakis
+ * sampling without replacement). As the keys only depend on the seed, a later draw with the same
+ * seed continues the same ranking, e.g. a replacement picked on another device.
+ * Outstanding issues: uniform draws depend on the candidate order, so reproducing one also needs
+ * the candidates in the order they were loaded.
+ */
+public class LotteryEngine {
+    private final long seed;
+    private final SplittableRandom random;
+
+    /**
+     * Successive draws without replacement from one candidate list, e.g. the initial winners and
+     * later replacements.
+     * @param <T> candidate type
+     */
+    public interface Draw<T> {
+        /**
+         * @return a candidate not returned before
+         * @throws NoSuchElementException when every candidate has been drawn
+         */
+        T next();
+
+        /**
+         * @param count number of candidates wanted
+         * @return up to count candidates not returned before, fewer when the pool runs out
+         */
+        List<T> next(int count);
+
+        /** @return candidates that can still be drawn */
+        int remaining();
+    }
+
+    /**
+     * Relative chance of a candidate in a weighted draw.
+     * @param <T> candidate type
+     */
+    public interface Weigher<T> {
+        /**
+         * @param candidate candidate being weighed
+         * @return a positive weight; candidates with a weight of zero or less are never drawn
+         */
+        double weightOf(T candidate);
+    }
+
+    /** Creates an engine with a fresh random seed. */
+    public LotteryEngine() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * @param seed seed of a previous draw to reproduce it
+     */
+    public LotteryEngine(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /** @return seed of this engine's draws */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Picks winners uniformly at random.
+     * @param candidates entrants eligible for the draw; the list is not modified
+     * @param count number of winners
+     * @return min(count, candidates.size()) distinct candidates in draw order
+     */
+    public <T> List<T> draw(List<T> candidates, int count) {
+        return open(candidates).next(count);
+    }
+
+    /**
+     * Starts a uniform draw that further winners can be taken from later.
+     * @param candidates entrants eligible for the draw; must not change while the draw is used
+     * @return the draw
+     */
+    public <T> Draw<T> open(List<T> candidates) {
+        return new UniformDraw<>(candidates, random);
+    }
+
+    /**
+     * Picks winners with probability proportional to their weight, without replacement.
+     * @param candidates entrants eligible for the draw; the list is not modified
+     * @param count number of winners
+     * @param keyOf stable, unique key of a candidate such as its user ID
+     * @param weigher weight of a candidate
+     * @return up to count distinct candidates in draw order
+     */
+    public <T> List<T> drawWeighted(List<T> candidates, int count, Function<T, String> keyOf, Weigher<T> weigher) {
+        return openWeighted(candidates, keyOf, weigher).next(count);
+    }
+
+    /**
+     * Starts a weighted draw that further winners can be taken from later. Building it costs
+     * O(n); every candidate taken afterwards costs O(log n).
+     * @param candidates entrants eligible for the draw; must not change while the draw is used
+     * @param keyOf stable, unique key of a candidate such as its user ID
+     * @param weigher weight of a candidate
+     * @return the draw
+     */
+    public <T> Draw<T> openWeighted(List<T> candidates, Function<T, String> keyOf, Weigher<T> weigher) {
+        return new WeightedDraw<>(candidates, keyOf, weigher, seed);
+    }
+
+    /**
+     * Uniform number in (0, 1] that only depends on the seed and the key.
+     */
+    static double unitFor(long seed, String key) {
+        // FNV-1a over the key, then the SplitMix64 finalizer over key hash and seed
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        long z = seed + 0x9e3779b97f4a7c15L * h;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return ((z >>> 11) + 1) * 0x1.0p-53;
+    }
+
+    private static final class WeightedDraw<T> implements Draw<T> {
+        private final List<T> candidates;
+        // Binary min-heap of candidate indices ordered by keys
+        private final int[] heap;
+        private final double[] keys;
+        private int size;
+
+        WeightedDraw(List<T> candidates, Function<T, String> keyOf, Weigher<T> weigher, long seed) {
+            this.candidates = candidates;
+            this.keys = new double[candidates.size()];
+            this.heap = new int[candidates.size()];
+            for (int i = 0; i < candidates.size(); i++) {
+                T candidate = candidates.get(i);
+                double weight = weigher.weightOf(candidate);
+                if (!(weight > 0) || Double.isInfinite(weight)) continue;
+                // Exponential arrival time with rate = weight; the earliest arrivals win
+                keys[i] = -Math.log(unitFor(seed, keyOf.apply(candidate))) / weight;
+                heap[size++] = i;
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (size == 0) throw new NoSuchElementException("No candidates left to draw");
+            int chosen = heap[0];
+            heap[0] = heap[--size];
+            siftDown(0);
+            return candidates.get(chosen);
+        }
+
+        @Override
+        public List<T> next(int count) {
+            int n = Math.max(0, Math.min(count, size));
+            List<T> winners = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                winners.add(next());
+            }
+            return winners;
+        }
+
+        @Override
+        public int remaining() {
+            return size;
+        }
+
+        private void siftDown(int i) {
+            int item = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) child++;
+                if (keys[heap[child]] >= keys[item]) break;
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = item;
+        }
+    }
+
+    private static final class UniformDraw<T> implements Draw<T> {
+        private final List<T> candidates;
+        private final SplittableRandom random;
+        // Position -> candidate index for the positions the virtual shuffle has swapped
+        private final Map<Integer, Integer> swapped = new HashMap<>();
+        private int remaining;
+
+        UniformDraw(List<T> candidates, SplittableRandom random) {
+            this.candidates = candidates;
+            this.random = random;
+            this.remaining = candidates.size();
+        }
+
+        @Override
+        public T next() {
+            if (remaining == 0) throw new NoSuchElementException("No candidates left to draw");
+            int last = remaining - 1;
+            int pick = random.nextInt(remaining);
+            Integer atPick = swapped.get(pick);
+            int chosen = atPick != null ? atPick : pick;
+            // Move the last undrawn candidate into the picked slot, as Fisher-Yates would
+            Integer atLast = swapped.remove(last);
+            if (pick != last) {
+                swapped.put(pick, atLast != null ? atLast : last);
+            }
+            remaining--;
+            return candidates.get(chosen);
+        }
+
+        @Override
+        public List<T> next(int count) {
+            int n = Math.max(0, Math.min(count, remaining));
+            List<T> winners = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                winners.add(next());
+            }
+            return winners;
+        }
+
+        @Override
+        public int remaining() {
+            return remaining;
+        }
+    }
+}
@@ -61,6 +61,14 @@ public class Notification {
         this.type = type;
     }
 
+    /**
+     * @param status status of the copy
+     * @return a copy of this notification with another status, e.g. to update a displayed row
+     */
+    public Notification withStatus(NotificationStatus status) {
+        return new Notification(id, userId, eventId, eventName, message, status, created_at, type);
+    }
+
     /** @return notification document id */
     public String getId() {
         return id;
@@ -2,32 +2,60 @@ package com.example.carbon;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.view.LayoutInflater;
+import android.util.Log;
 import android.view.View;
-import android.widget.LinearLayout;
 import android.widget.TextView;
-import android.widget.Button;
 import android.widget.Toast;
 import android.widget.ProgressBar;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Activity that displays all notifications for a user.
  * Each notification shows information about events and allows
- * the user to interact depending on the type of notification
+ * the user to interact depending on the type of notification.
+ * The newest page is kept live by a limited snapshot listener; older pages are read once with a
+ * created_at cursor as the list scrolls. Snapshot changes are applied one document at a time and
+ * the adapter diffs the result, so only changed rows are rebound.
+ * Outstanding issues: a notification deleted elsewhere stays listed until the screen is reopened,
+ * because a removal cannot be told apart from a notification pushed out of the live page.
  */
 public class NotificationActivity extends AppCompatActivity {
-    private LinearLayout notificationContainer;
+    private static final String TAG = "NotificationActivity";
+    private static final int PAGE_SIZE = 25;
+    // Start loading the next page when this many rows are left below the last visible one
+    private static final int PREFETCH_DISTANCE = 5;
+
+    private InboxAdapter adapter;
     private TextView emptyView;
     private ProgressBar progressBar;
     private NotificationService notificationService;
     private static final boolean USE_MOCK_SERVICE = false; //set to false for firebase
-    private com.google.firebase.firestore.ListenerRegistration listener;
+    private ListenerRegistration listener;
+
+    private Query inboxQuery;
+    private final Map<String, Notification> notificationsById = new HashMap<>();
+    // Oldest loaded document, the cursor of the next page
+    private DocumentSnapshot oldestDocument;
+    private boolean hasMore;
+    private boolean loadingMore;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -36,7 +64,20 @@ public class NotificationActivity extends AppCompatActivity {
 
         UIHelper.setupHeaderAndMenu(this);
 
-        notificationContainer = findViewById(R.id.notifications_list_container);
+        RecyclerView recyclerView = findViewById(R.id.notifications_list);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        adapter = new InboxAdapter();
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy <= 0) return;
+                if (layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadMoreNotifications();
+                }
+            }
+        });
         emptyView = findViewById(R.id.notifications_empty);
         progressBar = findViewById(R.id.notifications_progress);
 
@@ -67,99 +108,168 @@ public class NotificationActivity extends AppCompatActivity {
     }
 
     /**
-     * Fetches Notifications for a specific user and displays them.
+     * Fetches Notifications for a specific user and displays them. The newest page stays live.
      * @param userId the ID of the user whose notifications are being loaded
      */
     private void loadNotifications(String userId) {
         progressBar.setVisibility(View.VISIBLE);
-        com.google.firebase.firestore.FirebaseFirestore db = com.google.firebase.firestore.FirebaseFirestore.getInstance();
-        listener = db.collection("notifications")
+        adapter.setOnNotificationActionListener(new InboxAdapter.OnNotificationActionListener() {
+            @Override
+            public void onAccept(Notification notification) {
+                acceptNotification(notification);
+            }
+
+            @Override
+            public void onDecline(Notification notification) {
+                declineNotification(notification);
+            }
+
+            @Override
+            public void onOpen(Notification notification) {
+                notificationService.markAsSeen(notification);
+                showStatus(notification, NotificationStatus.SEEN);
+            }
+        });
+
+        inboxQuery = FirebaseFirestore.getInstance().collection("notifications")
                 .whereEqualTo("userId", userId)
-                .orderBy("created_at", com.google.firebase.firestore.Query.Direction.DESCENDING)
+                .orderBy("created_at", Query.Direction.DESCENDING);
+        listener = inboxQuery.limit(PAGE_SIZE)
                 .addSnapshotListener((snap, error) -> {
                     progressBar.setVisibility(View.GONE);
                     if (error != null || snap == null) {
-                        emptyView.setVisibility(View.VISIBLE);
+                        Log.w(TAG, "Notification listener failed", error);
+                        emptyView.setVisibility(notificationsById.isEmpty() ? View.VISIBLE : View.GONE);
                         return;
                     }
-                    java.util.List<Notification> list = new java.util.ArrayList<>();
-                    for (com.google.firebase.firestore.QueryDocumentSnapshot doc : snap) {
-                        Notification n = doc.toObject(Notification.class);
-                        n.setId(doc.getId());
-                        list.add(n);
+                    for (DocumentChange change : snap.getDocumentChanges()) {
+                        // Rows pushed out of the live page by newer notifications stay listed
+                        if (change.getType() == DocumentChange.Type.REMOVED) continue;
+                        remember(change.getDocument());
+                    }
+                    if (oldestDocument == null) {
+                        // The first snapshot decides where the older pages start
+                        List<DocumentSnapshot> documents = snap.getDocuments();
+                        oldestDocument = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+                        hasMore = documents.size() == PAGE_SIZE;
                     }
-                    displayNotifications(list);
+                    displayNotifications();
                 });
     }
 
-    /**
-     * Displays a list of notifications in the layout.
-     * Each notification item reacts differently based on its type:
-     * - "invitation": Opens an invitation dialog
-     * - "chosen": Opens event details
-     * - Other: Marks notification as seen
-     * @param notifications the list of notifications to display
-     */
-    private void displayNotifications(List<Notification> notifications) {
-        LayoutInflater inflater = LayoutInflater.from(this);
-        notificationContainer.removeAllViews();
-
-        for (Notification notification : notifications) {
-            View itemView = inflater.inflate(R.layout.item_notification, notificationContainer, false);
+    /** Appends the next older page of notifications to the inbox. */
+    private void loadMoreNotifications() {
+        if (loadingMore || !hasMore || oldestDocument == null) return;
+        loadingMore = true;
+        inboxQuery.startAfter(oldestDocument).limit(PAGE_SIZE).get()
+                .addOnSuccessListener(snap -> {
+                    loadingMore = false;
+                    List<DocumentSnapshot> documents = snap.getDocuments();
+                    for (DocumentSnapshot doc : documents) {
+                        remember(doc);
+                    }
+                    if (!documents.isEmpty()) {
+                        oldestDocument = documents.get(documents.size() - 1);
+                    }
+                    hasMore = documents.size() == PAGE_SIZE;
+                    displayNotifications();
+                })
+                .addOnFailureListener(e -> {
+                    loadingMore = false;
+                    Log.w(TAG, "Failed to load older notifications", e);
+                });
+    }
 
-            TextView titleView = itemView.findViewById(R.id.notification_title);
-            TextView messageView = itemView.findViewById(R.id.notification_message);
-            LinearLayout actions = itemView.findViewById(R.id.notification_actions);
-            Button acceptBtn = itemView.findViewById(R.id.btn_accept_notification);
-            Button declineBtn = itemView.findViewById(R.id.btn_decline_notification);
+    private void remember(DocumentSnapshot doc) {
+        Notification n = doc.toObject(Notification.class);
+        if (n == null) return;
+        n.setId(doc.getId());
+        notificationsById.put(doc.getId(), n);
+    }
 
-            titleView.setText(notification.getEventName());
-            messageView.setText(notification.getMessage());
+    /**
+     * Shows the loaded notifications newest first. The adapter diffs against the rows on screen,
+     * so only notifications that changed are rebound.
+     */
+    private void displayNotifications() {
+        List<Notification> notifications = new ArrayList<>(notificationsById.values());
+        notifications.sort((a, b) -> {
+            Date first = a.getCreated_at();
+            Date second = b.getCreated_at();
+            if (first == null || second == null) return first == null ? (second == null ? 0 : 1) : -1;
+            return second.compareTo(first);
+        });
+        adapter.updateList(notifications);
+        emptyView.setVisibility(notifications.isEmpty() ? View.VISIBLE : View.GONE);
+    }
 
-            boolean actionable = "invitation".equalsIgnoreCase(notification.getType()) || "chosen".equalsIgnoreCase(notification.getType());
-            actions.setVisibility(actionable ? View.VISIBLE : View.GONE);
+    /** Updates a displayed row right away; the live listener only covers the newest page. */
+    private void showStatus(Notification notification, NotificationStatus status) {
+        notificationsById.put(notification.getId(), notification.withStatus(status));
+        displayNotifications();
+    }
 
-            acceptBtn.setOnClickListener(v -> {
-                if (notification.getEventId() == null || notification.getEventId().isEmpty()) {
-                    Toast.makeText(this, "Missing event info for this notification", Toast.LENGTH_SHORT).show();
-                    return;
-                }
-                notificationService.markAsAccepted(notification,
-                        () -> runOnUiThread(() -> {
-                            Toast.makeText(this, "Event accepted", Toast.LENGTH_SHORT).show();
-                            notificationContainer.removeView(itemView);
-                            emptyView.setVisibility(notificationContainer.getChildCount() == 0 ? View.VISIBLE : View.GONE);
-                            Intent intent = new Intent(this, EventDetailsActivity.class);
-                            intent.putExtra(EventDetailsActivity.EXTRA_EVENT_ID, notification.getEventId());
-                            startActivity(intent);
-                        }),
-                        e -> runOnUiThread(() -> Toast.makeText(this, "Unable to accept right now. Please try again.", Toast.LENGTH_LONG).show()));
-            });
-
-            declineBtn.setOnClickListener(v -> {
-                if (notification.getEventId() == null || notification.getEventId().isEmpty()) {
-                    Toast.makeText(this, "Missing event info for this notification", Toast.LENGTH_SHORT).show();
-                    return;
-                }
-                notificationService.markAsDeclined(notification,
-                        () -> runOnUiThread(() -> {
-                            Toast.makeText(this, "Event declined", Toast.LENGTH_SHORT).show();
-                            notificationContainer.removeView(itemView);
-                            emptyView.setVisibility(notificationContainer.getChildCount() == 0 ? View.VISIBLE : View.GONE);
-                        }),
-                        e -> runOnUiThread(() -> Toast.makeText(this, "Unable to decline right now. Please try again.", Toast.LENGTH_LONG).show()));
-            });
-
-            itemView.setOnClickListener(v -> {
-                if (!actionable) {
-                    notificationService.markAsSeen(notification);
-                    messageView.setTextColor(getColor(android.R.color.darker_gray));
-                }
-            });
+    /**
+     * Accepts an invitation and opens the event.
+     * @param notification the invitation
+     */
+    private void acceptNotification(Notification notification) {
+        if (notification.getEventId() == null || notification.getEventId().isEmpty()) {
+            Toast.makeText(this, "Missing event info for this notification", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        answer(PendingOperation.accept(notification),
+                () -> runOnUiThread(() -> {
+                    Toast.makeText(this, "Event accepted", Toast.LENGTH_SHORT).show();
+                    showStatus(notification, NotificationStatus.ACCEPTED);
+                    Intent intent = new Intent(this, EventDetailsActivity.class);
+                    intent.putExtra(EventDetailsActivity.EXTRA_EVENT_ID, notification.getEventId());
+                    startActivity(intent);
+                }),
+                offline -> runOnUiThread(() -> {
+                    Toast.makeText(this, offline
+                            ? "You're offline. Your acceptance will be sent when you're back online"
+                            : "Your acceptance will be sent after your earlier answers", Toast.LENGTH_LONG).show();
+                    showStatus(notification, NotificationStatus.ACCEPTED);
+                }),
+                e -> runOnUiThread(() -> Toast.makeText(this, "Unable to accept right now. Please try again.", Toast.LENGTH_LONG).show()));
+    }
 
-            notificationContainer.addView(itemView);
+    /**
+     * Declines an invitation; a replacement entrant is drawn by the service.
+     * @param notification the invitation
+     */
+    private void declineNotification(Notification notification) {
+        if (notification.getEventId() == null || notification.getEventId().isEmpty()) {
+            Toast.makeText(this, "Missing event info for this notification", Toast.LENGTH_SHORT).show();
+            return;
         }
+        answer(PendingOperation.decline(notification),
+                () -> runOnUiThread(() -> {
+                    Toast.makeText(this, "Event declined", Toast.LENGTH_SHORT).show();
+                    showStatus(notification, NotificationStatus.DECLINED);
+                }),
+                offline -> runOnUiThread(() -> {
+                    Toast.makeText(this, offline
+                            ? "You're offline. Your answer will be sent when you're back online"
+                            : "Your answer will be sent after your earlier answers", Toast.LENGTH_LONG).show();
+                    showStatus(notification, NotificationStatus.DECLINED);
+                }),
+                e -> runOnUiThread(() -> Toast.makeText(this, "Unable to decline right now. Please try again.", Toast.LENGTH_LONG).show()));
+    }
 
-        emptyView.setVisibility(notifications == null || notifications.isEmpty() ? View.VISIBLE : View.GONE);
+    /**
+     * Sends an answer through the operation journal so it is kept while offline; the mock
+     * service has no server to queue for and is called directly.
+     */
+    private void answer(PendingOperation operation, Runnable onApplied, Consumer<Boolean> onQueued,
+                        Consumer<Exception> onError) {
+        if (!USE_MOCK_SERVICE) {
+            OperationJournal.getInstance().submit(operation, onApplied, onQueued, onError);
+        } else if (operation.getType() == PendingOperation.Type.ACCEPT) {
+            notificationService.markAsAccepted(operation.getNotification(), onApplied, onError);
+        } else {
+            notificationService.markAsDeclined(operation.getNotification(), onApplied, onError);
+        }
     }
 }
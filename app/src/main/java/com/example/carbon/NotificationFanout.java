@@ -0,0 +1,167 @@
+package com.example.carbon;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Writes many notifications at once, e.g. a broadcast or a lottery draw. Each notification and its
+ * notification_logs entry, keyed by the notification ID, go into the same WriteBatch, and batches
+ * are capped at Firestore's 500 operations. Document IDs are generated up front so a failed chunk
+ * can be retried without creating duplicates; only failed chunks are retried, with exponential backoff.
+ * Outstanding issues: a chunk that still fails after the last attempt is reported, not queued.
+ */
+public class NotificationFanout {
+    private static final String TAG = "NotificationFanout";
+    // Firestore rejects batches with more than 500 writes; each notification needs two
+    static final int MAX_OPS_PER_BATCH = 500;
+    static final int NOTIFICATIONS_PER_BATCH = MAX_OPS_PER_BATCH / 2;
+    static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 1000;
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Reports progress as chunks complete.
+     */
+    public interface ProgressListener {
+        /**
+         * @param notificationsDone notifications whose chunk has finished, successfully or not
+         * @param total notifications in the fan-out
+         */
+        void onProgress(int notificationsDone, int total);
+    }
+
+    /**
+     * Aggregated outcome of a fan-out.
+     */
+    public static class Result {
+        private final int total;
+        private final List<String> failedUserIds;
+        private final Exception lastError;
+
+        Result(int total, List<String> failedUserIds, Exception lastError) {
+            this.total = total;
+            this.failedUserIds = failedUserIds;
+            this.lastError = lastError;
+        }
+
+        /** @return notifications requested */
+        public int getTotal() { return total; }
+
+        /** @return notifications written together with their log entries */
+        public int getSentCount() { return total - failedUserIds.size(); }
+
+        /** @return notifications that could not be written after all attempts */
+        public int getFailedCount() { return failedUserIds.size(); }
+
+        /** @return recipients whose notification was not written */
+        public List<String> getFailedUserIds() { return Collections.unmodifiableList(failedUserIds); }
+
+        /** @return the last Firestore failure, or null when every chunk was written */
+        public Exception getLastError() { return lastError; }
+
+        /** @return true when every notification was written */
+        public boolean isComplete() { return failedUserIds.isEmpty(); }
+    }
+
+    /**
+     * Writes the notifications and their log entries. Must be called from the main thread.
+     * IDs are assigned to the given notifications before anything is written.
+     * @param notifications notifications to send; entries without a recipient are skipped
+     * @param onProgress optional progress listener, may be null
+     * @param onComplete receives the aggregated result once every chunk has finished
+     */
+    public void send(List<Notification> notifications, ProgressListener onProgress, Consumer<Result> onComplete) {
+        List<Notification> pending = new ArrayList<>();
+        for (Notification notification : notifications) {
+            if (notification != null && notification.getUserId() != null) {
+                pending.add(notification);
+            }
+        }
+        if (pending.isEmpty()) {
+            onComplete.accept(new Result(0, new ArrayList<>(), null));
+            return;
+        }
+
+        CollectionReference notificationsRef = db.collection("notifications");
+        for (Notification notification : pending) {
+            notification.setId(notificationsRef.document().getId());
+        }
+
+        int chunkCount = (pending.size() + NOTIFICATIONS_PER_BATCH - 1) / NOTIFICATIONS_PER_BATCH;
+        Progress progress = new Progress(pending.size(), chunkCount, onProgress, onComplete);
+        for (int start = 0; start < pending.size(); start += NOTIFICATIONS_PER_BATCH) {
+            List<Notification> chunk = pending.subList(start, Math.min(start + NOTIFICATIONS_PER_BATCH, pending.size()));
+            commitChunk(chunk, 1, progress);
+        }
+    }
+
+    private void commitChunk(List<Notification> chunk, int attempt, Progress progress) {
+        WriteBatch batch = db.batch();
+        for (Notification notification : chunk) {
+            batch.set(db.collection("notifications").document(notification.getId()), notification);
+            batch.set(db.collection(NotificationLog.COLLECTION).document(notification.getId()),
+                    NotificationLog.of(notification, notification.getCreated_at()));
+        }
+        batch.commit()
+                .addOnSuccessListener(v -> progress.chunkDone(chunk, null))
+                .addOnFailureListener(e -> {
+                    if (attempt < MAX_ATTEMPTS) {
+                        long delay = BASE_BACKOFF_MILLIS << (attempt - 1);
+                        Log.w(TAG, "Chunk of " + chunk.size() + " failed, retrying in " + delay + "ms", e);
+                        // Same document IDs on retry, so a partially applied attempt is overwritten
+                        handler.postDelayed(() -> commitChunk(chunk, attempt + 1, progress), delay);
+                    } else {
+                        Log.e(TAG, "Chunk of " + chunk.size() + " failed after " + attempt + " attempts", e);
+                        progress.chunkDone(chunk, e);
+                    }
+                });
+    }
+
+    /** Collects chunk outcomes; only touched on the main thread. */
+    private static class Progress {
+        private final int total;
+        private final ProgressListener listener;
+        private final Consumer<Result> onComplete;
+        private final List<String> failedUserIds = new ArrayList<>();
+        private int chunksRemaining;
+        private int done;
+        private Exception lastError;
+
+        Progress(int total, int chunkCount, ProgressListener listener, Consumer<Result> onComplete) {
+            this.total = total;
+            this.chunksRemaining = chunkCount;
+            this.listener = listener;
+            this.onComplete = onComplete;
+        }
+
+        void chunkDone(List<Notification> chunk, Exception error) {
+            done += chunk.size();
+            if (error != null) {
+                lastError = error;
+                for (Notification notification : chunk) {
+                    failedUserIds.add(notification.getUserId());
+                }
+            }
+            if (listener != null) {
+                listener.onProgress(done, total);
+            }
+            if (--chunksRemaining == 0) {
+                Log.d(TAG, "Fan-out complete: " + (total - failedUserIds.size()) + " sent, "
+                        + failedUserIds.size() + " failed");
+                onComplete.accept(new Result(total, failedUserIds, lastError));
+            }
+        }
+    }
+}
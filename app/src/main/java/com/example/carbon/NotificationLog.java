@@ -3,9 +3,12 @@ package com.example.carbon;
 import java.util.Date;
 
 /**
- * Represents a log entry for a notification, tracking its status and timestamp
+ * Represents a log entry for a notification, tracking its status and timestamp.
+ * Each entry is stored under the ID of its notification, so it can be written without a lookup.
  */
 public class NotificationLog {
+    static final String COLLECTION = "notification_logs";
+
     private String notificationId;
     private String userId;
     private String eventId;
@@ -29,6 +32,24 @@ public class NotificationLog {
         this.type = type;
     }
 
+    /**
+     * Builds the log entry of a notification as it is now
+     * @param notification the notification being logged; its ID must be set
+     * @param timestamp time of the logged status
+     * @return entry to store at {@link #COLLECTION}/{notificationId}
+     */
+    static NotificationLog of(Notification notification, Date timestamp) {
+        return new NotificationLog(
+                notification.getId(),
+                notification.getUserId(),
+                notification.getEventId(),
+                notification.getEventName(),
+                notification.getStatus(),
+                timestamp,
+                notification.getType()
+        );
+    }
+
     // Getters and setters
     /** @return source notification id */
     public String getNotificationId() {
@@ -10,21 +10,51 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
-public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdapter.VH> {
+public class NotificationsAdapter extends ListAdapter<Notification, NotificationsAdapter.VH> {
 
-    private List<Notification> notifications = new ArrayList<>();
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy • HH:mm", Locale.getDefault());
+    private final StableIds stableIds = new StableIds();
 
+    private static final DiffUtil.ItemCallback<Notification> DIFF = new DiffUtil.ItemCallback<Notification>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Notification oldItem, @NonNull Notification newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Notification oldItem, @NonNull Notification newItem) {
+            return Objects.equals(oldItem.getEventName(), newItem.getEventName())
+                    && Objects.equals(oldItem.getMessage(), newItem.getMessage())
+                    && Objects.equals(oldItem.getType(), newItem.getType())
+                    && Objects.equals(oldItem.getCreated_at(), newItem.getCreated_at());
+        }
+    };
+
+    public NotificationsAdapter() {
+        super(DIFF);
+        setHasStableIds(true);
+    }
+
+    /**
+     * Shows a new list of notifications, diffed by notification ID in the background.
+     * @param newList notifications to display; each needs its ID set
+     */
     public void updateList(List<Notification> newList) {
-        notifications.clear();
-        notifications.addAll(newList);
-        notifyDataSetChanged();
+        submitList(newList == null ? null : new ArrayList<>(newList));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idOf(getItem(position).getId());
     }
 
     @NonNull
@@ -37,7 +67,7 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
 
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
-        Notification n = notifications.get(position);
+        Notification n = getItem(position);
 
         String title = n.getEventName();
         if (title == null || title.isEmpty()) title = "System Notification";
@@ -54,11 +84,6 @@ public class NotificationsAdapter extends RecyclerView.Adapter<NotificationsAdap
         }
     }
 
-    @Override
-    public int getItemCount() {
-        return notifications.size();
-    }
-
     static class VH extends RecyclerView.ViewHolder {
 
         TextView tvTitle;
@@ -0,0 +1,296 @@
+package com.example.carbon;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Durable, ordered journal of event and waitlist mutations that could not reach Firestore. A
+ * mutation is first tried directly; when it fails for a transient reason such as a dropped
+ * connection it is appended to the journal, stored in SharedPreferences so it survives restarts,
+ * and replayed in order by {@link OperationReplayWorker} once the device is online. While
+ * anything is queued or a mutation is still being sent, new mutations go to the back of the
+ * journal so they never overtake older ones; a mutation that fails while others wait behind it
+ * goes back to the front. Retries wait an exponentially growing, jittered delay so devices that reconnect together
+ * do not retry together.
+ * Outstanding issues: an operation that the server rejects during replay, e.g. because the
+ * waitlist closed in the meantime, is dropped and only logged.
+ */
+public class OperationJournal {
+    private static final String TAG = "OperationJournal";
+    private static final String PREFS_NAME = "operation_journal";
+    private static final String KEY_OPERATIONS = "operations";
+    static final String WORK_NAME = "operation-journal-replay";
+    static final long BASE_BACKOFF_MILLIS = 5_000;
+    static final long MAX_BACKOFF_MILLIS = 15 * 60 * 1000L;
+    // Spreads the first replay of devices that regain the same Wi-Fi at once
+    private static final long QUEUED_JITTER_MILLIS = 3_000;
+
+    private static OperationJournal instance;
+
+    private final Context context;
+    private final SharedPreferences store;
+    private final List<PendingOperation> operations = new ArrayList<>();
+    // Operation submitted directly and not answered yet; replays wait for it
+    private PendingOperation inFlight;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Random random = new Random();
+
+    private OperationJournal(Context context) {
+        this.context = context.getApplicationContext();
+        this.store = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        load();
+    }
+
+    /**
+     * Loads the journal and schedules a replay of anything left from an earlier run. Called once
+     * from {@link CarbonApplication}.
+     * @param context any context; the application context is retained
+     */
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new OperationJournal(context);
+            if (!instance.isEmpty()) {
+                instance.scheduleReplay(0);
+            }
+        }
+    }
+
+    /**
+     * @return the shared journal; {@link #init(Context)} must have run
+     */
+    public static synchronized OperationJournal getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("OperationJournal.init has not been called");
+        }
+        return instance;
+    }
+
+    /**
+     * Applies a mutation now, or queues it when it cannot reach the server or earlier mutations
+     * have not been sent yet. Callbacks run on the main thread and exactly one of them is called.
+     * @param operation the mutation
+     * @param onApplied callback when the server has stored it
+     * @param onQueued callback when it was journaled and will be sent later; receives true when
+     *                 the server could not be reached, false when it waits behind earlier mutations
+     * @param onRejected callback when the server refused it; nothing is queued
+     */
+    public void submit(PendingOperation operation, Runnable onApplied, Consumer<Boolean> onQueued,
+                       Consumer<Exception> onRejected) {
+        boolean behind;
+        synchronized (this) {
+            // Older operations are still being sent or waiting; keep the user's order
+            behind = inFlight != null || !operations.isEmpty();
+            if (!behind) {
+                inFlight = operation;
+            }
+        }
+        if (behind) {
+            enqueue(operation);
+            onQueued.accept(false);
+            return;
+        }
+        apply(operation).addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                finishInFlight(null);
+                onApplied.run();
+                return;
+            }
+            Exception e = task.getException();
+            if (PendingOperation.isTransient(e)) {
+                Log.i(TAG, "Queueing " + operation.getType() + " " + operation.getKey(), e);
+                finishInFlight(operation);
+                onQueued.accept(true);
+            } else {
+                finishInFlight(null);
+                onRejected.accept(e);
+            }
+        });
+    }
+
+    /**
+     * Ends the direct attempt of the in-flight operation and schedules a replay of anything that
+     * was queued behind it.
+     * @param retry the operation to journal ahead of those, or null when it was answered
+     */
+    private void finishInFlight(PendingOperation retry) {
+        boolean replay;
+        synchronized (this) {
+            inFlight = null;
+            if (retry != null && indexOf(retry.getKey()) < 0) {
+                operations.add(0, retry);
+                save();
+            }
+            replay = !operations.isEmpty();
+        }
+        if (replay) {
+            scheduleReplay((long) (random.nextDouble() * QUEUED_JITTER_MILLIS));
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * @return the oldest queued operation, or null when the journal is empty
+     */
+    synchronized PendingOperation peek() {
+        return operations.isEmpty() ? null : operations.get(0);
+    }
+
+    /**
+     * Appends an operation and schedules a replay, unless an operation is in flight, which
+     * schedules it once answered. An operation whose key is already journaled is not added twice.
+     */
+    void enqueue(PendingOperation operation) {
+        synchronized (this) {
+            if (indexOf(operation.getKey()) >= 0) return;
+            operations.add(operation);
+            save();
+            if (inFlight != null) return;
+        }
+        scheduleReplay((long) (random.nextDouble() * QUEUED_JITTER_MILLIS));
+    }
+
+    /**
+     * Drops an operation once it is applied or rejected.
+     */
+    synchronized void remove(PendingOperation operation) {
+        operations.removeIf(queued -> queued.getKey().equals(operation.getKey()));
+        save();
+    }
+
+    /**
+     * Records a failed attempt of the oldest operation and schedules the next replay.
+     * @return the updated operation
+     */
+    PendingOperation retryLater(PendingOperation operation) {
+        PendingOperation retried = operation.withAttempt();
+        synchronized (this) {
+            int index = indexOf(operation.getKey());
+            if (index >= 0) {
+                operations.set(index, retried);
+                save();
+            }
+        }
+        scheduleReplay(backoffMillis(retried.getAttempts(), random.nextDouble()));
+        return retried;
+    }
+
+    private int indexOf(String key) {
+        for (int i = 0; i < operations.size(); i++) {
+            if (operations.get(i).getKey().equals(key)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Starts one operation against Firestore through the existing services. The services expect
+     * to be called on the main thread, so the work is posted there; the returned task completes
+     * with the service's callback.
+     */
+    Task<Void> apply(PendingOperation operation) {
+        TaskCompletionSource<Void> result = new TaskCompletionSource<>();
+        Runnable done = () -> result.trySetResult(null);
+        Consumer<Exception> failed = result::trySetException;
+        mainHandler.post(() -> {
+            switch (operation.getType()) {
+                case JOIN:
+                    new FirebaseWaitlistService().addEntrant(operation.getEventId(), operation.toEntrant(), done, failed);
+                    break;
+                case LEAVE:
+                    new FirebaseWaitlistService().removeEntrant(operation.getEventId(), operation.getUserId(), done, failed);
+                    break;
+                case ACCEPT:
+                    new FirebaseNotificationService().markAsAccepted(operation.getNotification(), done, failed);
+                    break;
+                case DECLINE:
+                    new FirebaseNotificationService().markAsDeclined(operation.getNotification(), done, failed);
+                    break;
+                case ADD_ATTENDEE:
+                    new FirebaseEventService().addAttendee(operation.getEventId(), operation.getUserId(), done, failed);
+                    break;
+                case STATUS_CHANGE:
+                    new FirebaseWaitlistService().updateEntrantStatus(operation.getEventId(), operation.getUserId(),
+                            operation.getStatus(), done, failed);
+                    break;
+            }
+        });
+        return result.getTask();
+    }
+
+    private void scheduleReplay(long delayMillis) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(OperationReplayWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setInitialDelay(delayMillis, TimeUnit.MILLISECONDS)
+                .build();
+        // Appending keeps a single replay running at a time; a replay that finds the journal
+        // empty finishes at once
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    /**
+     * Delay before retry number attempt: the base delay doubled per attempt, capped, of which
+     * the upper half is random ("equal jitter").
+     * @param attempt failed attempts so far, at least 1
+     * @param jitter random value in [0, 1)
+     * @return delay in milliseconds
+     */
+    static long backoffMillis(int attempt, double jitter) {
+        long ceiling = BASE_BACKOFF_MILLIS << Math.min(Math.max(attempt, 1) - 1, 20);
+        ceiling = Math.min(ceiling, MAX_BACKOFF_MILLIS);
+        long half = ceiling / 2;
+        return half + (long) (half * jitter);
+    }
+
+    private void load() {
+        String stored = store.getString(KEY_OPERATIONS, null);
+        if (stored == null) return;
+        try {
+            JSONArray array = new JSONArray(stored);
+            for (int i = 0; i < array.length(); i++) {
+                operations.add(PendingOperation.fromJson(array.getJSONObject(i)));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Discarding unreadable operation journal", e);
+            operations.clear();
+        }
+    }
+
+    private void save() {
+        try {
+            JSONArray array = new JSONArray();
+            for (PendingOperation operation : operations) {
+                array.put(operation.toJson());
+            }
+            // commit rather than apply: a queued sign-up must be on disk before the user is told
+            // it will be sent later
+            store.edit().putString(KEY_OPERATIONS, array.toString()).commit();
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to write operation journal", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.carbon;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Background job that replays the {@link OperationJournal} in order. It is scheduled with a
+ * connectivity constraint, so it only starts once the device is online. Operations are applied
+ * one at a time; the first transient failure stops the run and schedules the next one after a
+ * backoff, so later operations never overtake it.
+ * Outstanding issues: operations are replayed with whichever account is signed in at the time,
+ * so those of a user who signed out in the meantime are rejected and dropped.
+ */
+public class OperationReplayWorker extends Worker {
+    private static final String TAG = "OperationReplayWorker";
+    private static final long OPERATION_TIMEOUT_SECONDS = 30;
+
+    public OperationReplayWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        OperationJournal journal = OperationJournal.getInstance();
+        PendingOperation operation;
+        while ((operation = journal.peek()) != null && !isStopped()) {
+            try {
+                Tasks.await(journal.apply(operation), OPERATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                Log.i(TAG, "Replayed " + operation.getType() + " " + operation.getKey());
+                journal.remove(operation);
+            } catch (ExecutionException | TimeoutException e) {
+                Exception cause = e instanceof ExecutionException && e.getCause() instanceof Exception
+                        ? (Exception) e.getCause() : e;
+                if (operation.isAlreadyApplied(cause)) {
+                    Log.i(TAG, "Already applied " + operation.getType() + " " + operation.getKey());
+                    journal.remove(operation);
+                } else if (PendingOperation.isTransient(cause)) {
+                    PendingOperation retried = journal.retryLater(operation);
+                    Log.w(TAG, "Replay of " + operation.getKey() + " failed, attempt " + retried.getAttempts(), cause);
+                    return Result.success();
+                } else {
+                    Log.e(TAG, "Dropping rejected " + operation.getType() + " " + operation.getKey(), cause);
+                    journal.remove(operation);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Result.retry();
+            }
+        }
+        // Stopped by the system before the journal drained; run again later
+        return isStopped() && !journal.isEmpty() ? Result.retry() : Result.success();
+    }
+}
@@ -16,11 +16,9 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 
 import com.bumptech.glide.Glide;
-import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
-import com.google.firebase.storage.FirebaseStorage;
-import com.google.firebase.storage.StorageReference;
 
 import java.text.SimpleDateFormat;
 import java.util.Locale;
@@ -48,6 +46,7 @@ public class OrganizerEventDetailsActivity extends AppCompatActivity {
     private Event currentEvent;
     private Handler countdownHandler;
     private Runnable countdownRunnable;
+    private EventStore.Subscription eventSubscription;
     private ActivityResultLauncher<Intent> posterPickerLauncher;
     private Uri pendingPosterUri;
 
@@ -105,72 +104,70 @@ public class OrganizerEventDetailsActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads the event based on the passed ID and updates the titles and strings for user visualization
+     * Shows the event the organizer's list already loaded, then watches its document so edits
+     * such as a new poster appear without reloading the screen
      * @param eventId The ID of the event to view the waitlist of
      *
      * @author Cooper Goddard
      */
     private void loadEventDataFromFirestore(String eventId) {
         Log.d("Event DB", eventId);
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-
-        // Reference the correct document in the 'events' collection using the eventId
-        Query query = db.collection("events").whereEqualTo("uuid", eventId).limit(1);
-
-        query.get().addOnCompleteListener(task -> {
-            if (task.isSuccessful()) {
-                // Check if the query returned any results
-                if (!task.getResult().isEmpty()) {
-                    // Get the first (and only, otherwise something is very wrong lol) document from the query result
-                    DocumentSnapshot document = task.getResult().getDocuments().get(0);
-
-                    // Convert the document into an Event object
-                    Event event = document.toObject(Event.class);
-                    currentEvent = event;
-                    OrganizerEventDetailsActivity.this.eventId = event.getUuid();
-                    OrganizerEventDetailsActivity.this.eventDocId = document.getId();
-
-                    tvTitle.setText(event.getTitle());
-                    if (event.getEventDate() != null) {
-                        // Format date and time
-                        SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.US);
-                        SimpleDateFormat timeFormat = new SimpleDateFormat("h a", Locale.US); // e.g., "9 AM", "2 PM"
-                        String dateStr = dateFormat.format(event.getEventDate());
-                        String timeStr = timeFormat.format(event.getEventDate()).toLowerCase();
-                        tvDate.setText(dateStr + " at " + timeStr);
 
-                    }
-
-                    // Display description
-                    if (event.getDescription() != null && !event.getDescription().isEmpty()) {
-                        tvDescription.setText(event.getDescription());
-                    } else {
-                        tvDescription.setText("No description available.");
-                    }
-
-                    String imageUrl = event.getImageURL();
-                    if (imageUrl != null && !imageUrl.isEmpty()) {
-                        Glide.with(this)
-                                .load(imageUrl)
-                                .placeholder(R.drawable.carbon_start_logo) // Show this while loading
-                                .error(R.drawable.ic_delete) // Show this if loading fails
-                                .into(tvPoster);
-                    } else {
-                        // If there's no image URL, you can hide the ImageView or keep the placeholder
-                        tvPoster.setImageResource(R.drawable.carbon_start_logo);
-                    }
-
-                } else {
-                    Toast.makeText(OrganizerEventDetailsActivity.this, "Event not found.", Toast.LENGTH_SHORT).show();
-                    finish();
-                }
+        Event stored = EventStore.getInstance().peek(eventId);
+        if (stored != null) {
+            showEvent(stored);
+        }
+        eventSubscription = EventStore.getInstance().watch(eventId, (docId, event, stale) -> {
+            UIHelper.showStaleIndicator(this, stale);
+            OrganizerEventDetailsActivity.this.eventDocId = docId;
+            showEvent(event);
+        }, e -> {
+            if (e instanceof EventIdResolver.EventNotFoundException) {
+                Toast.makeText(OrganizerEventDetailsActivity.this, "Event not found.", Toast.LENGTH_SHORT).show();
             } else {
                 Toast.makeText(OrganizerEventDetailsActivity.this, "Failed to load event data.", Toast.LENGTH_SHORT).show();
-                finish();
             }
+            finish();
         });
     }
 
+    /**
+     * Renders the title, date, description and poster of an event.
+     */
+    private void showEvent(Event event) {
+        currentEvent = event;
+        eventId = event.getUuid();
+
+        tvTitle.setText(event.getTitle());
+        if (event.getEventDate() != null) {
+            // Format date and time
+            SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy", Locale.US);
+            SimpleDateFormat timeFormat = new SimpleDateFormat("h a", Locale.US); // e.g., "9 AM", "2 PM"
+            String dateStr = dateFormat.format(event.getEventDate());
+            String timeStr = timeFormat.format(event.getEventDate()).toLowerCase();
+            tvDate.setText(dateStr + " at " + timeStr);
+
+        }
+
+        // Display description
+        if (event.getDescription() != null && !event.getDescription().isEmpty()) {
+            tvDescription.setText(event.getDescription());
+        } else {
+            tvDescription.setText("No description available.");
+        }
+
+        String imageUrl = event.getImageURL();
+        if (imageUrl != null && !imageUrl.isEmpty()) {
+            CarbonGlideModule.eventPoster(Glide.with(this), event)
+                    .placeholder(R.drawable.carbon_start_logo) // Show this while loading
+                    .error(R.drawable.ic_delete) // Show this if loading fails
+                    .into(tvPoster);
+        } else {
+            // If there's no image URL, you can hide the ImageView or keep the placeholder
+            tvPoster.setImageResource(R.drawable.carbon_start_logo);
+        }
+    }
+
 
     @Override
     protected void onDestroy() {
@@ -178,6 +175,9 @@ public class OrganizerEventDetailsActivity extends AppCompatActivity {
         if (countdownHandler != null && countdownRunnable != null) {
             countdownHandler.removeCallbacks(countdownRunnable);
         }
+        if (eventSubscription != null) {
+            eventSubscription.remove();
+        }
     }
 
     /**
@@ -214,42 +214,40 @@ public class OrganizerEventDetailsActivity extends AppCompatActivity {
             return;
         }
 
-        String fileName = "event_posters/" + eventId + "-" + UUID.randomUUID() + ".jpg";
-        StorageReference ref = FirebaseStorage.getInstance().getReference(fileName);
-
-        ref.putFile(uri)
-                .addOnSuccessListener(taskSnapshot -> ref.getDownloadUrl().addOnSuccessListener(downloadUri -> {
-                    String url = downloadUri.toString();
-                    updatePosterUrlInEvent(url);
-                }).addOnFailureListener(e ->
-                        Toast.makeText(this, "Failed to get poster URL", Toast.LENGTH_LONG).show()))
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, "Poster upload failed", Toast.LENGTH_LONG).show());
+        String basePath = "event_posters/" + eventId + "-" + UUID.randomUUID();
+        new ImageIngestor(this).uploadPoster(uri, basePath,
+                uploaded -> {
+                    recordPoster(uploaded);
+                    updatePosterUrlInEvent(uploaded.imageUrl, uploaded.thumbnailUrl);
+                },
+                e -> Toast.makeText(this, "Poster upload failed", Toast.LENGTH_LONG).show());
     }
 
-    private void updatePosterUrlInEvent(String url) {
+    private void recordPoster(ImageIngestor.UploadedPoster uploaded) {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        Poster poster = FirebasePosterService.newPoster(uploaded.imageUrl, uploaded.thumbnailUrl, eventId,
+                user != null ? user.getUid() : null);
+        // The poster stays usable without its manifest entry; the admin reconcile adds it later
+        new FirebasePosterService().record(poster, () -> {},
+                e -> Log.w("OrganizerEventDetails", "Failed to record poster", e));
+    }
+
+    private void updatePosterUrlInEvent(String url, String thumbnailUrl) {
         if (eventDocId == null || eventDocId.isEmpty()) {
             // fallback lookup by uuid
-            FirebaseFirestore.getInstance().collection("events")
-                    .whereEqualTo("uuid", eventId)
-                    .limit(1)
-                    .get()
-                    .addOnSuccessListener(snap -> {
-                        if (!snap.isEmpty()) {
-                            eventDocId = snap.getDocuments().get(0).getId();
-                            writePosterUrl(url);
-                        }
-                    })
-                    .addOnFailureListener(e -> Toast.makeText(this, "Failed to update poster", Toast.LENGTH_LONG).show());
+            EventIdResolver.getInstance().resolve(eventId, docId -> {
+                eventDocId = docId;
+                writePosterUrl(url, thumbnailUrl);
+            }, e -> Toast.makeText(this, "Failed to update poster", Toast.LENGTH_LONG).show());
         } else {
-            writePosterUrl(url);
+            writePosterUrl(url, thumbnailUrl);
         }
     }
 
-    private void writePosterUrl(String url) {
+    private void writePosterUrl(String url, String thumbnailUrl) {
         FirebaseFirestore.getInstance().collection("events")
                 .document(eventDocId)
-                .update("imageURL", url)
+                .update("imageURL", url, "thumbnailURL", thumbnailUrl)
                 .addOnSuccessListener(aVoid -> Toast.makeText(this, "Poster updated", Toast.LENGTH_SHORT).show())
                 .addOnFailureListener(e -> Toast.makeText(this, "Failed to save poster", Toast.LENGTH_LONG).show());
     }
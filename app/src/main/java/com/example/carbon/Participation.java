@@ -0,0 +1,56 @@
+package com.example.carbon;
+
+import java.util.Date;
+
+/**
+ * Entry of the users/{userId}/participations index, one document per event the user is on the
+ * waitlist of, keyed by the event document ID. It is written together with the entrant record by
+ * {@link FirebaseWaitlistService} so the history and upcoming-event screens can run one
+ * date-ordered query instead of scanning every event.
+ */
+public class Participation {
+    private String eventDocId;
+    private String eventUuid;
+    private String status;
+    private Date eventDate;
+    private Date updatedAt;
+
+    /** Firestore requires a no-argument constructor. */
+    public Participation() {}
+
+    /**
+     * @param eventDocId Firestore document ID of the event
+     * @param eventUuid UUID of the event
+     * @param status the user's entrant status
+     * @param eventDate scheduled date of the event, used for ordering
+     */
+    public Participation(String eventDocId, String eventUuid, String status, Date eventDate) {
+        this.eventDocId = eventDocId;
+        this.eventUuid = eventUuid;
+        this.status = status;
+        this.eventDate = eventDate;
+        this.updatedAt = new Date();
+    }
+
+    /** @return Firestore document ID of the event */
+    public String getEventDocId() { return eventDocId; }
+    /** @return UUID of the event */
+    public String getEventUuid() { return eventUuid; }
+    /** @return the user's entrant status */
+    public String getStatus() { return status; }
+    /** @return scheduled date of the event */
+    public Date getEventDate() { return eventDate; }
+    /** @return when this entry was last written */
+    public Date getUpdatedAt() { return updatedAt; }
+
+    /** @param eventDocId Firestore document ID of the event */
+    public void setEventDocId(String eventDocId) { this.eventDocId = eventDocId; }
+    /** @param eventUuid UUID of the event */
+    public void setEventUuid(String eventUuid) { this.eventUuid = eventUuid; }
+    /** @param status the user's entrant status */
+    public void setStatus(String status) { this.status = status; }
+    /** @param eventDate scheduled date of the event */
+    public void setEventDate(Date eventDate) { this.eventDate = eventDate; }
+    /** @param updatedAt when this entry was last written */
+    public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,238 @@
+package com.example.carbon;
+
+import com.google.firebase.FirebaseNetworkException;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One event or waitlist mutation recorded in the {@link OperationJournal}. Each operation carries
+ * a random idempotency key, assigned when the user acts, that identifies it across retries and
+ * app restarts. Every operation is also safe to apply twice: a join that finds the entrant
+ * already stored counts as applied, an answer that finds the entrant already in the answered
+ * status changes nothing, and a replayed decline only finishes the replacement draw it still
+ * owes.
+ * Outstanding issues: only the fields needed to replay the supported types are stored.
+ */
+public class PendingOperation {
+
+    /**
+     * The mutations that can be journaled.
+     */
+    public enum Type { JOIN, LEAVE, ACCEPT, DECLINE, ADD_ATTENDEE, STATUS_CHANGE }
+
+    private final String key;
+    private final Type type;
+    // Event document ID, except for ADD_ATTENDEE which takes the event UUID
+    private final String eventId;
+    private final String userId;
+    // New entrant status for STATUS_CHANGE
+    private final String status;
+    // Registration date for JOIN
+    private final Date registrationDate;
+    // The invitation being answered for ACCEPT and DECLINE
+    private final Notification notification;
+    private final Date createdAt;
+    private final int attempts;
+
+    private PendingOperation(String key, Type type, String eventId, String userId, String status,
+                             Date registrationDate, Notification notification, Date createdAt, int attempts) {
+        this.key = key;
+        this.type = type;
+        this.eventId = eventId;
+        this.userId = userId;
+        this.status = status;
+        this.registrationDate = registrationDate;
+        this.notification = notification;
+        this.createdAt = createdAt;
+        this.attempts = attempts;
+    }
+
+    private static PendingOperation create(Type type, String eventId, String userId, String status,
+                                           Date registrationDate, Notification notification) {
+        return new PendingOperation(UUID.randomUUID().toString(), type, eventId, userId, status,
+                registrationDate, notification, new Date(), 0);
+    }
+
+    /**
+     * @param eventDocId Firestore document ID of the event
+     * @param entrant entrant joining the waitlist
+     * @return operation adding the entrant
+     */
+    public static PendingOperation join(String eventDocId, WaitlistEntrant entrant) {
+        return create(Type.JOIN, eventDocId, entrant.getUserId(), null, entrant.getRegistrationDate(), null);
+    }
+
+    /**
+     * @param eventDocId Firestore document ID of the event
+     * @param userId entrant leaving the waitlist
+     * @return operation removing the entrant
+     */
+    public static PendingOperation leave(String eventDocId, String userId) {
+        return create(Type.LEAVE, eventDocId, userId, null, null, null);
+    }
+
+    /**
+     * @param notification invitation being accepted; its ID must be set
+     * @return operation accepting the invitation
+     */
+    public static PendingOperation accept(Notification notification) {
+        return create(Type.ACCEPT, notification.getEventId(), notification.getUserId(), null, null, notification);
+    }
+
+    /**
+     * @param notification invitation being declined; its ID must be set
+     * @return operation declining the invitation
+     */
+    public static PendingOperation decline(Notification notification) {
+        return create(Type.DECLINE, notification.getEventId(), notification.getUserId(), null, null, notification);
+    }
+
+    /**
+     * @param eventUuid UUID of the event (a document ID is also accepted)
+     * @param userId user added to the attendee list
+     * @return operation adding the attendee
+     */
+    public static PendingOperation addAttendee(String eventUuid, String userId) {
+        return create(Type.ADD_ATTENDEE, eventUuid, userId, null, null, null);
+    }
+
+    /**
+     * @param eventDocId Firestore document ID of the event
+     * @param userId entrant whose status changes
+     * @param status the new status
+     * @return operation changing the entrant status
+     */
+    public static PendingOperation statusChange(String eventDocId, String userId, String status) {
+        return create(Type.STATUS_CHANGE, eventDocId, userId, status, null, null);
+    }
+
+    /**
+     * @return a copy with one more failed attempt recorded
+     */
+    PendingOperation withAttempt() {
+        return new PendingOperation(key, type, eventId, userId, status, registrationDate, notification,
+                createdAt, attempts + 1);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Notification getNotification() {
+        return notification;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return the entrant stored by a JOIN
+     */
+    public WaitlistEntrant toEntrant() {
+        return new WaitlistEntrant(userId, registrationDate);
+    }
+
+    /**
+     * @return true when the failure may go away on its own, e.g. no connection or a contended
+     * document; rejections such as a closed waitlist are permanent
+     */
+    static boolean isTransient(Exception e) {
+        if (e instanceof FirebaseNetworkException || e instanceof TimeoutException) return true;
+        if (!(e instanceof FirebaseFirestoreException)) return false;
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) e).getCode();
+        return code == FirebaseFirestoreException.Code.UNAVAILABLE
+                || code == FirebaseFirestoreException.Code.DEADLINE_EXCEEDED
+                || code == FirebaseFirestoreException.Code.ABORTED;
+    }
+
+    /**
+     * @return true when the failure means an earlier attempt of this operation already went through
+     */
+    boolean isAlreadyApplied(Exception e) {
+        return type == Type.JOIN && e instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.ALREADY_EXISTS;
+    }
+
+    JSONObject toJson() throws JSONException {
+        JSONObject json = new JSONObject()
+                .put("key", key)
+                .put("type", type.name())
+                .put("eventId", eventId)
+                .put("userId", userId)
+                .put("createdAt", createdAt.getTime())
+                .put("attempts", attempts);
+        if (status != null) json.put("status", status);
+        if (registrationDate != null) json.put("registrationDate", registrationDate.getTime());
+        if (notification != null) {
+            json.put("notification", new JSONObject()
+                    .put("id", notification.getId())
+                    .put("userId", notification.getUserId())
+                    .put("eventId", notification.getEventId())
+                    .put("eventName", notification.getEventName())
+                    .put("message", notification.getMessage())
+                    .put("status", notification.getStatus() != null ? notification.getStatus().name() : null)
+                    .put("type", notification.getType()));
+            // Notifications read from documents without the field have no creation date
+            if (notification.getCreated_at() != null) {
+                json.getJSONObject("notification").put("createdAt", notification.getCreated_at().getTime());
+            }
+        }
+        return json;
+    }
+
+    static PendingOperation fromJson(JSONObject json) throws JSONException {
+        Notification notification = null;
+        JSONObject n = json.optJSONObject("notification");
+        if (n != null) {
+            String notificationStatus = n.optString("status", null);
+            notification = new Notification(
+                    n.getString("id"),
+                    n.optString("userId", null),
+                    n.optString("eventId", null),
+                    n.optString("eventName", null),
+                    n.optString("message", null),
+                    notificationStatus != null ? NotificationStatus.valueOf(notificationStatus) : null,
+                    null,
+                    n.optString("type", null));
+            // The constructor defaults a missing date to now; keep it missing as it was journaled
+            notification.setCreated_at(n.has("createdAt") ? new Date(n.optLong("createdAt")) : null);
+        }
+        return new PendingOperation(
+                json.getString("key"),
+                Type.valueOf(json.getString("type")),
+                json.optString("eventId", null),
+                json.optString("userId", null),
+                json.optString("status", null),
+                json.has("registrationDate") ? new Date(json.getLong("registrationDate")) : null,
+                notification,
+                new Date(json.getLong("createdAt")),
+                json.optInt("attempts"));
+    }
+}
@@ -1,22 +1,42 @@
 package com.example.carbon;
 
+import com.google.firebase.firestore.DocumentId;
+import com.google.firebase.firestore.Exclude;
+import com.google.firebase.firestore.ServerTimestamp;
+
 /**
- * Data model representing an uploaded event poster asset.
+ * Data model representing an uploaded event poster asset, stored as an entry of the "posters"
+ * manifest (see {@link FirebasePosterService}).
  * Outstanding issues: timestamp is stored as Firebase type and should be normalized on read.
  */
 public class Poster {
+    @DocumentId
+    private String id;
     private String imageUrl;
+    private String thumbnailUrl;
     private String eventId;
     private String uploadedBy;
+    @ServerTimestamp
     private com.google.firebase.Timestamp timestamp;
 
     /** Empty constructor for Firestore deserialization. */
     public Poster() {}
 
+    /** @return manifest document ID, the Storage file name of the image */
+    public String getId() { return id; }
+    /** @param id manifest document ID */
+    public void setId(String id) { this.id = id; }
     /** @return stored image URL */
     public String getImageUrl() { return imageUrl; }
     /** @param imageUrl URL of uploaded asset */
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    /** @return URL of the downscaled copy, or null for posters uploaded without one */
+    public String getThumbnailUrl() { return thumbnailUrl; }
+    /** @param thumbnailUrl URL of the downscaled copy */
+    public void setThumbnailUrl(String thumbnailUrl) { this.thumbnailUrl = thumbnailUrl; }
+    /** @return the thumbnail when there is one, otherwise the full image */
+    @Exclude
+    public String getListImageUrl() { return thumbnailUrl != null ? thumbnailUrl : imageUrl; }
     /** @return owning event id */
     public String getEventId() { return eventId; }
     /** @param eventId identifier of related event */
@@ -25,4 +45,8 @@ public class Poster {
     public String getUploadedBy() { return uploadedBy; }
     /** @param uploadedBy id of uploader */
     public void setUploadedBy(String uploadedBy) { this.uploadedBy = uploadedBy; }
+    /** @return upload time, filled in by the server when the entry is written */
+    public com.google.firebase.Timestamp getTimestamp() { return timestamp; }
+    /** @param timestamp upload time */
+    public void setTimestamp(com.google.firebase.Timestamp timestamp) { this.timestamp = timestamp; }
 }
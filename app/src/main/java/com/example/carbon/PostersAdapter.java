@@ -1,10 +1,13 @@
 package com.example.carbon;
 
 /**
- * RecyclerView adapter for event posters, supporting deletion and preview taps.
+ * RecyclerView adapter for event posters, supporting deletion and preview taps. It also provides
+ * the poster requests to a {@link RecyclerViewPreloader} so the next rows load ahead of scrolling;
+ * bound and preloaded requests are built the same way and share their cache entries.
  * Outstanding issues: assumes external logic handles storage cleanup.
  */
 
+import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,20 +16,62 @@ import android.widget.ImageView;
 import android.widget.ProgressBar;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
 import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
-public class PostersAdapter extends RecyclerView.Adapter<PostersAdapter.ViewHolder> {
+public class PostersAdapter extends ListAdapter<Poster, PostersAdapter.ViewHolder>
+        implements ListPreloader.PreloadModelProvider<Poster> {
 
-    private final List<Poster> posters = new ArrayList<>();
+    /** Change payload for rows that only need their delete button refreshed */
+    private static final Object PAYLOAD_EDIT_MODE = new Object();
+
+    private final StableIds stableIds = new StableIds();
+    private final RequestManager glide;
+    // Takes the cell size from the first bound poster so preloads decode at the same size
+    private final ViewPreloadSizeProvider<Poster> sizeProvider = new ViewPreloadSizeProvider<>();
     private OnDeleteClickListener deleteListener;
     private boolean isEditMode = false;
 
+    private static final DiffUtil.ItemCallback<Poster> DIFF = new DiffUtil.ItemCallback<Poster>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Poster oldItem, @NonNull Poster newItem) {
+            return Objects.equals(oldItem.getImageUrl(), newItem.getImageUrl());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Poster oldItem, @NonNull Poster newItem) {
+            // the row only shows the list image behind the URLs
+            return Objects.equals(oldItem.getListImageUrl(), newItem.getListImageUrl());
+        }
+    };
+
+    /**
+     * @param glide request manager of the screen showing the posters
+     */
+    public PostersAdapter(RequestManager glide) {
+        super(DIFF);
+        this.glide = glide;
+        setHasStableIds(true);
+    }
+
+    /** @return size provider to pass to the {@link RecyclerViewPreloader} of this adapter */
+    public ViewPreloadSizeProvider<Poster> getPreloadSizeProvider() {
+        return sizeProvider;
+    }
+
     public interface OnDeleteClickListener {
         void onDelete(Poster poster, int position);
     }
@@ -36,14 +81,23 @@ public class PostersAdapter extends RecyclerView.Adapter<PostersAdapter.ViewHold
     }
 
     public void setEditMode(boolean editMode) {
+        if (isEditMode == editMode) return;
         isEditMode = editMode;
-        notifyDataSetChanged();
+        // Rebind only the delete buttons so Glide does not reload every poster
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_EDIT_MODE);
     }
 
+    /**
+     * Shows a new list of posters, diffed by image URL in the background.
+     * @param newList posters to display
+     */
     public void updateList(List<Poster> newList) {
-        posters.clear();
-        if (newList != null) posters.addAll(newList);
-        notifyDataSetChanged();
+        submitList(newList == null ? null : new ArrayList<>(newList));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idOf(getItem(position).getImageUrl());
     }
 
     @NonNull
@@ -51,19 +105,28 @@ public class PostersAdapter extends RecyclerView.Adapter<PostersAdapter.ViewHold
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_poster, parent, false);
-        return new ViewHolder(view);
+        ViewHolder holder = new ViewHolder(view);
+        sizeProvider.setView(holder.img);
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder h, int position, @NonNull List<Object> payloads) {
+        // A non-empty payload list only ever carries PAYLOAD_EDIT_MODE
+        if (!payloads.isEmpty()) {
+            h.btnDelete.setVisibility(isEditMode ? View.VISIBLE : View.GONE);
+        } else {
+            onBindViewHolder(h, position);
+        }
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder h, int position) {
-        Poster poster = posters.get(position);
+        Poster poster = getItem(position);
 
         h.progress.setVisibility(View.VISIBLE);
 
-        Glide.with(h.itemView.getContext())
-                .load(poster.getImageUrl())
-                .diskCacheStrategy(DiskCacheStrategy.ALL)
-                .timeout(15000)
+        requestFor(poster)
                 .placeholder(android.R.drawable.ic_menu_gallery)
                 .error(android.R.drawable.ic_menu_report_image)
                 .into(h.img);
@@ -80,9 +143,25 @@ public class PostersAdapter extends RecyclerView.Adapter<PostersAdapter.ViewHold
         });
     }
 
+    @NonNull
+    @Override
+    public List<Poster> getPreloadItems(int position) {
+        // The preloader may look past the end while the list is being replaced
+        if (position < 0 || position >= getItemCount()) return Collections.emptyList();
+        return Collections.singletonList(getItem(position));
+    }
+
     @Override
-    public int getItemCount() {
-        return posters.size();
+    public RequestBuilder<Drawable> getPreloadRequestBuilder(@NonNull Poster poster) {
+        return requestFor(poster);
+    }
+
+    /** The list thumbnail cropped like the cell, shared by binding and preloading. */
+    private RequestBuilder<Drawable> requestFor(Poster poster) {
+        return glide.load(poster.getListImageUrl())
+                .diskCacheStrategy(DiskCacheStrategy.ALL)
+                .timeout(15000)
+                .centerCrop();
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
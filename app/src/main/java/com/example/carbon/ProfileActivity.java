@@ -8,6 +8,7 @@ package com.example.carbon;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.util.Log;
 import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -24,13 +25,9 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.storage.FirebaseStorage;
-import com.google.firebase.storage.StorageReference;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 
@@ -77,20 +74,25 @@ public class ProfileActivity extends AppCompatActivity {
         String userId = currentUser != null ? currentUser.getUid() : null;
 
         if (userId != null) {
-            db.collection("users").document(userId)
-                    .get()
-                    .addOnSuccessListener(documentSnapshot -> {
-                        if (documentSnapshot.exists()) {
-                            Boolean enabled = documentSnapshot.getBoolean("notificationsEnabled");
-                            if (enabled != null) notificationSwitch.setChecked(enabled);
-                        }
-                    });
+            UserCache.getInstance().get(userId, new WaitlistEntrant.UserCallback() {
+                @Override
+                public void onUserFetched(User user) {
+                    Boolean enabled = user != null ? user.getNotificationsEnabled() : null;
+                    if (enabled != null) notificationSwitch.setChecked(enabled);
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    Log.w("ProfileActivity", "Failed to load notification preference", e);
+                }
+            });
         }
 
         notificationSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
             if (userId != null) {
                 db.collection("users").document(userId)
                         .update("notificationsEnabled", isChecked)
+                        .addOnSuccessListener(v -> UserCache.getInstance().invalidate(userId))
                         .addOnFailureListener(e ->
                                 Toast.makeText(ProfileActivity.this,
                                         "Failed to update notification preference",
@@ -125,28 +127,27 @@ public class ProfileActivity extends AppCompatActivity {
         setupAvatarPicker();
 
         if (currentUser != null) {
-            db.collection("users").document(userId)
-                    .get()
-                    .addOnSuccessListener(documentSnapshot -> {
-                        if (documentSnapshot.exists()) {
-                            String firstName = documentSnapshot.getString("firstName");
-                            String lastName = documentSnapshot.getString("lastName");
-                            String email = documentSnapshot.getString("email");
-                            avatarUrl = documentSnapshot.getString("avatarUrl");
-                            nameView.setText((firstName != null && lastName != null) ? firstName + " " + lastName : "Guest User");
-                            emailView.setText(email != null ? email : "guest@example.com");
-                            if (avatarUrl != null && !avatarUrl.isEmpty()) {
-                                Glide.with(this).load(avatarUrl).circleCrop().into(avatarView);
-                            }
-                        } else {
-                            nameView.setText("Guest User");
-                            emailView.setText("guest@example.com");
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        nameView.setText("Guest User");
-                        emailView.setText("guest@example.com");
-                    });
+            UserCache.getInstance().get(userId, new WaitlistEntrant.UserCallback() {
+                @Override
+                public void onUserFetched(User user) {
+                    String firstName = user.getFirstName();
+                    String lastName = user.getLastName();
+                    String email = user.getEmail();
+                    avatarUrl = user.getAvatarUrl();
+                    nameView.setText((firstName != null && lastName != null) ? firstName + " " + lastName : "Guest User");
+                    emailView.setText(email != null ? email : "guest@example.com");
+                    if (avatarUrl != null && !avatarUrl.isEmpty()) {
+                        Glide.with(ProfileActivity.this).load(avatarUrl).circleCrop().into(avatarView);
+                    }
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    // Missing document or failed read
+                    nameView.setText("Guest User");
+                    emailView.setText("guest@example.com");
+                }
+            });
         } else {
             nameView.setText("Guest User");
             emailView.setText("guest@example.com");
@@ -185,22 +186,26 @@ public class ProfileActivity extends AppCompatActivity {
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
         if (currentUser == null) return;
 
-        FirebaseFirestore.getInstance().collection("users").document(currentUser.getUid())
-                .get()
-                .addOnSuccessListener(doc -> {
-                    if (doc.exists()) {
-                        String firstName = doc.getString("firstName");
-                        String lastName = doc.getString("lastName");
-                        String email = doc.getString("email");
-                        avatarUrl = doc.getString("avatarUrl");
-
-                        ((TextView)findViewById(R.id.tv_profile_name)).setText(firstName + " " + lastName);
-                        ((TextView)findViewById(R.id.tv_profile_email)).setText(email);
-                        if (avatarUrl != null && !avatarUrl.isEmpty() && avatarView != null) {
-                            Glide.with(this).load(avatarUrl).circleCrop().into(avatarView);
-                        }
-                    }
-                });
+        UserCache.getInstance().get(currentUser.getUid(), new WaitlistEntrant.UserCallback() {
+            @Override
+            public void onUserFetched(User user) {
+                String firstName = user.getFirstName();
+                String lastName = user.getLastName();
+                String email = user.getEmail();
+                avatarUrl = user.getAvatarUrl();
+
+                ((TextView)findViewById(R.id.tv_profile_name)).setText(firstName + " " + lastName);
+                ((TextView)findViewById(R.id.tv_profile_email)).setText(email);
+                if (avatarUrl != null && !avatarUrl.isEmpty() && avatarView != null) {
+                    Glide.with(ProfileActivity.this).load(avatarUrl).circleCrop().into(avatarView);
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.w("ProfileActivity", "Failed to refresh profile", e);
+            }
+        });
     }
 
 
@@ -223,6 +228,7 @@ public class ProfileActivity extends AppCompatActivity {
 
         db.collection("users").document(userId)
                 .delete()
+                .addOnSuccessListener(v -> UserCache.getInstance().invalidate(userId))
                 .addOnSuccessListener(v -> auth.getCurrentUser()
                         .delete()
                         .addOnSuccessListener(v2 -> {
@@ -243,48 +249,27 @@ public class ProfileActivity extends AppCompatActivity {
 
 
     /**
-     * Loads the upcoming events from Firestore for the current user
-     * and updates the RecyclerView adapter with the new list.
-     * Only events in the future are loaded.
+     * Loads the upcoming events for the current user from their participations index
+     * and updates the RecyclerView adapter with the new list, soonest first.
      */
     private void loadUpcomingEvents() {
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
         if (currentUser == null) return;
 
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        Date now = new Date();
-        String userId = currentUser.getUid();
-
-        db.collection("events")
-                .whereGreaterThan("eventDate", now) // still get future events only
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Event> userEvents = new ArrayList<>();
-
-                    for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                        Event event = doc.toObject(Event.class);
-
-                        if (event != null && event.getWaitlist() != null) {
-                            List<WaitlistEntrant> entrants = event.getWaitlist().getWaitlistEntrants();
-
-                            if (entrants != null) {
-                                for (WaitlistEntrant entrant : entrants) {
-                                    if (entrant != null && userId.equals(entrant.getUserId())) {
-
-                                        //Add event ONLY if THIS user is part of the waitlist
-                                        userEvents.add(event);
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-                    }
+        new FirebaseWaitlistService().fetchUpcomingParticipations(currentUser.getUid(), participations -> {
+            List<String> eventDocIds = new ArrayList<>();
+            for (Participation participation : participations) {
+                eventDocIds.add(participation.getEventDocId());
+            }
+            new EventList().fetchEventsByDocIds(eventDocIds,
+                    events -> upcomingEventsAdapter.submitList(new ArrayList<>(events.values())),
+                    this::onUpcomingEventsFailed);
+        }, this::onUpcomingEventsFailed);
+    }
 
-                    upcomingEventsAdapter.submitList(userEvents);
-                })
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, "Failed to load upcoming events", Toast.LENGTH_SHORT).show()
-                );
+    private void onUpcomingEventsFailed(Exception e) {
+        Log.w("ProfileActivity", "Failed to load upcoming events", e);
+        Toast.makeText(this, "Failed to load upcoming events", Toast.LENGTH_SHORT).show();
     }
 
     private void setupAvatarPicker() {
@@ -334,20 +319,19 @@ public class ProfileActivity extends AppCompatActivity {
             return;
         }
         String uid = currentUser.getUid();
-        StorageReference ref = FirebaseStorage.getInstance().getReference("avatars/" + uid + ".jpg");
-        ref.putFile(uri)
-                .addOnSuccessListener(task -> ref.getDownloadUrl().addOnSuccessListener(download -> {
-                    avatarUrl = download.toString();
+        new ImageIngestor(this).uploadImage(uri, "avatars/" + uid + ".jpg", ImageIngestor.AVATAR_MAX_EDGE, download -> {
+                    avatarUrl = download;
                     FirebaseFirestore.getInstance().collection("users")
                             .document(uid)
                             .update("avatarUrl", avatarUrl)
                             .addOnSuccessListener(v -> {
+                                UserCache.getInstance().invalidate(uid);
                                 Glide.with(this).load(avatarUrl).circleCrop().into(avatarView);
                                 Toast.makeText(this, "Profile photo updated", Toast.LENGTH_SHORT).show();
                             })
                             .addOnFailureListener(e -> Toast.makeText(this, "Failed to save photo", Toast.LENGTH_LONG).show());
-                }))
-                .addOnFailureListener(e -> Toast.makeText(this, "Photo upload failed", Toast.LENGTH_LONG).show());
+                },
+                e -> Toast.makeText(this, "Photo upload failed", Toast.LENGTH_LONG).show());
     }
 
     private void removeAvatar(String userId) {
@@ -358,7 +342,10 @@ public class ProfileActivity extends AppCompatActivity {
         FirebaseFirestore.getInstance().collection("users")
                 .document(userId)
                 .update("avatarUrl", null)
-                .addOnSuccessListener(v -> Toast.makeText(this, "Profile photo removed", Toast.LENGTH_SHORT).show())
+                .addOnSuccessListener(v -> {
+                    UserCache.getInstance().invalidate(userId);
+                    Toast.makeText(this, "Profile photo removed", Toast.LENGTH_SHORT).show();
+                })
                 .addOnFailureListener(e -> Toast.makeText(this, "Failed to remove photo", Toast.LENGTH_LONG).show());
     }
 
@@ -90,6 +90,7 @@ public class ProfileEditActivity extends AppCompatActivity {
                             "phone", phone
                     )
                     .addOnSuccessListener(a -> {
+                        UserCache.getInstance().invalidate(user.getUid());
                         Toast.makeText(this, "Profile updated!", Toast.LENGTH_SHORT).show();
                         finish();
                     })
@@ -0,0 +1,121 @@
+package com.example.carbon;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Keeps rendered event QR codes so opening a QR screen again does not re-encode the code.
+ * Bitmaps are keyed by event UUID and size, held in a small in-memory LRU and stored as PNGs in
+ * cacheDir/qr, which the system may clear under storage pressure. Encoding and disk access run on
+ * a background thread.
+ * Outstanding issues: codes of deleted events stay on disk until the system clears the cache.
+ */
+public class QRCodeCache {
+    private static final String TAG = "QRCodeCache";
+    // A 500x500 RGB_565 code is about 500 KB
+    private static final int MEMORY_BYTES = 4 * 1024 * 1024;
+
+    private static QRCodeCache instance;
+
+    private final File diskDir;
+    private final LruCache<String, Bitmap> memory = new LruCache<String, Bitmap>(MEMORY_BYTES) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private QRCodeCache(Context context) {
+        this.diskDir = new File(context.getCacheDir(), "qr");
+    }
+
+    /**
+     * @param context any context; only its cache directory is kept
+     * @return the shared cache
+     */
+    public static synchronized QRCodeCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new QRCodeCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the QR code of an event, rendering and storing it on a miss.
+     * @param eventUuid UUID of the event
+     * @param size width and height in pixels
+     * @param onLoaded receives the bitmap on the main thread, or null when encoding failed
+     */
+    public void load(UUID eventUuid, int size, Consumer<Bitmap> onLoaded) {
+        String key = keyOf(eventUuid, size);
+        Bitmap cached = memory.get(key);
+        if (cached != null) {
+            onLoaded.accept(cached);
+            return;
+        }
+        executor.execute(() -> {
+            Bitmap bitmap = get(eventUuid, size);
+            mainHandler.post(() -> onLoaded.accept(bitmap));
+        });
+    }
+
+    /**
+     * Blocking variant of {@link #load}; must not be called on the main thread.
+     * @param eventUuid UUID of the event
+     * @param size width and height in pixels
+     * @return the bitmap, or null when encoding failed
+     */
+    public Bitmap get(UUID eventUuid, int size) {
+        String key = keyOf(eventUuid, size);
+        Bitmap bitmap = memory.get(key);
+        if (bitmap != null) return bitmap;
+
+        File file = new File(diskDir, key + ".png");
+        if (file.exists()) {
+            bitmap = BitmapFactory.decodeFile(file.getPath());
+        }
+        if (bitmap == null) {
+            bitmap = QRCodeGenerator.generateQRCode(eventUuid, size);
+            if (bitmap == null) return null;
+            writeDisk(file, bitmap);
+        }
+        memory.put(key, bitmap);
+        return bitmap;
+    }
+
+    private void writeDisk(File file, Bitmap bitmap) {
+        if (!diskDir.exists() && !diskDir.mkdirs()) return;
+        File partial = new File(diskDir, file.getName() + ".part");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(partial))) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to store " + file.getName(), e);
+            partial.delete();
+            return;
+        }
+        if (!partial.renameTo(file)) {
+            partial.delete();
+        }
+    }
+
+    private static String keyOf(UUID eventUuid, int size) {
+        return eventUuid + "_" + size;
+    }
+}
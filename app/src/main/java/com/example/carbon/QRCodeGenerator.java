@@ -5,6 +5,7 @@ import android.graphics.Color;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
@@ -24,7 +25,7 @@ public class QRCodeGenerator {
 
     // Define custom link within app
     private static final String APP_SCHEME = "carbondate://events/"; //TODO fix this with proper link
-    private static final int QR_SIZE = 500; // 500x500 pixels
+    static final int QR_SIZE = 500; // 500x500 pixels
 
     /**
      * Generates a Bitmap image of a QR code that encodes the event's deep link.
@@ -34,6 +35,35 @@ public class QRCodeGenerator {
      * @author Cooper Goddard
      */
     public static Bitmap generateQRCode(UUID eventUuid) {
+        return generateQRCode(eventUuid, QR_SIZE);
+    }
+
+    /**
+     * Generates a square QR code bitmap of the given size. Most callers should go through
+     * {@link QRCodeCache}, which keeps rendered codes.
+     * @param eventUuid The unique UUID of the event.
+     * @param size width and height in pixels
+     * @return A Bitmap representing the QR code, or null on failure.
+     */
+    public static Bitmap generateQRCode(UUID eventUuid, int size) {
+        BitMatrix bitMatrix = encode(eventUuid, size);
+        if (bitMatrix == null) return null;
+
+        // Fill one row-major buffer and hand it to the bitmap in a single call
+        int width = bitMatrix.getWidth();
+        int height = bitMatrix.getHeight();
+        Bitmap bmp = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        bmp.setPixels(toPixels(bitMatrix), 0, width, 0, 0, width, height);
+        return bmp;
+    }
+
+    /**
+     * Encodes the event's deep link.
+     * @param eventUuid The unique UUID of the event.
+     * @param size width and height in pixels
+     * @return the scaled QR matrix, or null on failure
+     */
+    static BitMatrix encode(UUID eventUuid, int size) {
         String content = APP_SCHEME + eventUuid.toString();
 
         Map<EncodeHintType, Object> hints = new HashMap<>();
@@ -43,31 +73,40 @@ public class QRCodeGenerator {
 
         try {
             // Encode the content into a BitMatrix
-            QRCodeWriter writer = new QRCodeWriter();
-            BitMatrix bitMatrix = writer.encode(
-                    content,
-                    BarcodeFormat.QR_CODE,
-                    QR_SIZE,
-                    QR_SIZE,
-                    hints
-            );
-
-            // Convert the BitMatrix to a Bitmap
-            int width = bitMatrix.getWidth();
-            int height = bitMatrix.getHeight();
-            Bitmap bmp = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
-
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    // Set black for data points, white for background
-                    bmp.setPixel(x, y, bitMatrix.get(x, y) ? Color.BLACK : Color.WHITE);
-                }
-            }
-            return bmp;
-
+            return new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, size, size, hints);
         } catch (WriterException e) {
             e.printStackTrace();
             return null;
         }
     }
+
+    /**
+     * Converts a matrix to ARGB pixels in row-major order, black for set bits and white otherwise.
+     * The matrix is scaled from QR modules, so consecutive rows often repeat; a repeated row is
+     * copied instead of being read bit by bit again.
+     * @param bitMatrix matrix to convert
+     * @return width * height pixels
+     */
+    static int[] toPixels(BitMatrix bitMatrix) {
+        int width = bitMatrix.getWidth();
+        int height = bitMatrix.getHeight();
+        int[] pixels = new int[width * height];
+        BitArray row = new BitArray(width);
+        BitArray previous = new BitArray(width);
+        for (int y = 0; y < height; y++) {
+            row = bitMatrix.getRow(y, row);
+            int offset = y * width;
+            if (y > 0 && row.equals(previous)) {
+                System.arraycopy(pixels, offset - width, pixels, offset, width);
+                continue;
+            }
+            for (int x = 0; x < width; x++) {
+                pixels[offset + x] = row.get(x) ? Color.BLACK : Color.WHITE;
+            }
+            BitArray swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return pixels;
+    }
 }
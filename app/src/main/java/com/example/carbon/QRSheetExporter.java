@@ -0,0 +1,267 @@
+package com.example.carbon;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.RectF;
+import android.graphics.pdf.PdfDocument;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.Log;
+import android.widget.Button;
+import android.widget.Toast;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Writes the QR codes of many events into one printable multi-page PDF in
+ * getExternalFilesDir("exports"). Each US Letter page holds a grid of codes with the event titles.
+ * Codes are rendered in parallel on a small fixed pool, one page at a time: while a page is drawn
+ * the next page is already rendering, and a page's bitmaps are recycled once drawn, so at most two
+ * pages of bitmaps exist at any time regardless of the number of events.
+ * Outstanding issues: PdfDocument keeps the drawn pages until the document is written, so very
+ * large sheets still grow with the number of pages; codes are not read from {@link QRCodeCache}
+ * because the sheet recycles its bitmaps.
+ */
+public class QRSheetExporter {
+    private static final String TAG = "QR_SHEET";
+    // US Letter in PostScript points
+    static final int PAGE_WIDTH = 612;
+    static final int PAGE_HEIGHT = 792;
+    static final int COLUMNS = 2;
+    static final int ROWS = 3;
+    static final int CODES_PER_PAGE = COLUMNS * ROWS;
+    // Rendered above the printed size so the codes stay sharp on paper
+    static final int RENDER_SIZE = 400;
+    private static final int MARGIN = 36;
+    private static final int TITLE_SIZE = 12;
+
+    private static final int RENDER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final ExecutorService RENDERER = Executors.newFixedThreadPool(RENDER_THREADS);
+    // One sheet at a time keeps at most two pages of bitmaps in memory
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor();
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Reports progress on the main thread.
+     */
+    public interface ProgressListener {
+        /**
+         * @param codesDrawn QR codes drawn so far
+         * @param total QR codes in the sheet
+         */
+        void onProgress(int codesDrawn, int total);
+    }
+
+    /**
+     * @param context any context; only the application context is kept
+     */
+    public QRSheetExporter(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Writes one QR code per event. Events without a valid UUID are skipped. Callbacks run on the
+     * main thread.
+     * @param events events to print; the list is copied
+     * @param fileName name of the file inside the exports directory, e.g. "qr_codes_{ownerId}.pdf"
+     * @param onProgress optional progress listener, may be null
+     * @param onDone receives the written file
+     * @param onError callback for errors; a partial file is deleted
+     */
+    public void export(List<Event> events, String fileName, ProgressListener onProgress,
+                       Consumer<File> onDone, Consumer<Exception> onError) {
+        List<Event> printable = new ArrayList<>();
+        for (Event event : events) {
+            if (parseUuid(event) != null) {
+                printable.add(event);
+            }
+        }
+        WRITER.execute(() -> {
+            File dir = context.getExternalFilesDir("exports");
+            if (dir == null) {
+                mainHandler.post(() -> onError.accept(new IOException("Cannot access external storage.")));
+                return;
+            }
+            File target = new File(dir, fileName);
+            File partial = new File(dir, fileName + ".part");
+            try {
+                writePages(printable, partial, onProgress);
+                if (target.exists() && !target.delete()) {
+                    throw new IOException("Cannot replace " + target);
+                }
+                if (!partial.renameTo(target)) {
+                    throw new IOException("Cannot rename " + partial);
+                }
+                Log.d(TAG, "Exported " + printable.size() + " QR codes to " + target);
+                mainHandler.post(() -> onDone.accept(target));
+            } catch (Exception e) {
+                Log.e(TAG, "Error exporting QR codes", e);
+                partial.delete();
+                mainHandler.post(() -> onError.accept(e));
+            }
+        });
+    }
+
+    private void writePages(List<Event> events, File file, ProgressListener onProgress) throws Exception {
+        PdfDocument document = new PdfDocument();
+        int pageCount = (events.size() + CODES_PER_PAGE - 1) / CODES_PER_PAGE;
+        List<Future<Bitmap>> next = pageCount > 0 ? render(events, 0) : null;
+        try {
+            for (int pageIndex = 0; pageIndex < pageCount; pageIndex++) {
+                List<Future<Bitmap>> current = next;
+                int start = pageIndex * CODES_PER_PAGE;
+                next = pageIndex + 1 < pageCount ? render(events, start + CODES_PER_PAGE) : null;
+
+                PdfDocument.PageInfo info = new PdfDocument.PageInfo.Builder(PAGE_WIDTH, PAGE_HEIGHT, pageIndex + 1).create();
+                PdfDocument.Page page = document.startPage(info);
+                drawPage(page.getCanvas(), events.subList(start, Math.min(start + CODES_PER_PAGE, events.size())), current);
+                document.finishPage(page);
+
+                if (onProgress != null) {
+                    int drawn = Math.min(start + CODES_PER_PAGE, events.size());
+                    mainHandler.post(() -> onProgress.onProgress(drawn, events.size()));
+                }
+            }
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                document.writeTo(out);
+            }
+        } finally {
+            if (next != null) {
+                discard(next);
+            }
+            document.close();
+        }
+    }
+
+    /** Queues the codes of the page starting at start on the render pool. */
+    private List<Future<Bitmap>> render(List<Event> events, int start) {
+        List<Future<Bitmap>> codes = new ArrayList<>(CODES_PER_PAGE);
+        for (int i = start; i < Math.min(start + CODES_PER_PAGE, events.size()); i++) {
+            UUID uuid = parseUuid(events.get(i));
+            codes.add(RENDERER.submit(() -> QRCodeGenerator.generateQRCode(uuid, RENDER_SIZE)));
+        }
+        return codes;
+    }
+
+    private void drawPage(Canvas canvas, List<Event> events, List<Future<Bitmap>> codes) throws Exception {
+        float cellWidth = (PAGE_WIDTH - 2f * MARGIN) / COLUMNS;
+        float cellHeight = (PAGE_HEIGHT - 2f * MARGIN) / ROWS;
+        float codeSize = Math.min(cellWidth, cellHeight - 2f * TITLE_SIZE) - TITLE_SIZE;
+        TextPaint titlePaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+        titlePaint.setColor(Color.BLACK);
+        titlePaint.setTextSize(TITLE_SIZE);
+        titlePaint.setTextAlign(TextPaint.Align.CENTER);
+
+        canvas.drawColor(Color.WHITE);
+        for (int i = 0; i < codes.size(); i++) {
+            float left = MARGIN + (i % COLUMNS) * cellWidth;
+            float top = MARGIN + (i / COLUMNS) * cellHeight;
+            float centerX = left + cellWidth / 2;
+
+            Bitmap code;
+            try {
+                code = codes.get(i).get();
+            } catch (Exception e) {
+                // Recycle the codes of this page that are not drawn yet before giving up
+                discard(codes.subList(i + 1, codes.size()));
+                throw e;
+            }
+            if (code != null) {
+                RectF bounds = new RectF(centerX - codeSize / 2, top, centerX + codeSize / 2, top + codeSize);
+                canvas.drawBitmap(code, null, bounds, null);
+                code.recycle();
+            } else {
+                Log.w(TAG, "No QR code for event " + events.get(i).getUuid());
+            }
+
+            String title = events.get(i).getTitle() != null ? events.get(i).getTitle() : "";
+            CharSequence fitted = TextUtils.ellipsize(title, titlePaint, cellWidth - TITLE_SIZE, TextUtils.TruncateAt.END);
+            canvas.drawText(fitted, 0, fitted.length(), centerX, top + codeSize + 1.5f * TITLE_SIZE, titlePaint);
+        }
+    }
+
+    /** Cancels or waits for rendered codes that will not be drawn and recycles them. */
+    private static void discard(List<Future<Bitmap>> codes) {
+        for (Future<Bitmap> future : codes) {
+            if (future.cancel(false)) continue;
+            try {
+                Bitmap code = future.get();
+                if (code != null) {
+                    code.recycle();
+                }
+            } catch (Exception ignored) {
+                // Nothing to recycle
+            }
+        }
+    }
+
+    private static UUID parseUuid(Event event) {
+        if (event == null || event.getUuid() == null) return null;
+        try {
+            return UUID.fromString(event.getUuid());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Prints all of an organizer's events: the button shows the progress and is disabled until the
+     * sheet is written, then the share sheet opens so the PDF can be printed or saved.
+     * @param activity organizer screen
+     * @param button print button of the screen
+     * @param organizerId owner of the events
+     */
+    public static void exportOrganizerSheet(Activity activity, Button button, String organizerId) {
+        CharSequence label = button.getText();
+        button.setEnabled(false);
+        Consumer<Exception> failed = e -> {
+            button.setEnabled(true);
+            button.setText(label);
+            Toast.makeText(activity, "Failed to create QR codes.", Toast.LENGTH_SHORT).show();
+        };
+        new EventList().fetchAllOrganizerEvents(organizerId, new EventList.EventListCallback() {
+            @Override
+            public void onEventsFetched(ArrayList<Event> events) {
+                if (events.isEmpty()) {
+                    button.setEnabled(true);
+                    button.setText(label);
+                    Toast.makeText(activity, "No events to print.", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                new QRSheetExporter(activity).export(events, "qr_codes_" + organizerId + ".pdf",
+                        (drawn, total) -> button.setText("Rendering " + drawn + "/" + total),
+                        file -> {
+                            button.setEnabled(true);
+                            button.setText(label);
+                            if (!activity.isFinishing()) {
+                                CsvExporter.share(activity, file, "application/pdf", "Share QR Codes");
+                            }
+                        },
+                        failed);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                failed.accept(e);
+            }
+        });
+    }
+}
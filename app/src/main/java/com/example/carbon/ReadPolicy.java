@@ -0,0 +1,124 @@
+package com.example.carbon;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache-first read policy for screens that display Firestore data. A read is answered from the
+ * Firestore local cache right away when the data is cached, then revalidated from the server
+ * unless this process read it from the server within the policy's staleness budget. Each result
+ * says whether it may be stale, so screens can render immediately and show an indicator, see
+ * {@link UIHelper#showStaleIndicator}, until the server answers. When the server cannot be
+ * reached the cached result stays on screen instead of an error.
+ * Outstanding issues: server read times are kept in memory, so after a restart every cached
+ * read is revalidated once.
+ */
+public class ReadPolicy {
+    private static final String TAG = "ReadPolicy";
+
+    // Entrants read event details that rarely change between two visits
+    public static final ReadPolicy EVENT_DETAILS = new ReadPolicy("event details", 60_000);
+    public static final ReadPolicy WAITLIST = new ReadPolicy("waitlist", 10_000);
+    public static final ReadPolicy EVENT_LISTS = new ReadPolicy("event lists", 30_000);
+
+    // Last server read per document path or query key, in elapsedRealtime
+    private static final Map<String, Long> serverReadAt = new ConcurrentHashMap<>();
+
+    /**
+     * Receives the results of a read, at most once from the cache and once from the server.
+     */
+    public interface Listener<T> {
+        /**
+         * @param result the read result
+         * @param stale true when it comes from the cache and has not been confirmed by the
+         *              server within the staleness budget
+         */
+        void onResult(T result, boolean stale);
+    }
+
+    private final String name;
+    private final long staleAfterMillis;
+
+    /**
+     * @param name screen or data the policy is for, used in logs
+     * @param staleAfterMillis how long after a server read cached data is shown without
+     *                         revalidating it
+     */
+    public ReadPolicy(String name, long staleAfterMillis) {
+        this.name = name;
+        this.staleAfterMillis = staleAfterMillis;
+    }
+
+    /**
+     * Reads a document; a document missing from the cache is read from the server only.
+     * @param ref document to read
+     * @param listener receives the cached and the server snapshot
+     * @param onError callback when nothing could be read at all
+     */
+    public void read(DocumentReference ref, Listener<DocumentSnapshot> listener, Consumer<Exception> onError) {
+        read(ref.getPath(), ref::get, DocumentSnapshot::exists, listener, onError);
+    }
+
+    /**
+     * Reads a query; an empty cached result is treated as not cached.
+     * @param query query to read
+     * @param key stable key of the query, e.g. the path of the collection it reads
+     * @param listener receives the cached and the server result
+     * @param onError callback when nothing could be read at all
+     */
+    public void read(Query query, String key, Listener<QuerySnapshot> listener, Consumer<Exception> onError) {
+        read(key, query::get, snapshot -> !snapshot.isEmpty(), listener, onError);
+    }
+
+    private <T> void read(String key, Function<Source, Task<T>> get, Predicate<T> isCached,
+                          Listener<T> listener, Consumer<Exception> onError) {
+        get.apply(Source.CACHE).addOnCompleteListener(cacheRead -> {
+            boolean shown = cacheRead.isSuccessful() && isCached.test(cacheRead.getResult());
+            boolean fresh = isFresh(key, SystemClock.elapsedRealtime());
+            if (shown) {
+                listener.onResult(cacheRead.getResult(), !fresh);
+                if (fresh) return;
+            }
+            get.apply(Source.SERVER)
+                    .addOnSuccessListener(result -> {
+                        markFresh(key);
+                        listener.onResult(result, false);
+                    })
+                    .addOnFailureListener(e -> {
+                        if (shown) {
+                            Log.w(TAG, name + ": keeping cached " + key + ", server read failed", e);
+                        } else {
+                            onError.accept(e);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * @return true when the key was read from the server less than the staleness budget ago
+     */
+    boolean isFresh(String key, long now) {
+        Long readAt = serverReadAt.get(key);
+        return readAt != null && now - readAt < staleAfterMillis;
+    }
+
+    /**
+     * Records a server read of a document path or query key, e.g. one made outside a policy.
+     */
+    static void markFresh(String key) {
+        serverReadAt.put(key, SystemClock.elapsedRealtime());
+    }
+}
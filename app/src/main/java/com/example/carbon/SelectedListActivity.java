@@ -20,9 +20,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -56,7 +53,7 @@ public class SelectedListActivity extends AppCompatActivity {
         RecyclerView recyclerView = findViewById(R.id.recycler_selected);
         emptyMessage = findViewById(R.id.empty_message);
 
-        adapter = new WaitlistAdapter(selectedEntrants);
+        adapter = new WaitlistAdapter();
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         recyclerView.setAdapter(adapter);
 
@@ -66,54 +63,62 @@ public class SelectedListActivity extends AppCompatActivity {
         // Set up "Notify Selected Entrants" button listener
         notifySelectedButton = findViewById(R.id.notify_selected_btn);
         notifySelectedButton.setOnClickListener(v -> showReminderDialog());
+
+        findViewById(R.id.export_csv_btn).setOnClickListener(v -> exportSelectedToCsv());
+    }
+
+    private void exportSelectedToCsv() {
+        if (selectedEntrants.isEmpty()) {
+            Toast.makeText(this, "No selected users to export.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        CsvExporter.exportWithProgress(this, findViewById(R.id.export_csv_btn), selectedEntrants,
+                "selected_list_" + eventId + ".csv", "Export selected list");
     }
 
     private void loadSelectedFromDatabase(String eventId) {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        Query query = db.collection("events").whereEqualTo("uuid", eventId).limit(1);
-
-        query.get().addOnCompleteListener(task -> {
-            if (task.isSuccessful()) {
-                if (!task.getResult().isEmpty()) {
-                    DocumentSnapshot document = task.getResult().getDocuments().get(0);
-                    Event event = document.toObject(Event.class);
-
-                    if (event != null && event.getWaitlist() != null) {
-                        this.currentEvent = event;
-                        this.waitlist = event.getWaitlist();
-                        List<WaitlistEntrant> entrants = this.waitlist.getWaitlistEntrants();
-
-                        if (entrants != null && !entrants.isEmpty()) {
-                            selectedEntrants.clear();
-
-                            for (WaitlistEntrant entrant : entrants) {
-                                if (entrant != null && !Objects.equals(entrant.getStatus(), "Not Selected")) {
-                                    selectedEntrants.add(entrant);
-                                }
-                            }
-
-                            adapter.notifyDataSetChanged();
-
-                            if (selectedEntrants.isEmpty()) {
-                                emptyMessage.setVisibility(View.VISIBLE);
-                            } else {
-                                emptyMessage.setVisibility(View.GONE);
-                            }
-
-                            Log.d("Selected DB", "Loaded " + selectedEntrants.size() + " selected entrants.");
-                        } else {
-                            emptyMessage.setVisibility(View.VISIBLE);
-                            Toast.makeText(this, "No entrants found.", Toast.LENGTH_SHORT).show();
+        // Shows the cached list at once; the server copy replaces it when it arrives
+        new FirebaseWaitlistService().fetchEventWithEntrants(eventId, ReadPolicy.WAITLIST, (document, event, stale) -> {
+            UIHelper.showStaleIndicator(this, stale);
+
+            if (event != null && event.getWaitlist() != null) {
+                this.currentEvent = event;
+                this.waitlist = event.getWaitlist();
+                List<WaitlistEntrant> entrants = this.waitlist.getWaitlistEntrants();
+
+                if (entrants != null && !entrants.isEmpty()) {
+                    selectedEntrants.clear();
+
+                    for (WaitlistEntrant entrant : entrants) {
+                        if (entrant != null && !Objects.equals(entrant.getStatus(), "Not Selected")) {
+                            selectedEntrants.add(entrant);
                         }
+                    }
+
+                    adapter.updateList(selectedEntrants);
+
+                    if (selectedEntrants.isEmpty()) {
+                        emptyMessage.setVisibility(View.VISIBLE);
                     } else {
-                        Toast.makeText(this, "Waitlist missing in this event.", Toast.LENGTH_SHORT).show();
+                        emptyMessage.setVisibility(View.GONE);
                     }
+
+                    Log.d("Selected DB", "Loaded " + selectedEntrants.size() + " selected entrants.");
                 } else {
-                    Toast.makeText(this, "Event not found.", Toast.LENGTH_SHORT).show();
+                    emptyMessage.setVisibility(View.VISIBLE);
+                    if (!stale) {
+                        Toast.makeText(this, "No entrants found.", Toast.LENGTH_SHORT).show();
+                    }
                 }
+            } else {
+                Toast.makeText(this, "Waitlist missing in this event.", Toast.LENGTH_SHORT).show();
+            }
+        }, e -> {
+            if (e instanceof EventIdResolver.EventNotFoundException) {
+                Toast.makeText(this, "Event not found.", Toast.LENGTH_SHORT).show();
             } else {
                 Toast.makeText(this, "Failed to load data.", Toast.LENGTH_SHORT).show();
-                Log.e("Selected DB", "Error loading: ", task.getException());
+                Log.e("Selected DB", "Error loading: ", e);
             }
         });
     }
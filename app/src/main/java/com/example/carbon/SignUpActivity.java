@@ -117,8 +117,10 @@ public class SignUpActivity extends AppCompatActivity {
                             FirebaseFirestore db = FirebaseFirestore.getInstance();
                             db.collection("users").document(userId)
                                     .set(userData)
-                                    .addOnSuccessListener(aVoid ->
-                                            Toast.makeText(SignUpActivity.this, "Account created & saved!", Toast.LENGTH_SHORT).show())
+                                    .addOnSuccessListener(aVoid -> {
+                                        UserCache.getInstance().invalidate(userId);
+                                        Toast.makeText(SignUpActivity.this, "Account created & saved!", Toast.LENGTH_SHORT).show();
+                                    })
                                     .addOnFailureListener(e ->
                                             Toast.makeText(SignUpActivity.this, "Saved Auth but failed Firestore: " + e.getMessage(), Toast.LENGTH_LONG).show());
                         } else {
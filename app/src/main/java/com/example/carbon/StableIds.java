@@ -0,0 +1,30 @@
+package com.example.carbon;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out RecyclerView item IDs for string keys such as event UUIDs, user IDs and notification IDs.
+ * The first key seen gets 0, the next 1, and so on, so a key keeps its ID for the lifetime of the
+ * adapter and two keys never share one (unlike String.hashCode()).
+ * Outstanding issues: IDs of keys that left the list are kept until the adapter is discarded.
+ */
+public class StableIds {
+    private final Map<String, Long> ids = new HashMap<>();
+
+    /**
+     * @param key item key; null maps to {@link RecyclerView#NO_ID}
+     * @return the ID assigned to the key
+     */
+    public long idOf(String key) {
+        if (key == null) return RecyclerView.NO_ID;
+        Long id = ids.get(key);
+        if (id == null) {
+            id = (long) ids.size();
+            ids.put(key, id);
+        }
+        return id;
+    }
+}
@@ -7,7 +7,9 @@ package com.example.carbon;
 
 import android.app.Activity;
 import android.content.Intent;
+import android.view.View;
 import android.widget.ImageButton;
+import android.widget.TextView;
 import android.content.SharedPreferences;
 
 public class UIHelper {
@@ -59,6 +61,18 @@ public class UIHelper {
         activity.startActivity(intent);
     }
 
+    /**
+     * Shows or hides the header note that the screen displays cached data, see {@link ReadPolicy}.
+     * Screens without the shared header are ignored.
+     * @param stale true while the displayed data may be out of date
+     */
+    public static void showStaleIndicator(Activity activity, boolean stale) {
+        TextView indicator = activity.findViewById(R.id.stale_indicator);
+        if (indicator != null) {
+            indicator.setVisibility(stale ? View.VISIBLE : View.GONE);
+        }
+    }
+
     private static Class<?> getHomeActivity(Activity activity) {
         SharedPreferences prefs = activity.getSharedPreferences("user_prefs", Activity.MODE_PRIVATE);
         String role = prefs.getString("role", "");
@@ -1,20 +1,28 @@
 package com.example.carbon;
 
+import com.google.firebase.firestore.DocumentId;
+
 /**
  * Lightweight user profile record used throughout the app.
  * Outstanding issues: ban reason and roles beyond entrant/organizer are not yet captured.
  */
 public class User {
+    @DocumentId
+    private String userId;
     private String firstName;
     private String lastName;
     private String email;
     private String phoneNo;
     private String role;
     private boolean banned;
+    private String avatarUrl;
+    private Boolean notificationsEnabled;
 
     /** Firestore/serialization constructor. */
     public User() {}
 
+    /** @return ID of the users document, filled in by Firestore when the profile is read */
+    public String getUserId() { return userId; }
     /** @return user's given name */
     public String getFirstName() { return firstName; }
     /** @return user's surname */
@@ -30,4 +38,27 @@ public class User {
     public boolean isBanned() {
         return banned;
     }
+    /** @return download URL of the profile photo, or null */
+    public String getAvatarUrl() { return avatarUrl; }
+    /** @return notification preference, or null when never set */
+    public Boolean getNotificationsEnabled() { return notificationsEnabled; }
+
+    /** @param userId ID of the users document */
+    public void setUserId(String userId) { this.userId = userId; }
+    /** @param firstName user's given name */
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+    /** @param lastName user's surname */
+    public void setLastName(String lastName) { this.lastName = lastName; }
+    /** @param email primary email */
+    public void setEmail(String email) { this.email = email; }
+    /** @param phoneNo phone number string */
+    public void setPhoneNo(String phoneNo) { this.phoneNo = phoneNo; }
+    /** @param role entrant, organizer or admin */
+    public void setRole(String role) { this.role = role; }
+    /** @param banned whether the account is blocked */
+    public void setBanned(boolean banned) { this.banned = banned; }
+    /** @param avatarUrl download URL of the profile photo */
+    public void setAvatarUrl(String avatarUrl) { this.avatarUrl = avatarUrl; }
+    /** @param notificationsEnabled notification preference */
+    public void setNotificationsEnabled(Boolean notificationsEnabled) { this.notificationsEnabled = notificationsEnabled; }
 }
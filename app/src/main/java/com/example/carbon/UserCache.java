@@ -0,0 +1,334 @@
+package com.example.carbon;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Process-wide cache of user profiles in front of the users collection. Lookups go through a
+ * bounded LRU memory tier, then a SharedPreferences tier that survives restarts, and only then
+ * to Firestore through {@link UserLoader}. Entries older than the TTL are treated as misses.
+ * Screens that write a users document call {@link #invalidate(String)} so the next read is fresh.
+ * The persistent tier's keys are indexed in memory, oldest first, so writes and evictions do not
+ * read the whole preferences file.
+ * Outstanding issues: writes made on other devices are only picked up once the TTL expires.
+ */
+public class UserCache {
+    private static final String TAG = "UserCache";
+    private static final String PREFS_NAME = "user_cache";
+    private static final int MEMORY_CAPACITY = 500;
+    private static final int DISK_CAPACITY = 2000;
+    private static final long TTL_MILLIS = 10 * 60 * 1000L;
+
+    private static UserCache instance;
+
+    private final SharedPreferences diskCache;
+    // Keys of the persistent tier, least recently written first; guarded by itself
+    private final LinkedHashSet<String> diskKeys = new LinkedHashSet<>();
+    private final Map<String, Entry> memoryCache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MEMORY_CAPACITY;
+        }
+    };
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static class Entry {
+        final User user;
+        final long cachedAt;
+
+        Entry(User user, long cachedAt) {
+            this.user = user;
+            this.cachedAt = cachedAt;
+        }
+
+        boolean isFresh(long now) {
+            return now - cachedAt < TTL_MILLIS;
+        }
+    }
+
+    private UserCache(Context context) {
+        this.diskCache = context != null
+                ? context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                : null;
+        loadDiskKeys();
+    }
+
+    /** Indexes the persistent tier once, ordered by cachedAt. */
+    private void loadDiskKeys() {
+        if (diskCache == null) return;
+        List<Map.Entry<String, Long>> ages = new ArrayList<>();
+        for (Map.Entry<String, ?> e : diskCache.getAll().entrySet()) {
+            long cachedAt = 0;
+            try {
+                cachedAt = new JSONObject(String.valueOf(e.getValue())).optLong("cachedAt", 0);
+            } catch (JSONException ignored) {
+                // unreadable entries sort first and are evicted first
+            }
+            ages.add(new AbstractMap.SimpleEntry<>(e.getKey(), cachedAt));
+        }
+        ages.sort(Map.Entry.comparingByValue());
+        for (Map.Entry<String, Long> age : ages) {
+            diskKeys.add(age.getKey());
+        }
+    }
+
+    /**
+     * Creates the shared cache with a persistent tier. Called once from {@link CarbonApplication}.
+     * @param context any context; the application context is retained
+     */
+    public static synchronized void init(Context context) {
+        if (instance == null || instance.diskCache == null) {
+            instance = new UserCache(context);
+        }
+    }
+
+    /**
+     * @return the shared cache; memory-only if {@link #init(Context)} has not run yet
+     */
+    public static synchronized UserCache getInstance() {
+        if (instance == null) {
+            instance = new UserCache(null);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a cached profile or loads it. Must be called from the main thread.
+     * @param userId document ID in the users collection
+     * @param callback receives the user, or an error if it cannot be loaded
+     */
+    public void get(String userId, WaitlistEntrant.UserCallback callback) {
+        User cached = peek(userId);
+        if (cached != null) {
+            callback.onUserFetched(cached);
+            return;
+        }
+        misses.incrementAndGet();
+        UserLoader.getInstance().load(userId, new WaitlistEntrant.UserCallback() {
+            @Override
+            public void onUserFetched(User user) {
+                put(userId, user);
+                callback.onUserFetched(user);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                callback.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Returns several profiles at once, e.g. for an export; misses are fetched in batches.
+     * @param userIds document IDs in the users collection
+     * @param onLoaded receives users keyed by ID; IDs that failed or do not exist are absent
+     */
+    public void getAll(Collection<String> userIds, Consumer<Map<String, User>> onLoaded) {
+        Set<String> unique = new LinkedHashSet<>(userIds);
+        unique.remove(null);
+        unique.remove("");
+        Map<String, User> users = new HashMap<>();
+        if (unique.isEmpty()) {
+            onLoaded.accept(users);
+            return;
+        }
+        int[] remaining = {unique.size()};
+        for (String userId : unique) {
+            get(userId, new WaitlistEntrant.UserCallback() {
+                @Override
+                public void onUserFetched(User user) {
+                    users.put(userId, user);
+                    done();
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    done();
+                }
+
+                private void done() {
+                    if (--remaining[0] == 0) {
+                        onLoaded.accept(users);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns a fresh cached profile without going to Firestore; counts as a hit when found.
+     * @param userId document ID in the users collection
+     * @return the cached user, or null when absent or expired
+     */
+    public User peek(String userId) {
+        if (userId == null || userId.isEmpty()) return null;
+        long now = System.currentTimeMillis();
+        synchronized (memoryCache) {
+            Entry entry = memoryCache.get(userId);
+            if (entry != null && entry.isFresh(now)) {
+                memoryHits.incrementAndGet();
+                return entry.user;
+            }
+        }
+        Entry entry = readDisk(userId);
+        if (entry != null && entry.isFresh(now)) {
+            diskHits.incrementAndGet();
+            synchronized (memoryCache) {
+                memoryCache.put(userId, entry);
+            }
+            return entry.user;
+        }
+        return null;
+    }
+
+    /**
+     * Stores a profile, e.g. one just read from a users query.
+     * @param userId document ID in the users collection
+     * @param user profile to cache; ignored when null
+     */
+    public void put(String userId, User user) {
+        if (userId == null || userId.isEmpty() || user == null) return;
+        Entry entry = new Entry(user, System.currentTimeMillis());
+        synchronized (memoryCache) {
+            memoryCache.put(userId, entry);
+        }
+        writeDisk(userId, entry);
+    }
+
+    /**
+     * Drops a profile from both tiers after its users document was written.
+     * @param userId document ID in the users collection
+     */
+    public void invalidate(String userId) {
+        if (userId == null) return;
+        synchronized (memoryCache) {
+            memoryCache.remove(userId);
+        }
+        if (diskCache != null) {
+            synchronized (diskKeys) {
+                diskKeys.remove(userId);
+            }
+            diskCache.edit().remove(userId).apply();
+        }
+    }
+
+    /**
+     * Drops every cached profile, e.g. on sign-out.
+     */
+    public void clear() {
+        synchronized (memoryCache) {
+            memoryCache.clear();
+        }
+        if (diskCache != null) {
+            synchronized (diskKeys) {
+                diskKeys.clear();
+            }
+            diskCache.edit().clear().apply();
+        }
+    }
+
+    /** @return lookups answered from the memory tier */
+    public long getMemoryHitCount() { return memoryHits.get(); }
+
+    /** @return lookups answered from the persistent tier */
+    public long getDiskHitCount() { return diskHits.get(); }
+
+    /** @return lookups that went to Firestore */
+    public long getMissCount() { return misses.get(); }
+
+    /** @return fraction of lookups answered without Firestore, 0 when nothing was looked up */
+    public double getHitRate() {
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private Entry readDisk(String userId) {
+        if (diskCache == null) return null;
+        String json = diskCache.getString(userId, null);
+        if (json == null) return null;
+        try {
+            JSONObject obj = new JSONObject(json);
+            User user = new User();
+            user.setUserId(userId);
+            user.setFirstName(obj.optString("firstName", null));
+            user.setLastName(obj.optString("lastName", null));
+            user.setEmail(obj.optString("email", null));
+            user.setPhoneNo(obj.optString("phoneNo", null));
+            user.setRole(obj.optString("role", null));
+            user.setBanned(obj.optBoolean("banned", false));
+            user.setAvatarUrl(obj.optString("avatarUrl", null));
+            if (obj.has("notificationsEnabled")) {
+                user.setNotificationsEnabled(obj.getBoolean("notificationsEnabled"));
+            }
+            return new Entry(user, obj.getLong("cachedAt"));
+        } catch (JSONException e) {
+            Log.w(TAG, "Dropping unreadable cache entry for " + userId, e);
+            synchronized (diskKeys) {
+                diskKeys.remove(userId);
+            }
+            diskCache.edit().remove(userId).apply();
+            return null;
+        }
+    }
+
+    private void writeDisk(String userId, Entry entry) {
+        if (diskCache == null) return;
+        try {
+            JSONObject obj = new JSONObject();
+            obj.put("cachedAt", entry.cachedAt);
+            obj.put("firstName", entry.user.getFirstName());
+            obj.put("lastName", entry.user.getLastName());
+            obj.put("email", entry.user.getEmail());
+            obj.put("phoneNo", entry.user.getPhoneNo());
+            obj.put("role", entry.user.getRole());
+            obj.put("banned", entry.user.isBanned());
+            obj.put("avatarUrl", entry.user.getAvatarUrl());
+            if (entry.user.getNotificationsEnabled() != null) {
+                obj.put("notificationsEnabled", entry.user.getNotificationsEnabled().booleanValue());
+            }
+
+            SharedPreferences.Editor editor = diskCache.edit();
+            synchronized (diskKeys) {
+                // Re-adding moves the key to the newest end
+                boolean stored = diskKeys.remove(userId);
+                if (!stored && diskKeys.size() >= DISK_CAPACITY) {
+                    evictOldest(editor);
+                }
+                diskKeys.add(userId);
+            }
+            editor.putString(userId, obj.toString()).apply();
+        } catch (JSONException e) {
+            Log.w(TAG, "Failed to persist cache entry for " + userId, e);
+        }
+    }
+
+    /** Removes the quarter of disk entries written longest ago; the caller holds diskKeys. */
+    private void evictOldest(SharedPreferences.Editor editor) {
+        int toRemove = Math.max(1, diskKeys.size() / 4);
+        Iterator<String> oldest = diskKeys.iterator();
+        for (int i = 0; i < toRemove && oldest.hasNext(); i++) {
+            editor.remove(oldest.next());
+            oldest.remove();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.carbon;
+
+import android.util.Log;
+import android.view.Choreographer;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads user profiles in batches. IDs requested during the same frame are collected and fetched
+ * with whereIn(FieldPath.documentId(), ...) queries of up to 30 IDs each, and an ID that is
+ * already being fetched is not queried again; its callback joins the request in flight.
+ * Must be called from the main thread. Most callers should go through {@link UserCache} instead.
+ */
+public class UserLoader {
+    private static final String TAG = "UserLoader";
+    // Firestore caps whereIn at 30 values
+    private static final int MAX_IDS_PER_QUERY = 30;
+
+    private static UserLoader instance;
+
+    private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final Map<String, List<WaitlistEntrant.UserCallback>> queued = new LinkedHashMap<>();
+    private final Map<String, List<WaitlistEntrant.UserCallback>> inFlight = new HashMap<>();
+    private boolean flushScheduled;
+
+    private UserLoader() {}
+
+    /**
+     * @return the shared loader
+     */
+    public static synchronized UserLoader getInstance() {
+        if (instance == null) {
+            instance = new UserLoader();
+        }
+        return instance;
+    }
+
+    /**
+     * Requests a user profile; the fetch goes out with the other IDs requested in this frame.
+     * @param userId document ID in the users collection
+     * @param callback receives the user, or an error if the document is missing or the query fails
+     */
+    public void load(String userId, WaitlistEntrant.UserCallback callback) {
+        if (userId == null || userId.isEmpty()) {
+            callback.onError(new Exception("User ID is null or empty."));
+            return;
+        }
+        List<WaitlistEntrant.UserCallback> running = inFlight.get(userId);
+        if (running != null) {
+            running.add(callback);
+            return;
+        }
+        List<WaitlistEntrant.UserCallback> callbacks = queued.get(userId);
+        if (callbacks == null) {
+            callbacks = new ArrayList<>();
+            queued.put(userId, callbacks);
+        }
+        callbacks.add(callback);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            Choreographer.getInstance().postFrameCallback(frameTimeNanos -> flush());
+        }
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        List<String> ids = new ArrayList<>(queued.keySet());
+        inFlight.putAll(queued);
+        queued.clear();
+        for (int start = 0; start < ids.size(); start += MAX_IDS_PER_QUERY) {
+            fetchChunk(ids.subList(start, Math.min(start + MAX_IDS_PER_QUERY, ids.size())));
+        }
+    }
+
+    private void fetchChunk(List<String> chunk) {
+        List<String> ids = new ArrayList<>(chunk);
+        db.collection("users")
+                .whereIn(FieldPath.documentId(), ids)
+                .get()
+                .addOnSuccessListener(querySnapshot -> {
+                    Set<String> missing = new LinkedHashSet<>(ids);
+                    for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
+                        missing.remove(doc.getId());
+                        User user = doc.toObject(User.class);
+                        for (WaitlistEntrant.UserCallback callback : finish(doc.getId())) {
+                            callback.onUserFetched(user);
+                        }
+                    }
+                    for (String userId : missing) {
+                        for (WaitlistEntrant.UserCallback callback : finish(userId)) {
+                            callback.onError(new Exception("User document not found."));
+                        }
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load " + ids.size() + " users", e);
+                    for (String userId : ids) {
+                        for (WaitlistEntrant.UserCallback callback : finish(userId)) {
+                            callback.onError(e);
+                        }
+                    }
+                });
+    }
+
+    private List<WaitlistEntrant.UserCallback> finish(String userId) {
+        List<WaitlistEntrant.UserCallback> callbacks = inFlight.remove(userId);
+        return callbacks != null ? callbacks : new ArrayList<>();
+    }
+}
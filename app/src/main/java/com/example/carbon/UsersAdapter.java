@@ -11,14 +11,38 @@ import android.view.ViewGroup;
 import android.widget.ImageButton;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
-public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.VH> {
-    private List<User> users = new ArrayList<>();
+public class UsersAdapter extends ListAdapter<User, UsersAdapter.VH> {
+    private final StableIds stableIds = new StableIds();
     private OnDeleteClickListener deleteListener;
 
+    private static final DiffUtil.ItemCallback<User> DIFF = new DiffUtil.ItemCallback<User>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return Objects.equals(oldItem.getUserId(), newItem.getUserId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull User oldItem, @NonNull User newItem) {
+            return Objects.equals(oldItem.getFirstName(), newItem.getFirstName())
+                    && Objects.equals(oldItem.getLastName(), newItem.getLastName())
+                    && Objects.equals(oldItem.getEmail(), newItem.getEmail())
+                    && Objects.equals(oldItem.getPhoneNo(), newItem.getPhoneNo())
+                    && Objects.equals(oldItem.getRole(), newItem.getRole());
+        }
+    };
+
+    public UsersAdapter() {
+        super(DIFF);
+        setHasStableIds(true);
+    }
+
     public interface OnDeleteClickListener {
         void onDelete(User user, int position);
     }
@@ -27,10 +51,17 @@ public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.VH> {
         this.deleteListener = listener;
     }
 
+    /**
+     * Shows a new list of users, diffed by user ID in the background.
+     * @param newList users to display
+     */
     public void updateList(List<User> newList) {
-        users.clear();
-        users.addAll(newList);
-        notifyDataSetChanged();
+        submitList(newList == null ? null : new ArrayList<>(newList));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idOf(getItem(position).getUserId());
     }
 
     @NonNull
@@ -43,7 +74,7 @@ public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.VH> {
 
     @Override
     public void onBindViewHolder(@NonNull VH h, int i) {
-        User u = users.get(i);
+        User u = getItem(i);
         h.tvName.setText(u.getFirstName() + " " + u.getLastName());
         h.tvEmail.setText(u.getEmail());
         h.tvPhone.setText(u.getPhoneNo());
@@ -56,11 +87,6 @@ public class UsersAdapter extends RecyclerView.Adapter<UsersAdapter.VH> {
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return users.size();
-    }
-
     static class VH extends RecyclerView.ViewHolder {
         TextView tvName, tvEmail, tvPhone, tvRole;
         ImageButton btnDelete;
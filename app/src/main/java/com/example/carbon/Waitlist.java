@@ -6,15 +6,29 @@ import java.util.List;
 
 /**
  * Model that tracks entrants for an event along with registration window constraints.
+ * Entrants are either embedded in the event document (legacy) or stored one document per entrant
+ * under events/{eventDocId}/entrants, see {@link FirebaseWaitlistService}.
  * Outstanding issues: isUserOnWaitlist currently checks object equality and should be revisited
  * if WaitlistEntrant equality semantics change.
  */
 public class Waitlist {
 
+    /** Entrants live in the waitlistEntrants array of the event document. */
+    public static final String STORAGE_EMBEDDED = "embedded";
+    /** Entrants live in the events/{eventDocId}/entrants subcollection. */
+    public static final String STORAGE_SUBCOLLECTION = "subcollection";
+
     private List<WaitlistEntrant> waitlistEntrants;       // Firebase stores user IDs (not the objects entirely)
     private Date opening;               // When waitlist opens
     private Date deadline;              // When waitlist closes
     private int maxLimit;               // Max number of entrants allowed
+    private String entrantStorage;      // STORAGE_SUBCOLLECTION, or null/STORAGE_EMBEDDED for legacy documents
+    private int entrantCount;           // Entrant total kept in sync with the subcollection
+    private boolean participationsIndexed; // Entrants are mirrored in users/{userId}/participations
+    private String lotteryMode;         // WaitlistLottery.MODE_*, null until the first draw
+    private Long lotterySeed;           // Seed of the last weighted draw, reused for replacements
+    private Long lotteryFirstRegistration; // Registration span the last weighted draw weighed by,
+    private Long lotteryLastRegistration;  // in epoch millis, reused for replacements
 
     /** Firestore requires a no-argument constructor. */
     public Waitlist() {}
@@ -30,6 +44,8 @@ public class Waitlist {
         this.opening = opening;
         this.deadline = deadline;
         this.maxLimit = maxLimit;
+        this.entrantStorage = STORAGE_SUBCOLLECTION;
+        this.participationsIndexed = true;
     }
 
     /**
@@ -42,6 +58,8 @@ public class Waitlist {
         this.opening = opening;
         this.deadline = deadline;
         this.maxLimit = Integer.MAX_VALUE;
+        this.entrantStorage = STORAGE_SUBCOLLECTION;
+        this.participationsIndexed = true;
     }
 
     /**
@@ -97,7 +115,17 @@ public class Waitlist {
      * @return number of entrants on the waitlist
      */
     public int getWaitlistCount() {
-        return waitlistEntrants.size();
+        if (usesEntrantSubcollection() && (waitlistEntrants == null || waitlistEntrants.isEmpty())) {
+            return entrantCount;
+        }
+        return waitlistEntrants != null ? waitlistEntrants.size() : 0;
+    }
+
+    /**
+     * @return true when entrants are stored in the entrants subcollection rather than this document
+     */
+    public boolean usesEntrantSubcollection() {
+        return STORAGE_SUBCOLLECTION.equals(entrantStorage);
     }
 
     /**
@@ -125,5 +153,36 @@ public class Waitlist {
     public Date getDeadline() { return deadline; }
     /** @return maximum allowed entrants */
     public int getMaxLimit() { return maxLimit; }
+    /** @return where entrants are stored, see STORAGE_EMBEDDED and STORAGE_SUBCOLLECTION */
+    public String getEntrantStorage() { return entrantStorage; }
+    /** @return entrant total maintained for subcollection storage */
+    public int getEntrantCount() { return entrantCount; }
+    /** @return true once every entrant has an entry in the participations index */
+    public boolean isParticipationsIndexed() { return participationsIndexed; }
+    /** @return mode of the last lottery draw, see WaitlistLottery.MODE_*, or null */
+    public String getLotteryMode() { return lotteryMode; }
+    /** @return seed of the last lottery draw, or null */
+    public Long getLotterySeed() { return lotterySeed; }
+    /** @return earliest registration, in epoch millis, weighed by the last weighted draw, or null */
+    public Long getLotteryFirstRegistration() { return lotteryFirstRegistration; }
+    /** @return latest registration, in epoch millis, weighed by the last weighted draw, or null */
+    public Long getLotteryLastRegistration() { return lotteryLastRegistration; }
+
+    /** @param waitlistEntrants entrants loaded from whichever storage the event uses */
+    public void setWaitlistEntrants(List<WaitlistEntrant> waitlistEntrants) { this.waitlistEntrants = waitlistEntrants; }
+    /** @param entrantStorage STORAGE_EMBEDDED or STORAGE_SUBCOLLECTION */
+    public void setEntrantStorage(String entrantStorage) { this.entrantStorage = entrantStorage; }
+    /** @param entrantCount entrant total maintained for subcollection storage */
+    public void setEntrantCount(int entrantCount) { this.entrantCount = entrantCount; }
+    /** @param participationsIndexed true once every entrant has an entry in the participations index */
+    public void setParticipationsIndexed(boolean participationsIndexed) { this.participationsIndexed = participationsIndexed; }
+    /** @param lotteryMode mode of the last lottery draw */
+    public void setLotteryMode(String lotteryMode) { this.lotteryMode = lotteryMode; }
+    /** @param lotterySeed seed of the last lottery draw */
+    public void setLotterySeed(Long lotterySeed) { this.lotterySeed = lotterySeed; }
+    /** @param lotteryFirstRegistration earliest registration weighed by the last weighted draw */
+    public void setLotteryFirstRegistration(Long lotteryFirstRegistration) { this.lotteryFirstRegistration = lotteryFirstRegistration; }
+    /** @param lotteryLastRegistration latest registration weighed by the last weighted draw */
+    public void setLotteryLastRegistration(Long lotteryLastRegistration) { this.lotteryLastRegistration = lotteryLastRegistration; }
 
 }
@@ -7,9 +7,12 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
@@ -18,13 +21,43 @@ import java.util.Objects;
  * An adapter to display a list of WaitlistEntrant objects in a RecyclerView.
  * It takes a list of entrants and binds their data to the views defined in
  * the item_waitlist_entrant.xml layout file.
+ * Lists are diffed by user ID off the main thread; when only an entrant's status changed, the row
+ * is rebound with {@link #PAYLOAD_STATUS} and the name lookup is skipped.
  */
-public class WaitlistAdapter extends RecyclerView.Adapter<WaitlistAdapter.ViewHolder> {
+public class WaitlistAdapter extends ListAdapter<WaitlistEntrant, WaitlistAdapter.ViewHolder> {
+
+    /** Change payload for entrants whose status, selection date or cancellation reason changed */
+    static final Object PAYLOAD_STATUS = new Object();
 
-    private List<WaitlistEntrant> entrantList;
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("MMM dd, yyyy 'at' hh:mm a", Locale.US);
+    private final StableIds stableIds = new StableIds();
     private OnSelectClickListener selectClickListener;
 
+    private static final DiffUtil.ItemCallback<WaitlistEntrant> DIFF = new DiffUtil.ItemCallback<WaitlistEntrant>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull WaitlistEntrant oldItem, @NonNull WaitlistEntrant newItem) {
+            return Objects.equals(oldItem.getUserId(), newItem.getUserId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull WaitlistEntrant oldItem, @NonNull WaitlistEntrant newItem) {
+            return Objects.equals(oldItem.getRegistrationDate(), newItem.getRegistrationDate())
+                    && sameStatus(oldItem, newItem);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull WaitlistEntrant oldItem, @NonNull WaitlistEntrant newItem) {
+            return Objects.equals(oldItem.getRegistrationDate(), newItem.getRegistrationDate())
+                    ? PAYLOAD_STATUS : null;
+        }
+    };
+
+    private static boolean sameStatus(WaitlistEntrant a, WaitlistEntrant b) {
+        return Objects.equals(a.getStatus(), b.getStatus())
+                && Objects.equals(a.getSelectionDate(), b.getSelectionDate())
+                && Objects.equals(a.getCancellationReason(), b.getCancellationReason());
+    }
+
     public interface OnSelectClickListener {
         void onSelectClick(WaitlistEntrant entrant, int position);
     }
@@ -34,11 +67,16 @@ public class WaitlistAdapter extends RecyclerView.Adapter<WaitlistAdapter.ViewHo
     }
 
     /**
-     * Constructor for the adapter.
-     * @param entrantList The initial list of waitlist entrants to display.
+     * Constructor for the adapter; entrants are supplied through {@link #updateList(List)}.
      */
-    public WaitlistAdapter(List<WaitlistEntrant> entrantList) {
-        this.entrantList = entrantList;
+    public WaitlistAdapter() {
+        super(DIFF);
+        setHasStableIds(true);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return stableIds.idOf(getItem(position).getUserId());
     }
 
     /**
@@ -53,15 +91,35 @@ public class WaitlistAdapter extends RecyclerView.Adapter<WaitlistAdapter.ViewHo
         return new ViewHolder(view);
     }
 
+    /**
+     * Rebinds only the status views when every payload is {@link #PAYLOAD_STATUS}.
+     */
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && onlyStatusChanged(payloads)) {
+            bindStatus(holder, getItem(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    private static boolean onlyStatusChanged(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_STATUS) return false;
+        }
+        return true;
+    }
+
     /**
      * Binds the data from the WaitlistEntrant object at a given position to the ViewHolder's views.
      */
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         // Get the data model for this position
-        WaitlistEntrant entrant = entrantList.get(position);
+        WaitlistEntrant entrant = getItem(position);
         // Set a placeholder while the user data is loading
         holder.userIdTextView.setText("Loading user...");
+        holder.boundUserId = entrant.getUserId();
 
         // --- Use the new callback method ---
         String[] placeholderNames = {"John", "Luke", "Aahil"};
@@ -71,6 +129,8 @@ public class WaitlistAdapter extends RecyclerView.Adapter<WaitlistAdapter.ViewHo
         entrant.fetchUserFromDB(new WaitlistEntrant.UserCallback() {
             @Override
             public void onUserFetched(User user) {
+                // The holder may have been recycled for another entrant while the batch was loading
+                if (!Objects.equals(holder.boundUserId, entrant.getUserId())) return;
 
                 // This code runs ONLY when the user is successfully fetched
                 if (user != null && user.getFirstName() != null && user.getLastName() != null) {
@@ -83,6 +143,7 @@ public class WaitlistAdapter extends RecyclerView.Adapter<WaitlistAdapter.ViewHo
 
             @Override
             public void onError(Exception e) {
+                if (!Objects.equals(holder.boundUserId, entrant.getUserId())) return;
                 // Use placeholder instead of error message
                 holder.userIdTextView.setText("Name: " + placeholderNames[placeholderIndex]);
                 Log.e("WaitlistAdapter", "Failed to fetch user: " + entrant.getUserId(), e);
@@ -96,7 +157,13 @@ public class WaitlistAdapter extends RecyclerView.Adapter<WaitlistAdapter.ViewHo
             holder.registrationDateTextView.setText("Registration date not available");
         }
 
-        // Add status
+        bindStatus(holder, entrant);
+    }
+
+    /**
+     * Binds the status label, the select button and the cancellation reason.
+     */
+    private void bindStatus(@NonNull ViewHolder holder, WaitlistEntrant entrant) {
         String status = entrant.getStatus();
         holder.statusTextView.setText(status);
 
@@ -104,9 +171,10 @@ public class WaitlistAdapter extends RecyclerView.Adapter<WaitlistAdapter.ViewHo
             holder.selectEntrantButton.setVisibility(View.VISIBLE);
             holder.selectEntrantButton.setOnClickListener(v -> {
                 if (selectClickListener != null) {
-                    selectClickListener.onSelectClick(entrant, position);
+                    selectClickListener.onSelectClick(entrant, holder.getAdapterPosition());
                 }
             });
+            holder.reason.setVisibility(View.GONE);
         } else {
             holder.selectEntrantButton.setVisibility(View.GONE);
 
@@ -125,25 +193,15 @@ public class WaitlistAdapter extends RecyclerView.Adapter<WaitlistAdapter.ViewHo
                 holder.reason.setVisibility(View.GONE);
             }
         }
-
-    }
-
-    /**
-     * Returns the total number of items in the list.
-     */
-    @Override
-    public int getItemCount() {
-        // Return 0 if the list is null to prevent crashes
-        return entrantList == null ? 0 : entrantList.size();
     }
 
     /**
-     * Updates the data set of the adapter and refreshes the RecyclerView.
+     * Shows a new list of entrants. The list is copied and diffed against the current one in the
+     * background, so only inserted, removed and changed rows are redrawn.
      * @param newEntrantList The new list of entrants to display.
      */
     public void updateList(List<WaitlistEntrant> newEntrantList) {
-        this.entrantList = newEntrantList;
-        notifyDataSetChanged(); // Tells the RecyclerView to re-render with the new data
+        submitList(newEntrantList == null ? null : new ArrayList<>(newEntrantList));
     }
 
 
@@ -158,6 +216,8 @@ public class WaitlistAdapter extends RecyclerView.Adapter<WaitlistAdapter.ViewHo
         public Button selectEntrantButton;
 
         public TextView reason;
+        /** Entrant the holder is currently bound to, used to drop results for recycled rows */
+        public String boundUserId;
 
         public ViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -1,9 +1,5 @@
 package com.example.carbon;
 
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
-
 import java.util.Date;
 
 /**
@@ -119,36 +115,13 @@ public class WaitlistEntrant {
 
     /**
      * Based on the userId's within the waitlistEntrant, it fetches the complete user data for those users
-     * and returns it through a callback
+     * and returns it through a callback. Profiles come from {@link UserCache} when fresh; misses made in the
+     * same frame are batched by {@link UserLoader}.
      * @param callback the callback object through which the user data is passed back
      *
      * @author Cooper Goddard
      */
     public void fetchUserFromDB(UserCallback callback) {
-        if (userId == null || userId.isEmpty()) {
-            callback.onError(new Exception("User ID is null or empty."));
-            return;
-        }
-
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("users")
-                .document(userId)
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        DocumentSnapshot document = task.getResult();
-                        if (document != null && document.exists()) {
-                            // Data is ready! Send the User object back via the callback.
-                            User user = document.toObject(User.class);
-                            callback.onUserFetched(user);
-                        } else {
-                            // Handle the case where the user document doesn't exist.
-                            callback.onError(new Exception("User document not found."));
-                        }
-                    } else {
-                        // Handle the case where the query failed.
-                        callback.onError(task.getException());
-                    }
-                });
+        UserCache.getInstance().get(userId, callback);
     }
 }
@@ -0,0 +1,152 @@
+package com.example.carbon;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Runs {@link LotteryEngine} draws over a waitlist in the mode the organizer chose.
+ * Uniform draws pick every entrant with the same chance. Early-registration draws weigh entrants
+ * by how early they joined: the first entrant is {@code 1 + EARLY_REGISTRATION_BONUS} times as
+ * likely as the last one, linearly in between. Weighted draws store their seed and the
+ * registration span they weighed by on the waitlist (see {@link FirebaseWaitlistService#updateEntrants})
+ * and replacement draws resume both, so every entrant keeps its weight and rank and a replacement is
+ * the next remaining entrant of the original ranking. Entrants who joined after the draw are ranked
+ * by the same seed, with their registration clamped to the stored span.
+ * Outstanding issues: weights only use the registration date; prior losses and accessibility
+ * priority would need per-entrant data the waitlist does not hold yet.
+ */
+public class WaitlistLottery {
+    /** Every entrant has the same chance. */
+    public static final String MODE_UNIFORM = "uniform";
+    /** Earlier registrations have a higher chance. */
+    public static final String MODE_EARLY_REGISTRATION = "early_registration";
+
+    static final double EARLY_REGISTRATION_BONUS = 1.0;
+
+    private final Waitlist waitlist;
+    private final String mode;
+    private final LotteryEngine engine;
+    // Registration span weighed by, in epoch millis; null for uniform draws or without dates
+    private final Long firstRegistration;
+    private final Long lastRegistration;
+
+    private WaitlistLottery(Waitlist waitlist, String mode, LotteryEngine engine, Long firstRegistration,
+                            Long lastRegistration) {
+        this.waitlist = waitlist;
+        this.mode = mode;
+        this.engine = engine;
+        this.firstRegistration = firstRegistration;
+        this.lastRegistration = lastRegistration;
+    }
+
+    /**
+     * Starts a new draw with a fresh seed.
+     * @param waitlist waitlist being drawn, with its entrants loaded
+     * @param mode MODE_UNIFORM or MODE_EARLY_REGISTRATION
+     * @return the lottery
+     */
+    public static WaitlistLottery start(Waitlist waitlist, String mode) {
+        long[] span = isWeighted(mode) ? registrationSpan(waitlist.getWaitlistEntrants()) : null;
+        return new WaitlistLottery(waitlist, mode, new LotteryEngine(),
+                span != null ? span[0] : null, span != null ? span[1] : null);
+    }
+
+    /**
+     * Continues the waitlist's last draw for replacements: same mode and, for weighted draws, the
+     * stored seed and registration span. Uniform replacements use a fresh seed. Draws stored
+     * before the span was recorded take it from the current entrants.
+     * @param waitlist waitlist being drawn, with its entrants loaded
+     * @return the lottery
+     */
+    public static WaitlistLottery resume(Waitlist waitlist) {
+        String mode = waitlist.getLotteryMode() != null ? waitlist.getLotteryMode() : MODE_UNIFORM;
+        Long seed = waitlist.getLotterySeed();
+        LotteryEngine engine = isWeighted(mode) && seed != null ? new LotteryEngine(seed) : new LotteryEngine();
+        Long first = waitlist.getLotteryFirstRegistration();
+        Long last = waitlist.getLotteryLastRegistration();
+        if (isWeighted(mode) && (first == null || last == null)) {
+            long[] span = registrationSpan(waitlist.getWaitlistEntrants());
+            first = span != null ? span[0] : null;
+            last = span != null ? span[1] : null;
+        }
+        return new WaitlistLottery(waitlist, mode, engine, first, last);
+    }
+
+    /** @return mode of this draw */
+    public String getMode() {
+        return mode;
+    }
+
+    /** @return seed of this draw */
+    public long getSeed() {
+        return engine.getSeed();
+    }
+
+    /** @return earliest registration weighed by this draw, in epoch millis, or null */
+    public Long getFirstRegistration() {
+        return firstRegistration;
+    }
+
+    /** @return latest registration weighed by this draw, in epoch millis, or null */
+    public Long getLastRegistration() {
+        return lastRegistration;
+    }
+
+    /**
+     * Picks winners among the candidates.
+     * @param candidates eligible entrants, e.g. those still "Not Selected"
+     * @param count number of winners
+     * @return up to count distinct entrants
+     */
+    public List<WaitlistEntrant> draw(List<WaitlistEntrant> candidates, int count) {
+        if (!isWeighted(mode)) {
+            return engine.draw(candidates, count);
+        }
+        if (firstRegistration == null || lastRegistration == null) {
+            return engine.drawWeighted(candidates, count, WaitlistEntrant::getUserId, entrant -> 1);
+        }
+        return engine.drawWeighted(candidates, count, WaitlistEntrant::getUserId,
+                earlyRegistration(firstRegistration, lastRegistration, EARLY_REGISTRATION_BONUS));
+    }
+
+    private static boolean isWeighted(String mode) {
+        return MODE_EARLY_REGISTRATION.equals(mode);
+    }
+
+    /**
+     * @param entrants all entrants of the waitlist, not only the candidates
+     * @return earliest and latest registration in epoch millis, or null when no entrant has one
+     */
+    static long[] registrationSpan(List<WaitlistEntrant> entrants) {
+        long earliest = Long.MAX_VALUE;
+        long latest = Long.MIN_VALUE;
+        if (entrants != null) {
+            for (WaitlistEntrant entrant : entrants) {
+                Date registered = entrant != null ? entrant.getRegistrationDate() : null;
+                if (registered == null) continue;
+                earliest = Math.min(earliest, registered.getTime());
+                latest = Math.max(latest, registered.getTime());
+            }
+        }
+        return earliest <= latest ? new long[]{earliest, latest} : null;
+    }
+
+    /**
+     * Weighs entrants linearly by registration date within a fixed span, so weights do not change
+     * when entrants join or leave after the draw.
+     * @param first earliest registration of the span, in epoch millis
+     * @param last latest registration of the span, in epoch millis
+     * @param bonus extra weight of the earliest entrant over the latest one
+     * @return the weigher; entrants without a registration date get weight 1, registrations
+     * outside the span count as its nearest end
+     */
+    static LotteryEngine.Weigher<WaitlistEntrant> earlyRegistration(long first, long last, double bonus) {
+        final double span = last > first ? last - first : 0;
+        return entrant -> {
+            Date registered = entrant.getRegistrationDate();
+            if (registered == null || span == 0) return 1;
+            long clamped = Math.min(Math.max(registered.getTime(), first), last);
+            return 1 + bonus * (1 - (clamped - first) / span);
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.carbon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+public class EventFilterIndexTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final String[] CATEGORIES = {"Sports", "Music", "Art", "Food", "Tech", "Education"};
+
+    private static Date day(long epochDay) {
+        return new Date(epochDay * DAY + 12 * 60 * 60 * 1000);
+    }
+
+    @Test
+    public void combinesCategoryLocationAndDate() {
+        EventFilterIndex index = new EventFilterIndex(UTC);
+        index.put("a", "Music", "Edmonton", day(100));
+        index.put("b", "Music", "Calgary", day(100));
+        index.put("c", "Sports", "Edmonton", day(101));
+        index.put("d", "Music", "Edmonton", day(107));
+
+        assertEquals(Arrays.asList("a", "b", "d"),
+                index.query(new EventFilterIndex.Criteria("Music", null, null, null)));
+        assertEquals(Arrays.asList("a", "d"),
+                index.query(new EventFilterIndex.Criteria("Music", "Edmonton", null, null)));
+        assertEquals(Collections.singletonList("a"),
+                index.query(new EventFilterIndex.Criteria("Music", "Edmonton", 100L, 106L)));
+        assertEquals(Arrays.asList("a", "b", "c"),
+                index.query(new EventFilterIndex.Criteria(null, null, 100L, 101L)));
+        assertTrue(index.query(new EventFilterIndex.Criteria("Food", null, null, null)).isEmpty());
+    }
+
+    @Test
+    public void putReplacesAndRemoveForgets() {
+        EventFilterIndex index = new EventFilterIndex(UTC);
+        index.put("a", "Music", "Edmonton", day(100));
+        index.put("a", "Art", "Calgary", day(200));
+
+        EventFilterIndex.Criteria music = new EventFilterIndex.Criteria("Music", null, null, null);
+        EventFilterIndex.Criteria art = new EventFilterIndex.Criteria("Art", "Calgary", 200L, 200L);
+        assertTrue(index.query(music).isEmpty());
+        assertTrue(index.matches("a", art));
+
+        index.remove("a");
+        assertFalse(index.matches("a", art));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void epochDayUsesLocalCalendarDay() {
+        TimeZone edmonton = TimeZone.getTimeZone("America/Edmonton");
+        // 2025-01-02T03:00Z is still January 1st in Edmonton
+        Date date = new Date(20090L * DAY + 3 * 60 * 60 * 1000);
+        assertEquals(20090L, EventFilterIndex.epochDay(date, UTC));
+        assertEquals(20089L, EventFilterIndex.epochDay(date, edmonton));
+    }
+
+    @Test
+    public void indexMatchesFullScan() {
+        Random random = new Random(42);
+        EventFilterIndex index = new EventFilterIndex(UTC);
+        List<Object[]> events = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String key = String.format("event%06d", i);
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            String city = "City" + random.nextInt(200);
+            long epochDay = 20000 + random.nextInt(365);
+            events.add(new Object[]{key, category, city, epochDay});
+            index.put(key, category, city, day(epochDay));
+        }
+
+        for (EventFilterIndex.Criteria criteria : Arrays.asList(
+                new EventFilterIndex.Criteria("Music", null, null, null),
+                new EventFilterIndex.Criteria(null, "City7", null, null),
+                new EventFilterIndex.Criteria(null, null, 20100L, 20106L),
+                new EventFilterIndex.Criteria("Art", "City42", 20000L, 20030L))) {
+            assertEquals(scan(events, criteria), index.query(criteria));
+        }
+    }
+
+    private static List<String> scan(List<Object[]> events, EventFilterIndex.Criteria criteria) {
+        List<String> result = new ArrayList<>();
+        for (Object[] e : events) {
+            long epochDay = (Long) e[3];
+            if (criteria.category != null && !criteria.category.equals(e[1])) continue;
+            if (criteria.location != null && !criteria.location.equals(e[2])) continue;
+            if (criteria.fromDay != null && epochDay < criteria.fromDay) continue;
+            if (criteria.toDay != null && epochDay > criteria.toDay) continue;
+            result.add((String) e[0]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.carbon;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ImageIngestorTest {
+
+    @Test
+    public void sampleSizeKeepsDecodedImageAtLeastTarget() {
+        // A 12 MP camera photo decodes at a quarter of its size for a 1600 px poster
+        assertEquals(2, ImageIngestor.sampleSizeFor(4000, 3000, 1600));
+        assertEquals(8, ImageIngestor.sampleSizeFor(4000, 3000, 400));
+        assertEquals(1, ImageIngestor.sampleSizeFor(1200, 800, 1600));
+        assertEquals(2, ImageIngestor.sampleSizeFor(3000, 4000, 1600)); // portrait uses the longer edge
+    }
+
+    @Test
+    public void scaledSizeFitsLongerEdgeAndKeepsAspectRatio() {
+        assertArrayEquals(new int[]{1600, 1200}, ImageIngestor.scaledSize(2000, 1500, 1600));
+        assertArrayEquals(new int[]{300, 400}, ImageIngestor.scaledSize(1500, 2000, 400));
+        assertArrayEquals(new int[]{800, 600}, ImageIngestor.scaledSize(800, 600, 1600)); // never enlarged
+    }
+
+    @Test
+    public void thumbnailNamesPairWithTheirPoster() {
+        assertEquals("abc_thumb.jpg", ImageIngestor.thumbnailNameOf("abc.jpg"));
+        assertTrue(ImageIngestor.isThumbnailName("abc_thumb.jpg"));
+        assertFalse(ImageIngestor.isThumbnailName("abc.jpg"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.carbon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class LotteryEngineTest {
+
+    private static List<Integer> candidates(int size) {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(i);
+        return list;
+    }
+
+    @Test
+    public void sameSeedReproducesDraw() {
+        List<Integer> pool = candidates(1000);
+        assertEquals(new LotteryEngine(7).draw(pool, 50), new LotteryEngine(7).draw(pool, 50));
+    }
+
+    @Test
+    public void drawsDistinctWinnersAcrossCalls() {
+        List<Integer> pool = candidates(100);
+        LotteryEngine.Draw<Integer> draw = new LotteryEngine(1).open(pool);
+        Set<Integer> seen = new HashSet<>(draw.next(60));
+        seen.addAll(draw.next(60)); // only 40 left
+        assertEquals(100, seen.size());
+        assertEquals(0, draw.remaining());
+        assertEquals(pool, candidates(100)); // the candidate list is left untouched
+    }
+
+    @Test
+    public void everyCandidateIsEquallyLikely() {
+        int size = 10;
+        int rounds = 20_000;
+        int[] wins = new int[size];
+        LotteryEngine engine = new LotteryEngine(3);
+        for (int r = 0; r < rounds; r++) {
+            for (int winner : engine.draw(candidates(size), 3)) wins[winner]++;
+        }
+        double expected = rounds * 3.0 / size;
+        for (int count : wins) {
+            assertTrue("count " + count, Math.abs(count - expected) < expected * 0.05);
+        }
+    }
+
+    @Test
+    public void weightedDrawContinuesRankingWithSameSeed() {
+        List<Integer> pool = candidates(500);
+        List<Integer> ranking = new LotteryEngine(11).drawWeighted(pool, 20, String::valueOf, c -> 1 + c % 3);
+
+        // A replacement draw after the first 5 winners left the pool picks the 6th of the ranking
+        List<Integer> remaining = new ArrayList<>(pool);
+        remaining.removeAll(ranking.subList(0, 5));
+        Collections.reverse(remaining); // candidate order does not matter
+        assertEquals(ranking.subList(5, 8),
+                new LotteryEngine(11).drawWeighted(remaining, 3, String::valueOf, c -> 1 + c % 3));
+    }
+
+    @Test
+    public void weightedDrawFollowsWeights() {
+        // Candidate 1 weighs three times as much as candidate 0; zero weights are never drawn
+        List<Integer> pool = candidates(3);
+        LotteryEngine.Weigher<Integer> weigher = c -> c == 0 ? 1 : c == 1 ? 3 : 0;
+        int rounds = 40_000;
+        int ones = 0;
+        for (int r = 0; r < rounds; r++) {
+            List<Integer> winners = new LotteryEngine(r).drawWeighted(pool, 2, String::valueOf, weigher);
+            assertEquals(2, winners.size());
+            if (winners.get(0) == 1) ones++;
+        }
+        assertTrue("first picks " + ones, Math.abs(ones - rounds * 0.75) < rounds * 0.01);
+    }
+}
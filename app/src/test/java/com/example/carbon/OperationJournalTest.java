@@ -0,0 +1,80 @@
+package com.example.carbon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.json.JSONException;
+import org.junit.Test;
+
+import java.util.Date;
+
+public class OperationJournalTest {
+
+    @Test
+    public void backoffDoublesPerAttempt() {
+        // Without jitter the delay is half the ceiling, which doubles per attempt
+        assertEquals(2_500, OperationJournal.backoffMillis(1, 0));
+        assertEquals(5_000, OperationJournal.backoffMillis(2, 0));
+        assertEquals(10_000, OperationJournal.backoffMillis(3, 0));
+    }
+
+    @Test
+    public void backoffJitterStaysWithinCeiling() {
+        long low = OperationJournal.backoffMillis(4, 0);
+        long high = OperationJournal.backoffMillis(4, 0.999);
+        assertTrue(high > low);
+        assertTrue(high < OperationJournal.BASE_BACKOFF_MILLIS * 8);
+    }
+
+    @Test
+    public void backoffIsCapped() {
+        assertEquals(OperationJournal.MAX_BACKOFF_MILLIS / 2, OperationJournal.backoffMillis(50, 0));
+        assertTrue(OperationJournal.backoffMillis(1000, 0.999) < OperationJournal.MAX_BACKOFF_MILLIS);
+    }
+
+    @Test
+    public void journaledAnswerSurvivesRoundTrip() throws JSONException {
+        Notification invitation = new Notification("n1", "u1", "e1", "Gala", "You were selected",
+                NotificationStatus.UNREAD, new Date(1_700_000_000_000L), "invitation");
+        PendingOperation op = PendingOperation.accept(invitation).withAttempt();
+
+        PendingOperation restored = PendingOperation.fromJson(op.toJson());
+
+        assertEquals(op.getKey(), restored.getKey());
+        assertEquals(PendingOperation.Type.ACCEPT, restored.getType());
+        assertEquals("e1", restored.getEventId());
+        assertEquals("u1", restored.getUserId());
+        assertEquals(1, restored.getAttempts());
+        assertEquals(op.getCreatedAt(), restored.getCreatedAt());
+        assertEquals("n1", restored.getNotification().getId());
+        assertEquals(NotificationStatus.UNREAD, restored.getNotification().getStatus());
+        assertEquals(invitation.getCreated_at(), restored.getNotification().getCreated_at());
+        assertEquals("invitation", restored.getNotification().getType());
+    }
+
+    @Test
+    public void answerWithoutCreationDateCanBeJournaled() throws JSONException {
+        // Firestore leaves created_at null when the document lacks the field
+        Notification invitation = new Notification("n2", "u2", "e2", "Gala", "You were selected",
+                NotificationStatus.UNREAD, null, "invitation");
+        invitation.setCreated_at(null);
+
+        PendingOperation restored = PendingOperation.fromJson(PendingOperation.decline(invitation).toJson());
+
+        assertEquals(PendingOperation.Type.DECLINE, restored.getType());
+        assertEquals("n2", restored.getNotification().getId());
+        assertNull(restored.getNotification().getCreated_at());
+    }
+
+    @Test
+    public void joinKeepsRegistrationDate() throws JSONException {
+        Date registered = new Date(1_700_000_123_000L);
+        PendingOperation op = PendingOperation.join("doc1", new WaitlistEntrant("u3", registered));
+
+        PendingOperation restored = PendingOperation.fromJson(op.toJson());
+
+        assertEquals("doc1", restored.getEventId());
+        assertEquals(registered, restored.toEntrant().getRegistrationDate());
+    }
+}